@@ -0,0 +1,27 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of this package with the GC profiler, which reports the bytes allocated
+ * per operation and the garbage collections next to the times.
+ * <p>
+ * Usage: {@code java bench.Benchmarks [regex]}, by default all benchmarks, for example
+ * {@code java bench.Benchmarks ModelBenchmark.play} for the play benchmarks of the models only.
+ * The benchmarks have to be compiled with the JMH annotation processor
+ * ({@code jmh-generator-annprocess}), which creates the classes JMH runs.
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "bench\\..*Benchmark")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,135 @@
+package bench;
+
+import game.model.IVierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.sim.SelfPlay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations of the models the AIs call millions of times per move.
+ * Every benchmark runs on each model implementation, so a new implementation is compared
+ * head-to-head with the others by adding its name to {@link #model} and to
+ * {@link SelfPlay#parseModel(String)}.
+ * <p>
+ * The benchmarks start from a middle game position with no winner, in which every column can
+ * still be played, and leave it unchanged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    /**
+     * the columns played from the empty board to reach the position the benchmarks start from
+     */
+    private static final int[] POSITION = {3, 3, 2, 4, 4, 1, 5, 5, 2, 3};
+
+    /**
+     * the model implementation, as accepted by {@link SelfPlay#parseModel(String)}
+     */
+    @Param({"array", "bitboard"})
+    public String model;
+
+    private IVierGewinntModel game;
+
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() throws InvalidMoveException {
+        game = SelfPlay.parseModel(model).get();
+        for (int col : POSITION) {
+            game.play(col);
+        }
+        random = new SplittableRandom(42);
+    }
+
+    /**
+     * plays a chip into every column and takes it back, one after another
+     */
+    @Benchmark
+    @OperationsPerInvocation(7)
+    public void playUndo(Blackhole blackhole) throws Exception {
+        for (int col = 0; col < 7; col++) {
+            blackhole.consume(game.play(col));
+            blackhole.consume(game.undo());
+        }
+    }
+
+    /**
+     * plays a chip into every column, checks the position for a win, as done after every move,
+     * and takes the chip back. The array model caches the result of the check until the next move,
+     * so the check has to follow a move to be measured at all; {@link #playUndo} is the same
+     * without the check.
+     */
+    @Benchmark
+    @OperationsPerInvocation(7)
+    public void gameWon(Blackhole blackhole) throws Exception {
+        for (int col = 0; col < 7; col++) {
+            game.play(col);
+            blackhole.consume(game.gameWon());
+            game.undo();
+        }
+    }
+
+    /**
+     * checks the position for a full board
+     */
+    @Benchmark
+    public boolean isGameOver() {
+        return game.isGameOver();
+    }
+
+    /**
+     * plays a random column and takes it back
+     */
+    @Benchmark
+    public void playRandomUndo(Blackhole blackhole) throws Exception {
+        blackhole.consume(game.playRandom());
+        blackhole.consume(game.undo());
+    }
+
+    /**
+     * plays random moves from the position to the end of the game and takes them back,
+     * as in a Monte Carlo playout
+     */
+    @Benchmark
+    public int playout() {
+        return game.playout(random);
+    }
+
+    /**
+     * plays a random game from the empty board on a new model, checking for a win after every move
+     * like the controller does
+     */
+    @Benchmark
+    public int randomGame() throws Exception {
+        IVierGewinntModel model = SelfPlay.parseModel(this.model).get();
+        int moves = 0;
+        while (model.gameWon().isEmpty() && !model.isGameOver()) {
+            int col = random.nextInt(model.getWidth());
+            if (model.isValidMove(col)) {
+                model.play(col);
+                moves++;
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,74 @@
+package bench;
+
+import game.ai.ParallelNegamaxAI;
+import game.ai.SearchResult;
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+
+/**
+ * Measures how much faster {@link ParallelNegamaxAI} reaches a fixed depth with more threads.
+ * For every thread count (1, 2, 4, ... up to the maximum) a fresh AI searches a set of opening and
+ * middle game positions, and the total time is compared to the time of a single thread.
+ * <p>
+ * Usage: {@code java bench.ParallelSearchBenchmark [maxThreads] [depth]}, by default all
+ * available processors and depth 16.
+ */
+public class ParallelSearchBenchmark {
+
+    /**
+     * the positions searched, as the columns played from the empty board
+     */
+    private static final int[][] POSITIONS = {
+            {},
+            {3, 3, 3, 3},
+            {3, 2, 4, 4, 2, 3},
+            {3, 3, 2, 4, 4, 1, 5, 5},
+            {3, 4, 3, 4, 2, 2, 5, 1, 1, 0},
+    };
+
+    public static void main(String[] args) throws InvalidMoveException, NoMoreMovesException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        // warm up the JIT so that the single thread run is not penalized
+        run(1, Math.min(depth, 12));
+
+        System.out.printf("depth %d, %d positions%n", depth, POSITIONS.length);
+        System.out.printf("%8s %10s %14s %14s %8s%n", "threads", "ms", "nodes", "nodes/s", "speedup");
+        long singleNanos = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+            long[] totals = run(threads, depth);
+            if (threads == 1) {
+                singleNanos = totals[0];
+            }
+            System.out.printf("%8d %10d %14d %14d %8.2f%n", threads, totals[0] / 1_000_000, totals[1],
+                    totals[1] * 1_000_000_000L / Math.max(1, totals[0]), (double) singleNanos / totals[0]);
+        }
+    }
+
+    /**
+     * Searches all positions with a fresh AI each.
+     *
+     * @param threads the number of threads of the AI
+     * @param depth   the depth to search to
+     * @return the total time in nanoseconds and the total number of nodes
+     */
+    private static long[] run(int threads, int depth) throws InvalidMoveException, NoMoreMovesException {
+        long nanos = 0;
+        long nodes = 0;
+        for (int[] position : POSITIONS) {
+            IVierGewinntModel model = new BitboardVierGewinntModel();
+            for (int col : position) {
+                model.play(col);
+            }
+            try (ParallelNegamaxAI ai = new ParallelNegamaxAI(depth, threads)) {
+                SearchResult result = ai.search(model, 0);
+                nanos += result.nanos();
+                nodes += result.nodes();
+            }
+        }
+        return new long[]{nanos, nodes};
+    }
+}
@@ -0,0 +1,88 @@
+package bench;
+
+import game.ai.MonteCarloAI;
+import game.ai.NegamaxAI;
+import game.ai.SearchResult;
+import game.model.IVierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.sim.SelfPlay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the AIs take to choose a move in an early middle game position.
+ * The transposition table is cleared before every search, so each one starts from scratch like
+ * the first move of a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    /**
+     * the columns played from the empty board to reach the searched position
+     */
+    private static final int[] POSITION = {3, 3, 2, 4};
+
+    /**
+     * the model implementation, as accepted by {@link SelfPlay#parseModel(String)}
+     */
+    @Param({"array", "bitboard"})
+    public String model;
+
+    /**
+     * the depth of the negamax search in plies
+     */
+    @Param({"6", "8", "10", "12"})
+    public int depth;
+
+    private IVierGewinntModel game;
+
+    private NegamaxAI negamax;
+
+    @Setup
+    public void setUp() throws InvalidMoveException {
+        game = SelfPlay.parseModel(model).get();
+        for (int col : POSITION) {
+            game.play(col);
+        }
+        negamax = new NegamaxAI(depth);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        negamax.getTable().clear();
+    }
+
+    /**
+     * searches the position to the configured depth
+     */
+    @Benchmark
+    public SearchResult negamax() throws Exception {
+        return negamax.search(game, 0);
+    }
+
+    /**
+     * runs a Monte Carlo tree search with a hundred iterations per ply of the configured depth,
+     * with a new tree every time
+     */
+    @Benchmark
+    public SearchResult monteCarlo() throws Exception {
+        return new MonteCarloAI(MonteCarloAI.DEFAULT_EXPLORATION, depth * 100, 1, 42).search(game, 0);
+    }
+}
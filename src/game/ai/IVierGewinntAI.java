@@ -0,0 +1,59 @@
+package game.ai;
+
+import game.model.IVierGewinntModel;
+import game.model.exceptions.NoMoreMovesException;
+
+/**
+ * Interface representing a computer opponent for a "Vier Gewinnt" (Connect Four) game.
+ * Implementations of this interface choose the next column to play for the player whose turn it is.
+ */
+public interface IVierGewinntAI {
+
+    /**
+     * Chooses the column the player to move should play.
+     * The model may be used for analysis but must be in the same position when this method returns.
+     *
+     * @param model The model holding the position to be analysed.
+     * @return The column of the chosen move.
+     * @throws NoMoreMovesException If there are no more valid moves left.
+     */
+    int findBestMove(IVierGewinntModel model) throws NoMoreMovesException;
+
+    /**
+     * Chooses the column the player to move should play, using at most the given time.
+     * The model may be used for analysis but must be in the same position when this method returns.
+     *
+     * @param model      The model holding the position to be analysed.
+     * @param timeMillis The time limit in milliseconds, 0 for no limit.
+     * @return The chosen column together with the statistics of the search.
+     * @throws NoMoreMovesException If there are no more valid moves left.
+     */
+    SearchResult search(IVierGewinntModel model, long timeMillis) throws NoMoreMovesException;
+
+    /**
+     * Searches like {@link #search(IVierGewinntModel, long)}, but stops right away if {@link #cancel()}
+     * was called since {@link #getCancelCount()} returned the given count, even before the search started.
+     * A caller that may be cancelled while it decides whether to search reads the count first, so
+     * that such a cancel is not lost.
+     *
+     * @param model       The model holding the position to be analysed.
+     * @param timeMillis  The time limit in milliseconds, 0 for no limit.
+     * @param cancelCount The count returned by {@link #getCancelCount()} before deciding to search.
+     * @return The chosen column together with the statistics of the search.
+     * @throws NoMoreMovesException If there are no more valid moves left.
+     */
+    SearchResult search(IVierGewinntModel model, long timeMillis, int cancelCount) throws NoMoreMovesException;
+
+    /**
+     * Returns how often {@link #cancel()} was called so far.
+     *
+     * @return The count of cancels.
+     */
+    int getCancelCount();
+
+    /**
+     * Stops a running search as soon as possible, so that it returns the best column found so far.
+     * May be called from any thread.
+     */
+    void cancel();
+}
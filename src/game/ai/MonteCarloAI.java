@@ -0,0 +1,486 @@
+package game.ai;
+
+import game.model.IVierGewinntModel;
+import game.model.ModelPool;
+import game.model.exceptions.NoMoreMovesException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A computer opponent that uses Monte Carlo tree search with the UCT selection rule.
+ * Every iteration walks down the search tree, always choosing the child with the best upper
+ * confidence bound, adds one new node, finishes the game from there with random moves
+ * ({@link IVierGewinntModel#playout}) and counts the result in all nodes on the way.
+ * The most visited column of the root is played.
+ * <p>
+ * With more than one thread, every thread grows a tree of its own on its own copy of the model
+ * ("root parallelization") and the visits of the root columns are added up at the end.
+ * The trees are kept between searches: if the new position was reached from the previous root
+ * by the moves searched, the matching subtree becomes the new root.
+ * <p>
+ * Instances are not thread-safe; only one search may run at a time.
+ */
+public class MonteCarloAI implements IVierGewinntAI, AutoCloseable {
+
+    /**
+     * the default exploration constant of the UCT formula, the square root of 2
+     */
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+    /**
+     * the deadline and cancel flag are checked every time this many iterations were run, plus one
+     */
+    private static final int CHECK_INTERVAL_MASK = 63;
+
+    /**
+     * the weight of the exploration term of the UCT formula
+     */
+    private final double exploration;
+
+    /**
+     * the number of iterations of a search without a time limit, per thread
+     */
+    private final int iterations;
+
+    /**
+     * one tree per thread
+     */
+    private final Worker[] workers;
+
+    /**
+     * runs the workers except the first, which runs in the calling thread
+     */
+    private final ExecutorService pool;
+
+    /**
+     * the copies of the model the workers search on, reused from one search to the next
+     */
+    private final ModelPool models = new ModelPool();
+
+    /**
+     * counts the calls of {@link #cancel()}. a search stops once the count differs from the one it started with
+     */
+    private final AtomicInteger cancels = new AtomicInteger();
+
+    /**
+     * Creates a single threaded AI with the default exploration constant.
+     *
+     * @param iterations the number of iterations of a search without a time limit
+     */
+    public MonteCarloAI(int iterations) {
+        this(DEFAULT_EXPLORATION, iterations, 1, System.nanoTime());
+    }
+
+    /**
+     * Creates an AI.
+     *
+     * @param exploration the weight of the exploration term of the UCT formula
+     * @param iterations  the number of iterations per thread of a search without a time limit
+     * @param threads     the number of threads, including the calling one
+     * @param seed        the seed of the random number generators of the threads
+     */
+    public MonteCarloAI(double exploration, int iterations, int threads, long seed) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Number of iterations must be at least 1 but was " + iterations);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1 but was " + threads);
+        }
+        this.exploration = exploration;
+        this.iterations = iterations;
+        SplittableRandom random = new SplittableRandom(seed);
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(random.split());
+        }
+        this.pool = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Runs the configured number of iterations and returns the most visited column.
+     *
+     * @param model the model holding the position to be analysed
+     * @return the column of the best move
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public int findBestMove(IVierGewinntModel model) throws NoMoreMovesException {
+        return search(model, 0).column();
+    }
+
+    /**
+     * Grows the trees of all threads until the time limit is reached, or for the configured number
+     * of iterations if there is none.
+     *
+     * @param model      the model holding the position to be analysed
+     * @param timeMillis the time limit in milliseconds, 0 for no limit
+     * @return the most visited column; the score is the share of won playouts of that column in
+     * thousandths, the depth the deepest node of the trees and the nodes the number of playouts
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public SearchResult search(IVierGewinntModel model, long timeMillis) throws NoMoreMovesException {
+        return search(model, timeMillis, cancels.get());
+    }
+
+    /**
+     * Searches like {@link #search(IVierGewinntModel, long)}, but stops all threads right away if
+     * {@link #cancel()} was called since the count of cancels was read, even before they started.
+     *
+     * @param model       the model holding the position to be analysed
+     * @param timeMillis  the time limit in milliseconds, 0 for no limit
+     * @param cancelCount the count returned by {@link #getCancelCount()} before deciding to search
+     * @return the most visited column, see {@link #search(IVierGewinntModel, long)}
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public SearchResult search(IVierGewinntModel model, long timeMillis, int cancelCount) throws NoMoreMovesException {
+        long start = System.nanoTime();
+        long deadline = timeMillis > 0 ? start + timeMillis * 1_000_000 : Long.MAX_VALUE;
+        int maxIterations = timeMillis > 0 ? Integer.MAX_VALUE : iterations;
+        boolean anyMove = false;
+        for (int col = 0; col < model.getWidth(); col++) {
+            anyMove |= model.isValidMove(col);
+        }
+        if (!anyMove) {
+            throw new NoMoreMovesException();
+        }
+        List<Future<?>> running = new ArrayList<>(workers.length - 1);
+        IVierGewinntModel[] copies = new IVierGewinntModel[workers.length - 1];
+        for (int i = 1; i < workers.length; i++) {
+            Worker worker = workers[i];
+            IVierGewinntModel copy = models.acquire(model);
+            copies[i - 1] = copy;
+            running.add(pool.submit(() -> worker.run(copy, deadline, maxIterations, cancelCount)));
+        }
+        workers[0].run(model, deadline, maxIterations, cancelCount);
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+            }
+        }
+        for (int i = 0; i < running.size(); i++) {
+            // a worker still running after an interrupt keeps its copy
+            if (running.get(i).isDone()) {
+                models.release(copies[i]);
+            }
+        }
+        return collectResult(model, System.nanoTime() - start);
+    }
+
+    /**
+     * Adds up the root statistics of all threads and picks the most visited column.
+     * If no column was visited, because the search was cancelled right away, the first valid
+     * column is returned.
+     *
+     * @param model the model holding the root position
+     * @param nanos the time the search took
+     * @return the result of the search
+     */
+    private SearchResult collectResult(IVierGewinntModel model, long nanos) {
+        int width = model.getWidth();
+        long[] visits = new long[width];
+        double[] wins = new double[width];
+        long playouts = 0;
+        int depth = 0;
+        for (Worker worker : workers) {
+            playouts += worker.playouts;
+            depth = Math.max(depth, worker.maxDepth);
+            for (Node child : worker.root.children) {
+                if (child != null) {
+                    visits[child.column] += child.visits;
+                    wins[child.column] += child.wins;
+                }
+            }
+        }
+        int bestColumn = -1;
+        for (int col = 0; col < width; col++) {
+            if (visits[col] > 0 && (bestColumn == -1 || visits[col] > visits[bestColumn])) {
+                bestColumn = col;
+            }
+        }
+        if (bestColumn == -1) {
+            bestColumn = 0;
+            while (!model.isValidMove(bestColumn)) {
+                bestColumn++;
+            }
+            return new SearchResult(bestColumn, 0, depth, playouts, nanos);
+        }
+        int score = (int) (1000 * wins[bestColumn] / visits[bestColumn]);
+        return new SearchResult(bestColumn, score, depth, playouts, nanos);
+    }
+
+    /**
+     * Returns how often {@link #cancel()} was called so far.
+     *
+     * @return the count of cancels
+     */
+    @Override
+    public int getCancelCount() {
+        return cancels.get();
+    }
+
+    /**
+     * Stops the running search as soon as possible. A search started later with the count of
+     * cancels read before this call stops right away. May be called from any thread.
+     */
+    @Override
+    public void cancel() {
+        cancels.incrementAndGet();
+    }
+
+    /**
+     * Shuts down the worker threads. The AI can not search with more than one thread afterwards.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A node of the search tree, standing for the position after its column was played.
+     */
+    private static final class Node {
+
+        /**
+         * the node of the position before, null for the root
+         */
+        Node parent;
+
+        /**
+         * the nodes of the positions after each column, null if not expanded yet
+         */
+        final Node[] children;
+
+        /**
+         * the column played to reach this node, -1 for a root without a parent
+         */
+        final int column;
+
+        /**
+         * the player who played {@code column}
+         */
+        final int player;
+
+        /**
+         * the hash of the position, to find the node again in the next search
+         */
+        final long hash;
+
+        /**
+         * the columns not expanded yet, one bit per column
+         */
+        int untried;
+
+        /**
+         * the winner if the game is over in this position (1, 2 or 0 for a draw), -1 otherwise
+         */
+        int terminalWinner = -1;
+
+        /**
+         * the number of playouts through this node
+         */
+        long visits;
+
+        /**
+         * the playouts through this node won by {@code player}, draws counting half
+         */
+        double wins;
+
+        Node(Node parent, int column, IVierGewinntModel model) {
+            this.parent = parent;
+            this.column = column;
+            this.player = model.getOpposingPlayer();
+            this.hash = model.getHash();
+            this.children = new Node[model.getWidth()];
+            if (!model.gameWon().isEmpty()) {
+                terminalWinner = player;
+                return;
+            }
+            for (int col = 0; col < model.getWidth(); col++) {
+                if (model.isValidMove(col)) {
+                    untried |= 1 << col;
+                }
+            }
+            if (untried == 0) {
+                terminalWinner = 0;
+            }
+        }
+    }
+
+    /**
+     * The tree and random number generator of one thread.
+     */
+    private final class Worker {
+
+        /**
+         * the random number generator of this thread, for expansion and playouts
+         */
+        private final SplittableRandom random;
+
+        /**
+         * the root of the tree, kept for the next search
+         */
+        private Node root;
+
+        /**
+         * the number of playouts of the last search
+         */
+        private long playouts;
+
+        /**
+         * the depth of the deepest node reached in the last search
+         */
+        private int maxDepth;
+
+        Worker(SplittableRandom random) {
+            this.random = random;
+        }
+
+        /**
+         * Grows the tree for the position of the model.
+         *
+         * @param model         the model holding the root position, restored after every iteration
+         * @param deadline      the {@code System.nanoTime()} at which to stop
+         * @param maxIterations the number of iterations to run at most
+         * @param cancelCount   the count of cancels the search started with
+         */
+        void run(IVierGewinntModel model, long deadline, int maxIterations, int cancelCount) {
+            root = findRoot(model);
+            playouts = 0;
+            maxDepth = 0;
+            for (int i = 0; i < maxIterations; i++) {
+                if ((i & CHECK_INTERVAL_MASK) == 0 && (cancels.get() != cancelCount || System.nanoTime() > deadline)) {
+                    break;
+                }
+                iterate(model);
+            }
+        }
+
+        /**
+         * Returns the node of the model's position from the previous tree, looking up to two plies
+         * below the previous root, or a new root if it is not there.
+         *
+         * @param model the model holding the root position
+         * @return the root of the tree to grow
+         */
+        private Node findRoot(IVierGewinntModel model) {
+            long hash = model.getHash();
+            if (root != null) {
+                if (root.hash == hash) {
+                    return root;
+                }
+                for (Node child : root.children) {
+                    if (child == null) {
+                        continue;
+                    }
+                    for (Node grandChild : child.children) {
+                        if (grandChild != null && grandChild.hash == hash) {
+                            grandChild.parent = null;
+                            return grandChild;
+                        }
+                    }
+                }
+            }
+            return new Node(null, -1, model);
+        }
+
+        /**
+         * Runs one iteration: selection, expansion, playout and backpropagation.
+         *
+         * @param model the model holding the root position, which is restored before returning
+         */
+        private void iterate(IVierGewinntModel model) {
+            Node node = root;
+            int depth = 0;
+            while (node.terminalWinner == -1 && node.untried == 0) {
+                node = select(node);
+                model.playUnchecked(node.column);
+                depth++;
+            }
+            if (node.terminalWinner == -1) {
+                int col = pickUntried(node.untried);
+                node.untried &= ~(1 << col);
+                model.playUnchecked(col);
+                depth++;
+                Node child = new Node(node, col, model);
+                node.children[col] = child;
+                node = child;
+            }
+            int winner = node.terminalWinner != -1 ? node.terminalWinner : model.playout(random);
+            playouts++;
+            maxDepth = Math.max(maxDepth, depth);
+            for (; node != root; node = node.parent) {
+                node.visits++;
+                if (winner == node.player) {
+                    node.wins += 1;
+                } else if (winner == 0) {
+                    node.wins += 0.5;
+                }
+                model.undoUnchecked();
+            }
+            root.visits++;
+        }
+
+        /**
+         * Returns the child with the highest upper confidence bound
+         * {@code wins / visits + exploration * sqrt(ln(parent visits) / visits)}.
+         *
+         * @param node a node whose children are all expanded
+         * @return the child to descend into
+         */
+        private Node select(Node node) {
+            double logVisits = Math.log(node.visits);
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : node.children) {
+                if (child == null) {
+                    continue;
+                }
+                double value = child.wins / child.visits + exploration * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Chooses one of the columns not expanded yet at random.
+         *
+         * @param untried the columns not expanded yet, one bit per column
+         * @return the chosen column
+         */
+        private int pickUntried(int untried) {
+            int n = random.nextInt(Integer.bitCount(untried));
+            for (; n > 0; n--) {
+                untried &= untried - 1;
+            }
+            return Integer.numberOfTrailingZeros(untried);
+        }
+    }
+
+}
@@ -0,0 +1,498 @@
+package game.ai;
+
+import game.ai.eval.IEvaluator;
+import game.ai.eval.ThreatParityEvaluator;
+import game.model.IVierGewinntModel;
+import game.model.Moves;
+import game.model.exceptions.NoMoreMovesException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A computer opponent that searches the game tree with negamax and alpha-beta pruning.
+ * Moves are made and taken back on the model itself with {@code play} and {@code undo},
+ * so the search works with every {@link IVierGewinntModel} implementation.
+ * Columns are tried from the center outwards, as central chips take part in the most lines
+ * and therefore cause the earliest cutoffs. Results are kept in a {@link TranspositionTable},
+ * so positions reached by different move orders are only searched once and the best move
+ * of an earlier visit is tried first. Positions at the search horizon are scored by an
+ * {@link IEvaluator}.
+ * <p>
+ * {@link #search(IVierGewinntModel, long)} deepens the search one ply at a time until the time
+ * limit is reached, so a best move is ready at any time. A running search can be stopped from
+ * another thread with {@link #cancel()}; the model is restored in either case. A caller that
+ * decides whether to search at all, and may be cancelled meanwhile, reads {@link #getCancelCount()}
+ * before deciding and passes it to {@link #search(IVierGewinntModel, long, int)}, so that a cancel
+ * coming in before the search starts is not lost.
+ * <p>
+ * Instances are not thread-safe; every searching thread needs its own instance.
+ */
+public class NegamaxAI implements IVierGewinntAI {
+
+    /**
+     * the score of a win on the next move. wins further away score one point less per ply,
+     * so that the search prefers quick wins and slow losses.
+     */
+    public static final int WIN_SCORE = 1_000_000;
+
+    /**
+     * scores beyond this value are wins or losses whose distance depends on the ply they were found at
+     */
+    private static final int WIN_THRESHOLD = WIN_SCORE - 1000;
+
+    /**
+     * the number of entries of the transposition table created by {@link #NegamaxAI(int)}
+     */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 19;
+
+    /**
+     * the evaluator used unless another one is given, the strongest in {@link game.sim.EvaluatorHarness}
+     */
+    public static final IEvaluator DEFAULT_EVALUATOR = new ThreatParityEvaluator();
+
+    /**
+     * the version of the search and {@link #DEFAULT_EVALUATOR}, to be increased whenever a change
+     * makes them choose other moves. it is stored in every {@link OpeningBook}, and books made by
+     * another version are not used.
+     */
+    public static final int ENGINE_VERSION = 1;
+
+    /**
+     * the deadline and cancel flag are checked every time this many nodes were visited, plus one
+     */
+    private static final int CHECK_INTERVAL_MASK = 1023;
+
+    /**
+     * the number of plies searched from the root position
+     */
+    private final int depth;
+
+    /**
+     * remembers the results of positions already searched
+     */
+    private final TranspositionTable table;
+
+    /**
+     * scores the positions at the search horizon
+     */
+    private final IEvaluator evaluator;
+
+    /**
+     * 0 for a search of its own, or the number of a helper of a {@link ParallelNegamaxAI}.
+     * helpers try the root columns in a different order so that they fill the shared table with
+     * positions the main search has not reached yet.
+     */
+    private final int helperId;
+
+    /**
+     * the number of positions visited by the last search
+     */
+    private long nodes;
+
+    /**
+     * the {@code System.nanoTime()} at which the running search has to stop
+     */
+    private long deadline;
+
+    /**
+     * counts the calls of {@link #cancel()}, shared by all threads of a parallel search. a search
+     * stops once the count differs from the one it started with
+     */
+    private final AtomicInteger cancels;
+
+    /**
+     * the count of cancels the running search started with
+     */
+    private int searchCancels;
+
+    /**
+     * true once the running search ran out of time or was cancelled
+     */
+    private boolean aborted;
+
+    /**
+     * the score of the best column found by the last call to {@code searchRoot}
+     */
+    private int rootScore;
+
+    /**
+     * Creates an AI that searches the given number of plies ahead with a transposition table of its own.
+     *
+     * @param depth the search depth in plies, 1 to 255
+     */
+    public NegamaxAI(int depth) {
+        this(depth, new TranspositionTable(DEFAULT_TABLE_SIZE));
+    }
+
+    /**
+     * Creates an AI that searches the given number of plies ahead, storing its results in the given table.
+     *
+     * @param depth the search depth in plies, 1 to 255
+     * @param table the transposition table, which may be shared with other searches
+     */
+    public NegamaxAI(int depth, TranspositionTable table) {
+        this(depth, table, DEFAULT_EVALUATOR);
+    }
+
+    /**
+     * Creates an AI that searches the given number of plies ahead and scores the positions at the
+     * horizon with the given evaluator.
+     *
+     * @param depth     the search depth in plies, 1 to 255
+     * @param table     the transposition table, which may be shared with searches using the same evaluator
+     * @param evaluator scores the positions at the search horizon
+     */
+    public NegamaxAI(int depth, TranspositionTable table, IEvaluator evaluator) {
+        this(depth, table, evaluator, 0, new AtomicInteger());
+    }
+
+    /**
+     * Creates an AI that searches the given number of plies ahead as a helper of a parallel search.
+     *
+     * @param depth     the search depth in plies, 1 to 255
+     * @param table     the transposition table shared with the other threads of the search
+     * @param evaluator scores the positions at the search horizon
+     * @param helperId  0 for the main thread or a positive number for a helper
+     * @param cancels   the count of cancels shared by all threads of the search
+     */
+    NegamaxAI(int depth, TranspositionTable table, IEvaluator evaluator, int helperId, AtomicInteger cancels) {
+        if (depth < 1 || depth > 255) {
+            throw new IllegalArgumentException("Search depth must be between 1 and 255 but was " + depth);
+        }
+        this.depth = depth;
+        this.table = table;
+        this.evaluator = evaluator;
+        this.helperId = helperId;
+        this.cancels = cancels;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public IEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Returns the number of positions visited by the last search.
+     *
+     * @return the number of visited positions
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Searches the position of the model to the configured depth and returns the best column.
+     * If several columns score the same, the one closest to the center is chosen.
+     *
+     * @param model the model holding the position to be analysed
+     * @return the column of the best move
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public int findBestMove(IVierGewinntModel model) throws NoMoreMovesException {
+        return search(model, 0).column();
+    }
+
+    /**
+     * Searches the position of the model with iterative deepening: depth 1 is searched first,
+     * then depth 2 and so on up to the configured depth. The search stops early when the time
+     * limit is reached, when it is cancelled or when the outcome of the game is proven.
+     * The column of the deepest completed iteration is returned, and as the best column of the
+     * previous iteration is always searched first, deeper iterations rarely cost much more.
+     *
+     * @param model      the model holding the position to be analysed
+     * @param timeMillis the time limit in milliseconds, 0 for no limit
+     * @return the best column found together with the statistics of the search
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public SearchResult search(IVierGewinntModel model, long timeMillis) throws NoMoreMovesException {
+        return search(model, timeMillis, cancels.get());
+    }
+
+    /**
+     * Searches like {@link #search(IVierGewinntModel, long)}, but stops right away if {@link #cancel()}
+     * was called since the count of cancels was read, even before the search started.
+     *
+     * @param model       the model holding the position to be analysed
+     * @param timeMillis  the time limit in milliseconds, 0 for no limit
+     * @param cancelCount the count returned by {@link #getCancelCount()} before deciding to search
+     * @return the best column found together with the statistics of the search
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public SearchResult search(IVierGewinntModel model, long timeMillis, int cancelCount) throws NoMoreMovesException {
+        table.newSearch();
+        return searchShared(model, timeMillis, cancelCount);
+    }
+
+    /**
+     * Returns how often {@link #cancel()} was called so far.
+     *
+     * @return the count of cancels
+     */
+    @Override
+    public int getCancelCount() {
+        return cancels.get();
+    }
+
+    /**
+     * Searches like {@link #search(IVierGewinntModel, long, int)}, but without starting a new generation
+     * of the transposition table, as the table is shared with the other threads of a parallel search.
+     *
+     * @param model       the model holding the position to be analysed
+     * @param timeMillis  the time limit in milliseconds, 0 for no limit
+     * @param cancelCount the count of cancels read before deciding to search
+     * @return the best column found together with the statistics of the search
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    SearchResult searchShared(IVierGewinntModel model, long timeMillis, int cancelCount) throws NoMoreMovesException {
+        long start = System.nanoTime();
+        deadline = timeMillis > 0 ? start + timeMillis * 1_000_000 : Long.MAX_VALUE;
+        searchCancels = cancelCount;
+        aborted = false;
+        nodes = 1;
+        int[] order = centerFirstOrder(model.getWidth());
+        int bestColumn = -1;
+        for (int col : order) {
+            if (model.isValidMove(col)) {
+                bestColumn = col;
+                break;
+            }
+        }
+        if (bestColumn == -1) {
+            throw new NoMoreMovesException();
+        }
+        int winningColumn = findWinningMove(model, order);
+        if (winningColumn != -1) {
+            return new SearchResult(winningColumn, WIN_SCORE, 1, nodes, System.nanoTime() - start);
+        }
+        int bestScore = 0;
+        int reachedDepth = 0;
+        // every other helper skips a depth, so that helpers do not all work on the same iteration
+        for (int iteration = 1 + helperId % 2; iteration <= depth; iteration++) {
+            int column = searchRoot(model, order, iteration);
+            if (aborted) {
+                break;
+            }
+            bestColumn = column;
+            bestScore = rootScore;
+            reachedDepth = iteration;
+            if (Math.abs(bestScore) > WIN_THRESHOLD) {
+                break;
+            }
+        }
+        return new SearchResult(bestColumn, bestScore, reachedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the running search as soon as possible. It returns the best column of the deepest
+     * completed iteration. A search started later with the count of cancels read before this call
+     * stops right away. May be called from any thread.
+     */
+    @Override
+    public void cancel() {
+        cancels.incrementAndGet();
+    }
+
+    /**
+     * Searches all columns of the root position to the given depth.
+     *
+     * @param model the model holding the root position, which is restored before returning
+     * @param order the columns in the order they are to be tried
+     * @param depth the search depth in plies
+     * @return the best column, whose score is stored in {@code rootScore}; meaningless if the search was aborted
+     */
+    private int searchRoot(IVierGewinntModel model, int[] order, int depth) {
+        int tableMove = TranspositionTable.bestMove(table.probe(model.getHash()));
+        int bestColumn = -1;
+        int alpha = -WIN_SCORE - 1;
+        for (int i = -1; i < order.length; i++) {
+            int col = i == -1 ? tableMove : order[(i + helperId) % order.length];
+            if ((i != -1 && col == tableMove) || !model.isValidMove(col)) {
+                continue;
+            }
+            model.playUnchecked(col);
+            int score = -negamax(model, order, depth - 1, -WIN_SCORE - 1, -alpha, 1);
+            model.undoUnchecked();
+            if (aborted) {
+                return -1;
+            }
+            if (bestColumn == -1 || score > alpha) {
+                alpha = score;
+                bestColumn = col;
+            }
+        }
+        table.store(model.getHash(), toTable(alpha, 0), TranspositionTable.EXACT, depth, bestColumn);
+        rootScore = alpha;
+        return bestColumn;
+    }
+
+    /**
+     * Scores the position of the model from the point of view of the player to move.
+     *
+     * @param model the model holding the position, which is restored before returning
+     * @param order the columns in the order they are to be tried
+     * @param depth the remaining search depth
+     * @param alpha the score the player to move is already guaranteed
+     * @param beta  the score the opponent is already guaranteed, negated
+     * @param ply   the distance to the root position
+     * @return the score of the position, positive if the player to move is better
+     */
+    private int negamax(IVierGewinntModel model, int[] order, int depth, int alpha, int beta, int ply) {
+        if ((++nodes & CHECK_INTERVAL_MASK) == 0 && (cancels.get() != searchCancels || System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (findWinningMove(model, order) != -1) {
+            return WIN_SCORE - ply;
+        }
+        if (isBoardFull(model, order)) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(model);
+        }
+        long hash = model.getHash();
+        long entry = table.probe(hash);
+        int tableMove = TranspositionTable.bestMove(entry);
+        if (entry != TranspositionTable.NO_ENTRY && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            switch (TranspositionTable.bound(entry)) {
+                case TranspositionTable.EXACT -> {
+                    return score;
+                }
+                case TranspositionTable.LOWER_BOUND -> alpha = Math.max(alpha, score);
+                default -> beta = Math.min(beta, score);
+            }
+            if (alpha >= beta) {
+                return score;
+            }
+        }
+        int originalAlpha = alpha;
+        int bestScore = -WIN_SCORE - 1;
+        int bestColumn = -1;
+        for (int i = -1; i < order.length; i++) {
+            int col = i == -1 ? tableMove : order[i];
+            if ((i != -1 && col == tableMove) || !model.isValidMove(col)) {
+                continue;
+            }
+            model.playUnchecked(col);
+            int score = -negamax(model, order, depth - 1, -beta, -alpha, ply + 1);
+            model.undoUnchecked();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestColumn = col;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+        table.store(hash, toTable(bestScore, ply), bound, depth, bestColumn);
+        return bestScore;
+    }
+
+    /**
+     * Converts a score to be stored in the transposition table. Win and loss scores count plies
+     * from the root, so they are stored relative to the position instead.
+     *
+     * @param score the score relative to the root
+     * @param ply   the distance of the position to the root
+     * @return the score relative to the position
+     */
+    private static int toTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score + ply;
+        }
+        if (score < -WIN_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a score read from the transposition table back to a score relative to the root.
+     *
+     * @param score the score relative to the position
+     * @param ply   the distance of the position to the root
+     * @return the score relative to the root
+     */
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score - ply;
+        }
+        if (score < -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Looks for a column that wins the game immediately for the player to move.
+     *
+     * @param model the model holding the position, which is restored before returning
+     * @param order the columns in the order they are to be tried
+     * @return the winning column or -1 if there is none
+     */
+    private int findWinningMove(IVierGewinntModel model, int[] order) {
+        for (int col : order) {
+            int move = model.tryPlay(col);
+            if (Moves.isValid(move)) {
+                model.undoUnchecked();
+                if (Moves.isWin(move)) {
+                    return col;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if no column has a free slot left.
+     *
+     * @param model the model holding the position
+     * @param order the columns of the board
+     * @return true if no more moves can be played
+     */
+    private static boolean isBoardFull(IVierGewinntModel model, int[] order) {
+        for (int col : order) {
+            if (model.isValidMove(col)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the columns of a board ordered by their distance to the center, e.g. 3, 2, 4, 1, 5, 0, 6
+     * for a board with seven columns.
+     *
+     * @param width the number of columns
+     * @return the columns, center first
+     */
+    static int[] centerFirstOrder(int width) {
+        int[] order = new int[width];
+        for (int i = 0; i < width; i++) {
+            order[i] = width / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+        return order;
+    }
+
+}
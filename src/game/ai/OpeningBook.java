@@ -0,0 +1,181 @@
+package game.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only table of precomputed moves for the first plies of a game, keyed by the Zobrist hash
+ * of {@link game.model.IVierGewinntModel#getHash()}. The file written by {@link OpeningBookGenerator}
+ * is mapped into memory and searched with a binary search, so opening a book costs no time and
+ * memory no matter its size, and lookups touch only a few pages.
+ * <p>
+ * The file starts with a header of {@value #HEADER_BYTES} bytes: the magic number, the format
+ * version, the board width and height, the number of entries, the plies covered, the search
+ * depth used, the number of chips in a row needed to win and the {@link NegamaxAI#ENGINE_VERSION}
+ * of the search, 0 for books made before the version was recorded. It is followed by entries of
+ * {@value #ENTRY_BYTES} bytes, sorted by hash: the hash, the score of the position for the player
+ * to move and the column to play.
+ * <p>
+ * Lookups do not change the state of the book, so one book can be used by several threads.
+ */
+public class OpeningBook {
+
+    /**
+     * the first four bytes of every book file, "VGOB"
+     */
+    static final int MAGIC = 0x56474F42;
+
+    /**
+     * the version of the file format
+     */
+    static final short VERSION = 2;
+
+    /**
+     * the size of the header in bytes
+     */
+    static final int HEADER_BYTES = 16;
+
+    /**
+     * the size of an entry in bytes: the hash, the score and the column
+     */
+    static final int ENTRY_BYTES = 13;
+
+    /**
+     * the mapped file
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * the number of entries
+     */
+    private final int size;
+
+    private final int width;
+    private final int height;
+    private final int winLength;
+    private final int plies;
+    private final int depth;
+    private final int engineVersion;
+
+    /**
+     * Creates a book reading the given buffer, which has to hold a complete book file.
+     *
+     * @param buffer the contents of the book file
+     * @throws IOException if the buffer does not hold a valid book
+     */
+    OpeningBook(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported opening book version " + buffer.getShort(4));
+        }
+        this.width = buffer.get(6);
+        this.height = buffer.get(7);
+        this.size = buffer.getInt(8);
+        this.plies = buffer.get(12);
+        this.depth = buffer.get(13) & 0xFF;
+        this.winLength = buffer.get(14);
+        this.engineVersion = buffer.get(15) & 0xFF;
+        if (size < 0 || buffer.limit() != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+            throw new IOException("Opening book is truncated");
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a book file into memory.
+     *
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file can not be read or is not a valid book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+
+    /**
+     * Returns the number of positions in the book.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getPlies() {
+        return plies;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getEngineVersion() {
+        return engineVersion;
+    }
+
+    /**
+     * Looks up the column to play in a position.
+     *
+     * @param hash the hash of the position
+     * @return the column, or -1 if the position is not in the book
+     */
+    public int lookup(long hash) {
+        int index = indexOf(hash);
+        return index < 0 ? -1 : buffer.get(HEADER_BYTES + index * ENTRY_BYTES + 12);
+    }
+
+    /**
+     * Looks up the score of a position, as found by the search that created the book.
+     *
+     * @param hash the hash of the position
+     * @return the score for the player to move, or 0 if the position is not in the book
+     */
+    public int score(long hash) {
+        int index = indexOf(hash);
+        return index < 0 ? 0 : buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * Finds the entry of a position with a binary search.
+     *
+     * @param hash the hash of the position
+     * @return the index of the entry, or -1 if the position is not in the book
+     */
+    private int indexOf(long hash) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midHash = buffer.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (midHash < hash) {
+                low = mid + 1;
+            } else if (midHash > hash) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
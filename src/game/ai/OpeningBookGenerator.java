@@ -0,0 +1,242 @@
+package game.ai;
+
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.ModelPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds an {@link OpeningBook} offline by searching every position of the first plies with
+ * {@link NegamaxAI}.
+ * <p>
+ * The positions are visited one ply at a time. For the player the book is made for, only the
+ * move found by the search is followed, while every move of the opponent is; this keeps the book
+ * small enough to be searched deeply, as the book player always plays its own book moves.
+ * A book for both players follows every move.
+ * Positions reached by different move orders are searched once. The searches of one ply run in
+ * parallel, every thread with a {@link NegamaxAI} of its own.
+ * <p>
+ * Usage: {@code java game.ai.OpeningBookGenerator [file] [plies] [depth] [player] [threads]},
+ * by default {@value #DEFAULT_FILE}, 10 plies, depth 16, player 2 (the AI of the game) and all
+ * available processors. Player 0 makes a book for both players, which grows about seven times
+ * faster with the plies.
+ */
+public class OpeningBookGenerator {
+
+    /**
+     * the file the game reads its book from
+     */
+    public static final String DEFAULT_FILE = "data/openingbook.bin";
+
+    /**
+     * the number of plies from the empty board whose positions are searched
+     */
+    private final int plies;
+
+    /**
+     * the depth every position is searched to
+     */
+    private final int depth;
+
+    /**
+     * the player the book is made for, 1 or 2, or 0 for both
+     */
+    private final int player;
+
+    /**
+     * the number of threads searching at once
+     */
+    private final int threads;
+
+    /**
+     * Creates a generator.
+     *
+     * @param plies   the number of plies from the empty board to cover, 1 to 127
+     * @param depth   the search depth per position, 1 to 255
+     * @param player  the player the book is made for, 1 or 2, or 0 for both
+     * @param threads the number of threads searching at once
+     */
+    public OpeningBookGenerator(int plies, int depth, int player, int threads) {
+        if (plies < 1 || plies > 127) {
+            throw new IllegalArgumentException("Number of plies must be between 1 and 127 but was " + plies);
+        }
+        if (depth < 1 || depth > 255) {
+            throw new IllegalArgumentException("Search depth must be between 1 and 255 but was " + depth);
+        }
+        if (player < 0 || player > 2) {
+            throw new IllegalArgumentException("Player must be 0, 1 or 2 but was " + player);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1 but was " + threads);
+        }
+        this.plies = plies;
+        this.depth = depth;
+        this.player = player;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : DEFAULT_FILE);
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int player = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        int size = new OpeningBookGenerator(plies, depth, player, threads).generate(file);
+        System.out.printf("wrote %d positions to %s in %d s%n", size, file, (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    /**
+     * Searches all positions of the book and writes it to a file. The file is written next to
+     * its final place first, so a reader never sees a half written book.
+     *
+     * @param file the book file to create or replace
+     * @return the number of positions written
+     * @throws IOException if the file can not be written
+     */
+    public int generate(Path file) throws IOException {
+        TreeMap<Long, SearchResult> entries = search();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try {
+            write(temp, entries);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Searches the positions of the book one ply after another. Only positions with the book
+     * player to move are searched and stored.
+     *
+     * @return the search results by the hash of their positions, sorted by hash
+     */
+    TreeMap<Long, SearchResult> search() {
+        TreeMap<Long, SearchResult> entries = new TreeMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "book-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadLocal<NegamaxAI> ais = ThreadLocal.withInitial(() -> new NegamaxAI(depth));
+        ModelPool models = new ModelPool(ModelPool.DEFAULT_CAPACITY * 16);
+        try {
+            Map<Long, IVierGewinntModel> level = new LinkedHashMap<>();
+            IVierGewinntModel empty = new BitboardVierGewinntModel();
+            level.put(empty.getHash(), empty);
+            for (int ply = 0; ply < plies && !level.isEmpty(); ply++) {
+                List<IVierGewinntModel> positions = new ArrayList<>();
+                List<Future<SearchResult>> results = new ArrayList<>();
+                for (IVierGewinntModel position : level.values()) {
+                    if (!position.gameWon().isEmpty() || position.isGameOver()) {
+                        continue;
+                    }
+                    positions.add(position);
+                    if (isBookPlayer(position)) {
+                        Callable<SearchResult> task = () -> ais.get().search(position, 0);
+                        results.add(pool.submit(task));
+                    } else {
+                        results.add(null);
+                    }
+                }
+                Map<Long, IVierGewinntModel> next = new LinkedHashMap<>();
+                for (int i = 0; i < positions.size(); i++) {
+                    IVierGewinntModel position = positions.get(i);
+                    // -1 to follow every column
+                    int bookColumn = -1;
+                    if (results.get(i) != null) {
+                        SearchResult result = results.get(i).get();
+                        entries.put(position.getHash(), result);
+                        if (player != 0) {
+                            bookColumn = result.column();
+                        }
+                    }
+                    for (int col = 0; col < position.getWidth(); col++) {
+                        if (position.isValidMove(col) && (bookColumn == -1 || col == bookColumn)) {
+                            IVierGewinntModel child = models.acquire(position);
+                            child.playUnchecked(col);
+                            if (next.putIfAbsent(child.getHash(), child) != null) {
+                                // a transposition of a position already reached
+                                models.release(child);
+                            }
+                        }
+                    }
+                }
+                // all searches of the level are done, so its models are free again
+                level.values().forEach(models::release);
+                level = next;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the opening book", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return entries;
+    }
+
+    /**
+     * Tells if the book holds moves for the player to move in a position.
+     *
+     * @param position the position
+     * @return true if the position is searched
+     */
+    private boolean isBookPlayer(IVierGewinntModel position) {
+        return player == 0 || player == (position.isPlayerTurn() ? 1 : 2);
+    }
+
+    /**
+     * Writes the entries in the format read by {@link OpeningBook}.
+     *
+     * @param file    the file to write
+     * @param entries the search results by hash, sorted by hash
+     * @throws IOException if the file can not be written
+     */
+    private void write(Path file, TreeMap<Long, SearchResult> entries) throws IOException {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + entries.size() * OpeningBook.ENTRY_BYTES);
+        buffer.putInt(OpeningBook.MAGIC)
+                .putShort(OpeningBook.VERSION)
+                .put((byte) model.getWidth())
+                .put((byte) model.getHeight())
+                .putInt(entries.size())
+                .put((byte) plies)
+                .put((byte) depth)
+                .put((byte) model.getWinLength())
+                .put((byte) NegamaxAI.ENGINE_VERSION);
+        for (Map.Entry<Long, SearchResult> entry : entries.entrySet()) {
+            buffer.putLong(entry.getKey())
+                    .putInt(entry.getValue().score())
+                    .put((byte) entry.getValue().column());
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package game.ai;
+
+import game.ai.eval.IEvaluator;
+import game.model.IVierGewinntModel;
+import game.model.ModelPool;
+import game.model.exceptions.NoMoreMovesException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A computer opponent that searches with several threads at once ("Lazy SMP").
+ * Every thread runs its own {@link NegamaxAI} on its own copy of the model, but all of them share
+ * one {@link TranspositionTable}. The helper threads try the root columns in a different order
+ * and so store results the main thread finds in the table when it gets there, which lets the
+ * main thread reach its depth sooner. The move of the main thread is played.
+ * <p>
+ * The helper threads are kept in a pool between searches; {@link #close()} stops them.
+ */
+public class ParallelNegamaxAI implements IVierGewinntAI, AutoCloseable {
+
+    /**
+     * the number of entries of the transposition table created by {@link #ParallelNegamaxAI(int, int)}
+     */
+    public static final int DEFAULT_TABLE_SIZE = NegamaxAI.DEFAULT_TABLE_SIZE * 4;
+
+    /**
+     * the search of the calling thread, whose result is returned
+     */
+    private final NegamaxAI main;
+
+    /**
+     * the searches run by the pool
+     */
+    private final NegamaxAI[] helpers;
+
+    /**
+     * runs the helper searches, one thread per helper
+     */
+    private final ExecutorService pool;
+
+    /**
+     * the copies of the model the helpers search on, reused from one search to the next
+     */
+    private final ModelPool models = new ModelPool();
+
+    /**
+     * Creates an AI that searches with the given number of threads and a transposition table of its own.
+     *
+     * @param depth   the search depth in plies, 1 to 255
+     * @param threads the number of threads, including the calling one
+     */
+    public ParallelNegamaxAI(int depth, int threads) {
+        this(depth, threads, new TranspositionTable(DEFAULT_TABLE_SIZE));
+    }
+
+    /**
+     * Creates an AI that searches with the given number of threads.
+     *
+     * @param depth   the search depth in plies, 1 to 255
+     * @param threads the number of threads, including the calling one
+     * @param table   the transposition table shared by all threads
+     */
+    public ParallelNegamaxAI(int depth, int threads, TranspositionTable table) {
+        this(depth, threads, table, NegamaxAI.DEFAULT_EVALUATOR);
+    }
+
+    /**
+     * Creates an AI that searches with the given number of threads and scores the positions at the
+     * horizon with the given evaluator.
+     *
+     * @param depth     the search depth in plies, 1 to 255
+     * @param threads   the number of threads, including the calling one
+     * @param table     the transposition table shared by all threads
+     * @param evaluator scores the positions at the search horizon, shared by all threads
+     */
+    public ParallelNegamaxAI(int depth, int threads, TranspositionTable table, IEvaluator evaluator) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1 but was " + threads);
+        }
+        // one count of cancels for all threads, so that a single cancel stops them all
+        AtomicInteger cancels = new AtomicInteger();
+        this.main = new NegamaxAI(depth, table, evaluator, 0, cancels);
+        this.helpers = new NegamaxAI[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new NegamaxAI(depth, table, evaluator, i + 1, cancels);
+        }
+        this.pool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            Thread thread = new Thread(runnable, "ai-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return helpers.length + 1;
+    }
+
+    public TranspositionTable getTable() {
+        return main.getTable();
+    }
+
+    /**
+     * Searches the position of the model to the configured depth and returns the best column.
+     *
+     * @param model the model holding the position to be analysed
+     * @return the column of the best move
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public int findBestMove(IVierGewinntModel model) throws NoMoreMovesException {
+        return search(model, 0).column();
+    }
+
+    /**
+     * Starts the helpers on copies of the model and searches the model itself in the calling thread.
+     * As soon as the main search is done, the helpers are stopped and waited for.
+     *
+     * @param model      the model holding the position to be analysed
+     * @param timeMillis the time limit in milliseconds, 0 for no limit
+     * @return the result of the main search, counting the nodes of all threads
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public SearchResult search(IVierGewinntModel model, long timeMillis) throws NoMoreMovesException {
+        return search(model, timeMillis, main.getCancelCount());
+    }
+
+    /**
+     * Searches like {@link #search(IVierGewinntModel, long)}, but stops all threads right away if
+     * {@link #cancel()} was called since the count of cancels was read, even before they started.
+     *
+     * @param model       the model holding the position to be analysed
+     * @param timeMillis  the time limit in milliseconds, 0 for no limit
+     * @param cancelCount the count returned by {@link #getCancelCount()} before deciding to search
+     * @return the result of the main search, counting the nodes of all threads
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public SearchResult search(IVierGewinntModel model, long timeMillis, int cancelCount) throws NoMoreMovesException {
+        main.getTable().newSearch();
+        List<Future<?>> running = new ArrayList<>(helpers.length);
+        IVierGewinntModel[] copies = new IVierGewinntModel[helpers.length];
+        for (int i = 0; i < helpers.length; i++) {
+            NegamaxAI helper = helpers[i];
+            IVierGewinntModel copy = models.acquire(model);
+            copies[i] = copy;
+            running.add(pool.submit(() -> {
+                try {
+                    helper.searchShared(copy, timeMillis, cancelCount);
+                } catch (NoMoreMovesException e) {
+                    // the main search reports this
+                }
+            }));
+        }
+        SearchResult result;
+        try {
+            result = main.searchShared(model, timeMillis, cancelCount);
+        } finally {
+            stopHelpers(running);
+            for (int i = 0; i < running.size(); i++) {
+                // a helper still running after an interrupt keeps its copy
+                if (running.get(i).isDone()) {
+                    models.release(copies[i]);
+                }
+            }
+        }
+        long nodes = result.nodes();
+        for (NegamaxAI helper : helpers) {
+            nodes += helper.getNodes();
+        }
+        return new SearchResult(result.column(), result.score(), result.depth(), nodes, result.nanos());
+    }
+
+    /**
+     * Cancels the helpers and waits until all of them have finished. A helper that only starts
+     * now searches with the count of cancels read before, so it stops right away as well.
+     *
+     * @param running the futures of the running helpers
+     */
+    private void stopHelpers(List<Future<?>> running) {
+        if (running.isEmpty()) {
+            return;
+        }
+        main.cancel();
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns how often the threads were cancelled so far, by {@link #cancel()} or after every
+     * search with more than one thread to stop the helpers.
+     *
+     * @return the count of cancels
+     */
+    @Override
+    public int getCancelCount() {
+        return main.getCancelCount();
+    }
+
+    /**
+     * Stops the running search of all threads as soon as possible. May be called from any thread.
+     */
+    @Override
+    public void cancel() {
+        main.cancel();
+    }
+
+    /**
+     * Shuts down the helper threads. The AI can not search afterwards.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package game.ai;
+
+import game.model.IVierGewinntModel;
+import game.model.exceptions.NoMoreMovesException;
+
+import java.util.SplittableRandom;
+
+/**
+ * A computer opponent that plays a random valid column. It is the weakest possible opponent and
+ * serves as a baseline for simulations of the other AIs.
+ * <p>
+ * Instances are not thread-safe; every thread needs its own instance.
+ */
+public class RandomAI implements IVierGewinntAI {
+
+    /**
+     * chooses the columns
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Creates an AI choosing its columns with the given seed.
+     *
+     * @param seed the seed of the random number generator
+     */
+    public RandomAI(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Chooses one of the valid columns, each with the same probability.
+     *
+     * @param model the model holding the current position
+     * @return the chosen column
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public int findBestMove(IVierGewinntModel model) throws NoMoreMovesException {
+        int validMoves = 0;
+        for (int col = 0; col < model.getWidth(); col++) {
+            if (model.isValidMove(col)) {
+                validMoves++;
+            }
+        }
+        if (validMoves == 0) {
+            throw new NoMoreMovesException();
+        }
+        int n = random.nextInt(validMoves);
+        for (int col = 0; ; col++) {
+            if (model.isValidMove(col) && n-- == 0) {
+                return col;
+            }
+        }
+    }
+
+    /**
+     * Chooses a random column; the time limit is not needed.
+     *
+     * @param model      the model holding the current position
+     * @param timeMillis ignored
+     * @return the chosen column, with score and depth 0 and a single node
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public SearchResult search(IVierGewinntModel model, long timeMillis) throws NoMoreMovesException {
+        long start = System.nanoTime();
+        int column = findBestMove(model);
+        return new SearchResult(column, 0, 0, 1, System.nanoTime() - start);
+    }
+
+    /**
+     * Chooses a random column; there is nothing to cancel.
+     *
+     * @param model       the model holding the current position
+     * @param timeMillis  ignored
+     * @param cancelCount ignored
+     * @return the chosen column, with score and depth 0 and a single node
+     * @throws NoMoreMovesException if there are no more valid moves left
+     */
+    @Override
+    public SearchResult search(IVierGewinntModel model, long timeMillis, int cancelCount) throws NoMoreMovesException {
+        return search(model, timeMillis);
+    }
+
+    /**
+     * Returns 0, as a cancel is never counted.
+     *
+     * @return 0
+     */
+    @Override
+    public int getCancelCount() {
+        return 0;
+    }
+
+    /**
+     * Does nothing, as choosing a column never takes long.
+     */
+    @Override
+    public void cancel() {
+    }
+}
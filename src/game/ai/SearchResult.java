@@ -0,0 +1,34 @@
+package game.ai;
+
+/**
+ * A record representing the outcome of an AI search.
+ *
+ * @param column The best column found.
+ * @param score  The score of the best column from the point of view of the player to move.
+ * @param depth  The depth of the last completed search iteration.
+ * @param nodes  The number of positions visited.
+ * @param nanos  The time the search took in nanoseconds.
+ */
+public record SearchResult(int column, int score, int depth, long nodes, long nanos) {
+
+    /**
+     * Returns the number of positions visited per second.
+     *
+     * @return the search speed, or 0 if no time was measured
+     */
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * Returns a string representation of the result in the format
+     * "column 3, depth 12, 34435 nodes in 9 ms (3826111 nodes/s)".
+     *
+     * @return A string representation of the result.
+     */
+    @Override
+    public String toString() {
+        return String.format("column %d, depth %d, %d nodes in %d ms (%d nodes/s)",
+                column, depth, nodes, nanos / 1_000_000, nodesPerSecond());
+    }
+}
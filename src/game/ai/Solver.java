@@ -0,0 +1,536 @@
+package game.ai;
+
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Proves the perfect-play outcome of a position: whether the player to move wins, loses or draws,
+ * and how many moves the game lasts if the winner wins as fast and the loser holds out as long
+ * as possible.
+ * <p>
+ * The solver scores a position by how early it is won: a win with the {@code n}-th chip on a
+ * board of {@code size} slots scores {@code (size + 2 - n) / 2} for the winner and the negation
+ * for the loser, a draw scores 0. The exact score is found by a series of null-window searches,
+ * each of which only answers whether the score is above a guess, narrowing the possible range by
+ * half every time. The searches run on a bitboard copy of the model, in the same layout as
+ * {@link BitboardVierGewinntModel}, and skip moves that let the opponent win right away. The
+ * remaining moves are tried by the number of open lines of three they create, so that threats
+ * come first; bounds found by earlier searches are kept in a {@link TranspositionTable}.
+ * <p>
+ * Proven scores of the analysed positions and their children can be kept in a
+ * {@link SolverCache}, so analysing them again, even in a later run, costs nothing.
+ * <p>
+ * Only boards that fit a bitboard with four in a row can be solved. Positions early in the game
+ * can take very long; the empty standard board takes hours.
+ * Instances are not thread-safe; every solving thread needs its own instance.
+ * <p>
+ * Usage: {@code java game.ai.Solver [moves] [cache]}, by default the empty board with the cache
+ * {@value #DEFAULT_CACHE_FILE}. The moves are the columns played, numbered from 1, e.g.
+ * {@code 4453}; {@code -} stands for the empty board.
+ */
+public class Solver {
+
+    /**
+     * the number of entries of the transposition table created by {@link #Solver()}
+     */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 22;
+
+    /**
+     * the cache file used by {@link #main(String[])}
+     */
+    public static final String DEFAULT_CACHE_FILE = "data/solver.cache";
+
+    /**
+     * the score {@link #analyze(IVierGewinntModel)} gives full columns
+     */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    /**
+     * the table keeping the bounds found by the searches
+     */
+    private final TranspositionTable table;
+
+    /**
+     * the proven scores of earlier analyses, or null
+     */
+    private final SolverCache cache;
+
+    private int width;
+    private int height;
+
+    /**
+     * the number of slots of the board
+     */
+    private int size;
+
+    /**
+     * the bottom slot of every column
+     */
+    private long bottomMask;
+
+    /**
+     * all slots of the board
+     */
+    private long boardMask;
+
+    /**
+     * the columns, center first
+     */
+    private int[] order;
+
+    /**
+     * the columns to try in every position of the current search, by the number of chips played
+     */
+    private int[][] candidates;
+
+    /**
+     * the ordering scores of the candidates, by the number of chips played
+     */
+    private int[][] candidateScores;
+
+    /**
+     * the number of positions visited by the current call
+     */
+    private long nodes;
+
+    /**
+     * Creates a solver with a transposition table of {@value #DEFAULT_TABLE_SIZE} entries and
+     * without a cache.
+     */
+    public Solver() {
+        this(new TranspositionTable(DEFAULT_TABLE_SIZE), null);
+    }
+
+    /**
+     * Creates a solver.
+     *
+     * @param table the table keeping the bounds found by the searches
+     * @param cache the proven scores of earlier analyses, or null to solve every position anew
+     */
+    public Solver(TranspositionTable table, SolverCache cache) {
+        this.table = table;
+        this.cache = cache;
+    }
+
+    public static void main(String[] args) throws IOException, InvalidMoveException {
+        String moves = args.length > 0 ? args[0] : "-";
+        Path file = Path.of(args.length > 1 ? args[1] : DEFAULT_CACHE_FILE);
+
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        if (!moves.equals("-")) {
+            for (char move : moves.toCharArray()) {
+                model.play(Character.digit(move, Character.MAX_RADIX) - 1);
+            }
+        }
+        try (SolverCache cache = SolverCache.open(file, model.getWidth(), model.getHeight())) {
+            System.out.printf("moves %s, %d positions in the cache%n", moves, cache.size());
+            Solver solver = new Solver(new TranspositionTable(DEFAULT_TABLE_SIZE), cache);
+            SolverResult result = solver.solve(model);
+            System.out.println(result);
+            System.out.println("scores " + Arrays.toString(solver.analyze(model)).replace(String.valueOf(INVALID), "-"));
+        }
+    }
+
+    /**
+     * Returns the key of a position as used by {@link SolverCache}: the chips of the player to move
+     * plus all chips, in the layout of {@link BitboardVierGewinntModel}. Within a column, the sum
+     * carries into the slot above the highest chip, so the key differs for any two positions of one
+     * board size.
+     *
+     * @param model the model holding the position
+     * @return the key of the position
+     * @throws IllegalArgumentException if the board does not fit a bitboard
+     */
+    public static long key(IVierGewinntModel model) {
+        long[] position = toBitboard(model);
+        return position[0] + position[1];
+    }
+
+    /**
+     * Proves the outcome of the position of the model and finds the best column.
+     *
+     * @param model the model holding the position, which is not changed
+     * @return the best column, the score and the number of moves until the game ends
+     * @throws IllegalArgumentException if the game is already won, the board is not supported or
+     *                                  does not match the cache
+     */
+    public SolverResult solve(IVierGewinntModel model) {
+        long start = System.nanoTime();
+        int[] scores = analyze(model);
+        long analyzeNodes = nodes;
+        int column = -1;
+        for (int col : order) {
+            if (scores[col] != INVALID && (column == -1 || scores[col] > scores[column])) {
+                column = col;
+            }
+        }
+        int score = column == -1 ? 0 : scores[column];
+        if (column != -1 && cache != null) {
+            long[] position = toBitboard(model);
+            cache.put(position[0] + position[1], score);
+        }
+        return new SolverResult(column, score, plies(score, model.getMoveCount()), analyzeNodes,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Proves the score of every column of the position of the model.
+     *
+     * @param model the model holding the position, which is not changed
+     * @return the score of the position after each column for the player to move,
+     * or {@link #INVALID} for full columns
+     * @throws IllegalArgumentException if the game is already won, the board is not supported or
+     *                                  does not match the cache
+     */
+    public int[] analyze(IVierGewinntModel model) {
+        if (!model.gameWon().isEmpty()) {
+            throw new IllegalArgumentException("The game is already won");
+        }
+        long[] position = toBitboard(model);
+        prepare(model);
+        nodes = 0;
+        long current = position[0];
+        long mask = position[1];
+        int moves = model.getMoveCount();
+        int[] scores = new int[width];
+        Arrays.fill(scores, INVALID);
+        long possible = possible(mask);
+        long winning = winningSlots(current, mask) & possible;
+        for (int col : order) {
+            long move = possible & columnMask(col);
+            if (move == 0) {
+                continue;
+            }
+            if ((winning & move) != 0) {
+                scores[col] = (size + 1 - moves) / 2;
+            } else {
+                scores[col] = -score(current ^ mask, mask | move, moves + 1);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the number of positions visited by the last call of {@link #analyze(IVierGewinntModel)}
+     * or {@link #solve(IVierGewinntModel)}.
+     *
+     * @return the number of positions
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the number of moves until the end of the game, given its score.
+     *
+     * @param score the score of the position
+     * @param moves the number of chips on the board
+     * @return the number of moves played with perfect play until the game is won or the board is full
+     */
+    private int plies(int score, int moves) {
+        if (score == 0) {
+            return size - moves;
+        }
+        // the score tells the number of the winning chip up to one; the winner decides which
+        int winningChip = size + 1 - 2 * Math.abs(score);
+        int parity = score > 0 ? 1 : 0;
+        if (((winningChip - moves) & 1) != parity) {
+            winningChip++;
+        }
+        return winningChip - moves;
+    }
+
+    /**
+     * Sets up the masks for the geometry of the model, unless the last call had the same geometry.
+     *
+     * @param model the model to be solved
+     */
+    private void prepare(IVierGewinntModel model) {
+        if (cache != null && (cache.getWidth() != model.getWidth() || cache.getHeight() != model.getHeight())) {
+            throw new IllegalArgumentException("The cache is for a " + cache.getWidth() + "x" + cache.getHeight()
+                    + " board");
+        }
+        if (width == model.getWidth() && height == model.getHeight()) {
+            return;
+        }
+        // keys of different geometries may collide
+        table.clear();
+        width = model.getWidth();
+        height = model.getHeight();
+        size = width * height;
+        bottomMask = 0;
+        for (int col = 0; col < width; col++) {
+            bottomMask |= 1L << col * (height + 1);
+        }
+        boardMask = bottomMask * ((1L << height) - 1);
+        order = NegamaxAI.centerFirstOrder(width);
+        candidates = new int[size + 1][width];
+        candidateScores = new int[size + 1][width];
+    }
+
+    /**
+     * Converts the position of a model to bitboards.
+     *
+     * @param model the model holding the position
+     * @return the chips of the player to move and the chips of both players
+     * @throws IllegalArgumentException if the board does not fit a bitboard or is not four in a row
+     */
+    private static long[] toBitboard(IVierGewinntModel model) {
+        int width = model.getWidth();
+        int height = model.getHeight();
+        if (model.getWinLength() != 4 || width * (height + 1) > Long.SIZE) {
+            throw new IllegalArgumentException("Only boards of up to " + Long.SIZE
+                    + " slots with four in a row can be solved");
+        }
+        int toMove = model.isPlayerTurn() ? 1 : 2;
+        int[][] board = model.getBoard();
+        long current = 0;
+        long mask = 0;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                long bit = 1L << col * (height + 1) + row;
+                if (board[row][col] != 0) {
+                    mask |= bit;
+                }
+                if (board[row][col] == toMove) {
+                    current |= bit;
+                }
+            }
+        }
+        return new long[]{current, mask};
+    }
+
+    /**
+     * Returns the score of a position from the cache, or solves it and adds it to the cache.
+     *
+     * @param current the chips of the player to move
+     * @param mask    the chips of both players
+     * @param moves   the number of chips on the board
+     * @return the score for the player to move
+     */
+    private int score(long current, long mask, int moves) {
+        long key = current + mask;
+        if (cache != null && cache.contains(key)) {
+            return cache.get(key);
+        }
+        int score = solve(current, mask, moves);
+        if (cache != null) {
+            cache.put(key, score);
+        }
+        return score;
+    }
+
+    /**
+     * Finds the exact score of a position with null-window searches. Each search tells whether the
+     * score is above the middle of the range still possible; the guesses are drawn towards 0, as
+     * searches close to the actual score are the most expensive and most positions are close games.
+     *
+     * @param current the chips of the player to move
+     * @param mask    the chips of both players
+     * @param moves   the number of chips on the board
+     * @return the score for the player to move
+     */
+    private int solve(long current, long mask, int moves) {
+        if ((winningSlots(current, mask) & possible(mask)) != 0) {
+            return (size + 1 - moves) / 2;
+        }
+        int min = -(size - moves) / 2;
+        int max = (size + 1 - moves) / 2;
+        while (min < max) {
+            int guess = min + (max - min) / 2;
+            if (guess <= 0 && min / 2 < guess) {
+                guess = min / 2;
+            } else if (guess >= 0 && max / 2 > guess) {
+                guess = max / 2;
+            }
+            int score = negamax(current, mask, moves, guess, guess + 1);
+            if (score <= guess) {
+                max = score;
+            } else {
+                min = score;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Scores a position in which the player to move can not win right away.
+     *
+     * @param current the chips of the player to move
+     * @param mask    the chips of both players
+     * @param moves   the number of chips on the board
+     * @param alpha   the score the player to move is already guaranteed
+     * @param beta    the score the opponent is already guaranteed, negated
+     * @return the exact score if it lies between alpha and beta, else a bound beyond them
+     */
+    private int negamax(long current, long mask, int moves, int alpha, int beta) {
+        nodes++;
+        long next = nonLosingMoves(current, mask);
+        if (next == 0) {
+            // the opponent wins with the next chip
+            return -(size - moves) / 2;
+        }
+        if (moves >= size - 2) {
+            // neither player can win with the last two chips
+            return 0;
+        }
+        // the opponent can not win with the next chip, nor the player to move with the one after
+        int min = -(size - 2 - moves) / 2;
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+        int max = (size - 1 - moves) / 2;
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+        long hash = hash(current + mask);
+        long entry = table.probe(hash);
+        int tableMove = TranspositionTable.bestMove(entry);
+        if (entry != TranspositionTable.NO_ENTRY) {
+            int score = TranspositionTable.score(entry);
+            if (TranspositionTable.bound(entry) == TranspositionTable.LOWER_BOUND) {
+                if (alpha < score) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        return alpha;
+                    }
+                }
+            } else if (beta > score) {
+                beta = score;
+                if (alpha >= beta) {
+                    return beta;
+                }
+            }
+        }
+
+        int[] columns = candidates[moves];
+        int[] priorities = candidateScores[moves];
+        int count = 0;
+        for (int col : order) {
+            long move = next & columnMask(col);
+            if (move == 0) {
+                continue;
+            }
+            int priority = col == tableMove ? Integer.MAX_VALUE : Long.bitCount(winningSlots(current | move, mask));
+            int i = count++;
+            while (i > 0 && priorities[i - 1] < priority) {
+                columns[i] = columns[i - 1];
+                priorities[i] = priorities[i - 1];
+                i--;
+            }
+            columns[i] = col;
+            priorities[i] = priority;
+        }
+
+        for (int i = 0; i < count; i++) {
+            long move = next & columnMask(columns[i]);
+            int score = -negamax(current ^ mask, mask | move, moves + 1, -beta, -alpha);
+            if (score >= beta) {
+                table.store(hash, score, TranspositionTable.LOWER_BOUND, size - moves, columns[i]);
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        table.store(hash, alpha, TranspositionTable.UPPER_BOUND, size - moves, -1);
+        return alpha;
+    }
+
+    /**
+     * Returns the slots a chip can be played into.
+     *
+     * @param mask the chips of both players
+     * @return the lowest free slot of every column that is not full
+     */
+    private long possible(long mask) {
+        return (mask + bottomMask) & boardMask;
+    }
+
+    /**
+     * Returns the moves of the player to move that do not let the opponent win with the next chip.
+     * If the opponent could win in one slot, that slot has to be taken; if it could win in two,
+     * the game is lost.
+     *
+     * @param current the chips of the player to move
+     * @param mask    the chips of both players
+     * @return the slots that can be played without losing right away, 0 if there are none
+     */
+    private long nonLosingMoves(long current, long mask) {
+        long possible = possible(mask);
+        long opponentWins = winningSlots(current ^ mask, mask);
+        long forced = possible & opponentWins;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) {
+                return 0;
+            }
+            possible = forced;
+        }
+        // never play right below a slot that completes a line of the opponent
+        return possible & ~(opponentWins >> 1);
+    }
+
+    /**
+     * Returns the empty slots, playable or not, that complete a line of four for a player.
+     *
+     * @param chips the chips of the player
+     * @param mask  the chips of both players
+     * @return the slots completing a line
+     */
+    private long winningSlots(long chips, long mask) {
+        // vertical: three chips right below
+        long slots = (chips << 1) & (chips << 2) & (chips << 3);
+        // horizontal and both diagonals: the bits of neighbouring columns are height, height + 1
+        // and height + 2 apart
+        for (int shift = height; shift <= height + 2; shift++) {
+            long pair = (chips << shift) & (chips << 2 * shift);
+            slots |= pair & (chips << 3 * shift);
+            slots |= pair & (chips >>> shift);
+            pair = (chips >>> shift) & (chips >>> 2 * shift);
+            slots |= pair & (chips << shift);
+            slots |= pair & (chips >>> 3 * shift);
+        }
+        return slots & (boardMask ^ mask);
+    }
+
+    /**
+     * Returns all slots of a column.
+     *
+     * @param col the column
+     * @return the mask of the column
+     */
+    private long columnMask(int col) {
+        return ((1L << height) - 1) << col * (height + 1);
+    }
+
+    /**
+     * Spreads the bits of a key over the whole hash, so that the table index taken from the low
+     * bits depends on all slots. The mixing is invertible, so different keys never share a hash.
+     *
+     * @param key the key of the position
+     * @return the hash of the position
+     */
+    private static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
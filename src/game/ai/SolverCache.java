@@ -0,0 +1,241 @@
+package game.ai;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the positions proven by a {@link Solver} across runs, so that analysing the same
+ * positions again costs nothing.
+ * <p>
+ * The file is an append-only log: a header of {@value #HEADER_BYTES} bytes holding the magic
+ * number, the format version and the board width and height, followed by records of
+ * {@value #RECORD_BYTES} bytes, each the key of a position and its score. New results are only
+ * ever appended, so a crash can at worst leave a torn last record, which is cut off the next time
+ * the file is opened. An index of all records is kept in memory; it is rebuilt by reading the
+ * whole log when the cache is opened.
+ * <p>
+ * All methods are synchronized, so one cache can be shared by several solvers.
+ */
+public class SolverCache implements AutoCloseable {
+
+    /**
+     * the first four bytes of every cache file, "VGSC"
+     */
+    static final int MAGIC = 0x56475343;
+
+    /**
+     * the version of the file format
+     */
+    static final short VERSION = 1;
+
+    /**
+     * the size of the header in bytes
+     */
+    static final int HEADER_BYTES = 8;
+
+    /**
+     * the size of a record in bytes: the key and the score
+     */
+    static final int RECORD_BYTES = 9;
+
+    /**
+     * the number of records read at once when the index is rebuilt
+     */
+    private static final int READ_RECORDS = 4096;
+
+    /**
+     * the log file, positioned at its end
+     */
+    private final FileChannel channel;
+
+    /**
+     * the score of every position in the log, by key
+     */
+    private final Map<Long, Byte> index = new HashMap<>();
+
+    /**
+     * the buffer a record is written from
+     */
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Opens the log and reads all records into the index.
+     *
+     * @param channel the log file, readable and writable
+     * @param width   the number of columns of the positions
+     * @param height  the number of rows of the positions
+     * @throws IOException if the file can not be read or belongs to another board
+     */
+    private SolverCache(FileChannel channel, int width, int height) throws IOException {
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.size() == 0) {
+            header.putInt(MAGIC).putShort(VERSION).put((byte) width).put((byte) height).flip();
+            channel.write(header, 0);
+        } else {
+            readHeader(header);
+            rebuildIndex();
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * Opens a cache file, creating it if it does not exist.
+     *
+     * @param path   the cache file
+     * @param width  the number of columns of the positions
+     * @param height the number of rows of the positions
+     * @return the cache
+     * @throws IOException if the file can not be read or belongs to another board
+     */
+    public static SolverCache open(Path path, int width, int height) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE);
+        try {
+            return new SolverCache(channel, width, height);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks that the file is a cache of the right board.
+     *
+     * @param header an empty buffer for the header
+     * @throws IOException if the file is not a cache of this board
+     */
+    private void readHeader(ByteBuffer header) throws IOException {
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // read the whole header
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a solver cache");
+        }
+        if (header.getShort(4) != VERSION) {
+            throw new IOException("Unsupported solver cache version " + header.getShort(4));
+        }
+        if (header.get(6) != width || header.get(7) != height) {
+            throw new IOException("Solver cache is for a " + header.get(6) + "x" + header.get(7)
+                    + " board, not " + width + "x" + height);
+        }
+    }
+
+    /**
+     * Reads all records of the log into the index and cuts off a torn last record.
+     *
+     * @throws IOException if the file can not be read
+     */
+    private void rebuildIndex() throws IOException {
+        long records = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        long end = HEADER_BYTES + records * RECORD_BYTES;
+        if (channel.size() != end) {
+            channel.truncate(end);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(READ_RECORDS * RECORD_BYTES);
+        long position = HEADER_BYTES;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Solver cache shrank while reading it");
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                index.put(buffer.getLong(), buffer.get());
+            }
+            position += buffer.limit();
+        }
+    }
+
+    /**
+     * Returns the number of positions in the cache.
+     *
+     * @return the number of distinct positions
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Checks if the score of a position is known.
+     *
+     * @param key the key of the position, see {@link Solver}
+     * @return true if the position has been solved before
+     */
+    public synchronized boolean contains(long key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Returns the score of a position solved before.
+     *
+     * @param key the key of the position, see {@link Solver}
+     * @return the score for the player to move
+     * @throws IllegalArgumentException if the position is not in the cache
+     */
+    public synchronized int get(long key) {
+        Byte score = index.get(key);
+        if (score == null) {
+            throw new IllegalArgumentException("Position " + key + " is not in the cache");
+        }
+        return score;
+    }
+
+    /**
+     * Adds a solved position to the index and appends it to the log, unless it is already known.
+     *
+     * @param key   the key of the position, see {@link Solver}
+     * @param score the score for the player to move
+     * @throws UncheckedIOException if the record can not be written
+     */
+    public synchronized void put(long key, int score) {
+        if (index.putIfAbsent(key, (byte) score) != null) {
+            return;
+        }
+        record.clear();
+        record.putLong(key).put((byte) score).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the solver cache", e);
+        }
+    }
+
+    /**
+     * Writes all records to the disk and closes the file.
+     *
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package game.ai;
+
+/**
+ * The perfect-play outcome of a position, as proven by a {@link Solver}.
+ *
+ * @param column The best column: the quickest win, else a draw, else the slowest loss.
+ * @param score  The score from the point of view of the player to move: positive for a win, 0 for a draw,
+ *               negative for a loss. The sooner the game is won, the larger the magnitude.
+ * @param plies  The number of moves until the game ends if both players play perfectly.
+ * @param nodes  The number of positions visited.
+ * @param nanos  The time the solver took in nanoseconds.
+ */
+public record SolverResult(int column, int score, int plies, long nodes, long nanos) {
+
+    /**
+     * Returns the outcome for the player to move.
+     *
+     * @return 1 for a win, 0 for a draw and -1 for a loss
+     */
+    public int outcome() {
+        return Integer.signum(score);
+    }
+
+    /**
+     * Returns a string representation of the result in the format
+     * "column 3, win in 13 plies (score 2), 34435 nodes in 9 ms".
+     *
+     * @return A string representation of the result.
+     */
+    @Override
+    public String toString() {
+        String outcome = score > 0 ? "win" : score < 0 ? "loss" : "draw";
+        return String.format("column %d, %s in %d plies (score %d), %d nodes in %d ms",
+                column, outcome, plies, score, nodes, nanos / 1_000_000);
+    }
+}
@@ -0,0 +1,69 @@
+package game.ai;
+
+/**
+ * Keeps track of the thinking time of an AI player.
+ * Every move may use at most the time per move, and all moves of a game together at most the
+ * time per game. The time left for the game is spread evenly over the moves the AI still has to make.
+ */
+public class TimeBudget {
+
+    /**
+     * the most time a single move may use, in milliseconds
+     */
+    private final long moveMillis;
+
+    /**
+     * the most time all moves of a game may use together, in milliseconds
+     */
+    private final long gameMillis;
+
+    /**
+     * the time used by the moves of the current game, in milliseconds
+     */
+    private long usedMillis;
+
+    /**
+     * Creates a budget for a new game.
+     *
+     * @param moveMillis the most time a single move may use, in milliseconds
+     * @param gameMillis the most time all moves of a game may use together, in milliseconds
+     */
+    public TimeBudget(long moveMillis, long gameMillis) {
+        if (moveMillis <= 0 || gameMillis <= 0) {
+            throw new IllegalArgumentException("Time budget must be positive");
+        }
+        this.moveMillis = moveMillis;
+        this.gameMillis = gameMillis;
+    }
+
+    /**
+     * Returns the time the next move may use.
+     *
+     * @param movesLeft the number of moves the AI may still have to make in this game
+     * @return the time for the next move in milliseconds, at least 1
+     */
+    public long nextMoveMillis(int movesLeft) {
+        long share = getRemainingMillis() / Math.max(1, movesLeft);
+        return Math.max(1, Math.min(moveMillis, share));
+    }
+
+    /**
+     * Charges the time a move used against the budget of the game.
+     *
+     * @param millis the time used in milliseconds
+     */
+    public void consume(long millis) {
+        usedMillis += millis;
+    }
+
+    /**
+     * Gives back the full time per game, for a new game.
+     */
+    public void reset() {
+        usedMillis = 0;
+    }
+
+    public long getRemainingMillis() {
+        return Math.max(0, gameMillis - usedMillis);
+    }
+}
@@ -0,0 +1,231 @@
+package game.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table remembering the results of positions already searched, keyed by the
+ * Zobrist hash of {@link game.model.IVierGewinntModel#getHash()}.
+ * <p>
+ * Every entry is packed into two {@code long}s: the data word holding score, bound, depth, best
+ * move and search generation, and the key word holding the hash XOR the data word. A reader only
+ * accepts an entry if both words together give back the hash it asked for, so several search
+ * threads can share one table without locks: an entry torn by a concurrent write is simply
+ * treated as a miss.
+ * <p>
+ * An entry is replaced if it belongs to the same position, stems from an older search or was
+ * searched to a smaller or equal depth than the new result. Positions searched deeply in the
+ * current search are therefore kept, while entries of previous moves make room.
+ */
+public class TranspositionTable {
+
+    /**
+     * the score is exact
+     */
+    public static final int EXACT = 0;
+
+    /**
+     * the score is a lower bound, the search failed high
+     */
+    public static final int LOWER_BOUND = 1;
+
+    /**
+     * the score is an upper bound, the search failed low
+     */
+    public static final int UPPER_BOUND = 2;
+
+    /**
+     * returned by {@link #probe(long)} if the position is not in the table
+     */
+    public static final long NO_ENTRY = 0;
+
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final int GENERATION_SHIFT = 50;
+    private static final long VALID = 1L << 63;
+
+    /**
+     * the key words, each one the hash of the position XOR the data word
+     */
+    private final long[] keys;
+
+    /**
+     * the data words
+     */
+    private final long[] data;
+
+    /**
+     * selects the slot of a hash, the capacity minus one
+     */
+    private final int indexMask;
+
+    /**
+     * the generation of the current search, stored with every entry to age out old results
+     */
+    private volatile int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Creates an empty table.
+     *
+     * @param capacity the number of entries, rounded up to the next power of two
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.indexMask = size - 1;
+    }
+
+    public int getCapacity() {
+        return data.length;
+    }
+
+    /**
+     * Starts a new search generation. Entries stored before are replaced by any new result.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Removes all entries and resets the counters.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        hits.reset();
+        misses.reset();
+        stores.reset();
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param hash the hash of the position
+     * @return the packed entry, to be read with {@link #score(long)}, {@link #bound(long)},
+     * {@link #depth(long)} and {@link #bestMove(long)}, or {@link #NO_ENTRY} if the position is not stored
+     */
+    public long probe(long hash) {
+        int index = (int) hash & indexMask;
+        long entry = data[index];
+        if (entry != NO_ENTRY && (keys[index] ^ entry) == hash) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores the result of a search, if the replacement policy allows it.
+     *
+     * @param hash     the hash of the position
+     * @param score    the score of the position
+     * @param bound    {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     * @param depth    the depth the position was searched to, 0 to 255
+     * @param bestMove the best column found, or -1 if there is none
+     */
+    public void store(long hash, int score, int bound, int depth, int bestMove) {
+        int index = (int) hash & indexMask;
+        long old = data[index];
+        int currentGeneration = generation;
+        if (old != NO_ENTRY
+                && (keys[index] ^ old) != hash
+                && generation(old) == currentGeneration
+                && depth(old) > depth) {
+            return;
+        }
+        long entry = VALID
+                | ((long) currentGeneration << GENERATION_SHIFT)
+                | ((long) (bestMove + 1) << MOVE_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | (score & 0xFFFFFFFFL);
+        data[index] = entry;
+        keys[index] = hash ^ entry;
+        stores.increment();
+    }
+
+    /**
+     * Returns the score of an entry.
+     *
+     * @param entry an entry returned by {@link #probe(long)}
+     * @return the stored score
+     */
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Returns the depth of an entry.
+     *
+     * @param entry an entry returned by {@link #probe(long)}
+     * @return the depth the position was searched to
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Returns the bound of an entry.
+     *
+     * @param entry an entry returned by {@link #probe(long)}
+     * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    /**
+     * Returns the best move of an entry.
+     *
+     * @param entry an entry returned by {@link #probe(long)}
+     * @return the best column, or -1 if none was stored
+     */
+    public static int bestMove(long entry) {
+        return ((int) (entry >>> MOVE_SHIFT) & 0xFF) - 1;
+    }
+
+    /**
+     * Returns the search generation an entry was stored in.
+     *
+     * @param entry a packed entry
+     * @return the generation
+     */
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & 0xFF;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * Returns the share of lookups that found their position.
+     *
+     * @return the hit rate between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0 : (double) getHits() / lookups;
+    }
+}
@@ -0,0 +1,47 @@
+package game.ai.eval;
+
+import game.model.IVierGewinntModel;
+
+/**
+ * Base class of the evaluators that work on the chips of both players packed into a {@code long}
+ * each. The masks of the board are computed when the first position of a board size is evaluated.
+ * Boards that do not fit into a {@code long} are scored as a draw.
+ */
+public abstract class BitboardEvaluator implements IEvaluator {
+
+    /**
+     * the masks of the board size evaluated last. the masks are immutable, so threads sharing the
+     * evaluator see either the old or the new masks, never a half-built one.
+     */
+    private BoardMasks masks = new BoardMasks(7, 6, 4);
+
+    @Override
+    public int evaluate(IVierGewinntModel model) {
+        int width = model.getWidth();
+        int height = model.getHeight();
+        int winLength = model.getWinLength();
+        if (!BoardMasks.fits(width, height)) {
+            return 0;
+        }
+        BoardMasks masks = this.masks;
+        if (!masks.matches(width, height, winLength)) {
+            masks = new BoardMasks(width, height, winLength);
+            this.masks = masks;
+        }
+        boolean firstToMove = model.isPlayerTurn();
+        long first = model.getMask(1);
+        long second = model.getMask(2);
+        int score = evaluate(masks, first, second);
+        return firstToMove ? score : -score;
+    }
+
+    /**
+     * Scores a position from the point of view of the first player.
+     *
+     * @param masks  the masks of the board
+     * @param first  the chips of the first player
+     * @param second the chips of the second player
+     * @return the score between {@code -MAX_SCORE} and {@code MAX_SCORE}, positive if the first player is better
+     */
+    abstract int evaluate(BoardMasks masks, long first, long second);
+}
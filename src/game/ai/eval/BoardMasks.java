@@ -0,0 +1,224 @@
+package game.ai.eval;
+
+import java.util.Arrays;
+
+/**
+ * Masks and bitwise operations for one board size, shared by the evaluators.
+ * Boards are packed into a {@code long} like in {@link game.model.BitboardVierGewinntModel}: bit
+ * {@code col * (height + 1) + row}, with row 0 at the bottom and an empty guard bit on top of every
+ * column, so that shifting a mask never moves a chip from the top of one column to the bottom of
+ * the next. Instances are immutable.
+ */
+final class BoardMasks {
+
+    final int width;
+    final int height;
+    final int winLength;
+
+    /**
+     * all slots of the board
+     */
+    final long board;
+
+    /**
+     * the bottom slot of every column
+     */
+    final long bottom;
+
+    /**
+     * the slots in the first, third, fifth, ... row from the bottom
+     */
+    final long oddRows;
+
+    /**
+     * the slots with the same number of lines of {@code winLength} slots through them, grouped by this number
+     */
+    final long[] weightMasks;
+
+    /**
+     * the number of lines through the slots of the mask with the same index
+     */
+    final int[] weights;
+
+    /**
+     * the distance of neighbouring bits of a line: vertical, horizontal and both diagonals
+     */
+    private final int[] directions;
+
+    /**
+     * Computes the masks of a board.
+     *
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param winLength the number of chips in a row needed to win
+     * @throws IllegalArgumentException if the board needs more than 64 bits
+     */
+    BoardMasks(int width, int height, int winLength) {
+        if (!fits(width, height)) {
+            throw new IllegalArgumentException("A board of " + width + "x" + height + " does not fit into a long");
+        }
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        this.directions = new int[]{1, height + 1, height, height + 2};
+        long column = (1L << height) - 1;
+        long board = 0;
+        long bottom = 0;
+        long oddRows = 0;
+        for (int col = 0; col < width; col++) {
+            board |= column << col * (height + 1);
+            bottom |= 1L << col * (height + 1);
+        }
+        for (int row = 0; row < height; row += 2) {
+            oddRows |= bottom << row;
+        }
+        this.board = board;
+        this.bottom = bottom;
+        this.oddRows = oddRows;
+
+        int[] lines = countLines();
+        int[] distinct = Arrays.stream(lines).filter(count -> count > 0).distinct().sorted().toArray();
+        this.weights = distinct;
+        this.weightMasks = new long[distinct.length];
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                int index = Arrays.binarySearch(distinct, lines[col * height + row]);
+                if (index >= 0) {
+                    weightMasks[index] |= 1L << col * (height + 1) + row;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a board fits into a {@code long} including the guard bits.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @return true if the evaluators can handle the board
+     */
+    static boolean fits(int width, int height) {
+        return width * (height + 1) <= Long.SIZE;
+    }
+
+    /**
+     * Checks if the masks were computed for a board.
+     *
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param winLength the number of chips in a row needed to win
+     * @return true if the board has this size
+     */
+    boolean matches(int width, int height, int winLength) {
+        return this.width == width && this.height == height && this.winLength == winLength;
+    }
+
+    /**
+     * Counts the lines of {@code winLength} slots through every slot.
+     *
+     * @return the number of lines, indexed by {@code col * height + row}
+     */
+    private int[] countLines() {
+        int[] lines = new int[width * height];
+        int[][] steps = {{0, 1}, {1, 0}, {1, -1}, {1, 1}};
+        for (int[] step : steps) {
+            for (int col = 0; col < width; col++) {
+                for (int row = 0; row < height; row++) {
+                    int lastCol = col + (winLength - 1) * step[0];
+                    int lastRow = row + (winLength - 1) * step[1];
+                    if (lastCol >= width || lastRow < 0 || lastRow >= height) {
+                        continue;
+                    }
+                    for (int i = 0; i < winLength; i++) {
+                        lines[(col + i * step[0]) * height + row + i * step[1]]++;
+                    }
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Finds the slots that would complete {@code winLength} chips in a row for a player. For every
+     * direction and every place of the slot within the line, the chips of the player are shifted
+     * onto the slot from all other places of the line and ANDed. Four in a row, by far the most
+     * common case, shares the shifted pairs between the places of the slot.
+     *
+     * @param chips the chips of the player
+     * @return the slots completing a line; only the free slots of the board are meaningful
+     */
+    long winningSlots(long chips) {
+        if (winLength == 4) {
+            // below a free slot, as there are no chips above it
+            long slots = (chips << 1) & (chips << 2) & (chips << 3);
+            for (int i = 1; i < directions.length; i++) {
+                int d = directions[i];
+                long pair = (chips << d) & (chips << 2 * d);
+                slots |= pair & (chips << 3 * d);
+                slots |= pair & (chips >>> d);
+                pair = (chips >>> d) & (chips >>> 2 * d);
+                slots |= pair & (chips << d);
+                slots |= pair & (chips >>> 3 * d);
+            }
+            return slots;
+        }
+        long slots = 0;
+        for (int direction : directions) {
+            for (int place = 0; place < winLength; place++) {
+                long line = -1L;
+                for (int other = 0; other < winLength && line != 0; other++) {
+                    if (other != place) {
+                        int shift = (place - other) * direction;
+                        line &= shift > 0 ? chips << shift : chips >>> -shift;
+                    }
+                }
+                slots |= line;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the free slots where a player would complete a line, the threats of the player.
+     *
+     * @param chips    the chips of the player
+     * @param occupied the chips of both players
+     * @return the threats of the player
+     */
+    long threats(long chips, long occupied) {
+        return winningSlots(chips) & board & ~occupied;
+    }
+
+    /**
+     * Returns every slot at or above a slot of the mask in the same column, with a Kogge-Stone fill
+     * that stops at the guard bits.
+     *
+     * @param slots the slots to fill up from
+     * @return the slots and all slots above them
+     */
+    long fillUp(long slots) {
+        long open = board;
+        slots |= open & (slots << 1);
+        open &= open << 1;
+        slots |= open & (slots << 2);
+        open &= open << 2;
+        slots |= open & (slots << 4);
+        open &= open << 4;
+        slots |= open & (slots << 8);
+        return slots;
+    }
+
+    /**
+     * Weighs the chips of a player by the number of lines through their slots.
+     *
+     * @param chips the chips of the player
+     * @return the sum of the weights of the slots
+     */
+    int cellWeights(long chips) {
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i] * Long.bitCount(chips & weightMasks[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,16 @@
+package game.ai.eval;
+
+/**
+ * Scores a position by the slots the chips occupy: every chip counts as many points as there are
+ * lines of {@code winLength} slots through its slot, e.g. 3 in a corner and 13 in the center of the
+ * standard board. Central chips take part in more lines and so have more chances to win.
+ * The slots are grouped by their weight into masks, so a position costs one population count
+ * per weight and player.
+ */
+public class CellTableEvaluator extends BitboardEvaluator {
+
+    @Override
+    int evaluate(BoardMasks masks, long first, long second) {
+        return masks.cellWeights(first) - masks.cellWeights(second);
+    }
+}
@@ -0,0 +1,34 @@
+package game.ai.eval;
+
+import java.util.List;
+
+/**
+ * Looks up the evaluators by the names used on the command line.
+ */
+public final class Evaluators {
+
+    /**
+     * the names of all evaluators, the one that knows nothing first
+     */
+    public static final List<String> NAMES = List.of("none", "cells", "threes", "parity");
+
+    private Evaluators() {
+    }
+
+    /**
+     * Creates an evaluator from its name.
+     *
+     * @param name {@code none}, {@code cells} for the {@link CellTableEvaluator}, {@code threes} for
+     *             the {@link OpenThreeEvaluator} or {@code parity} for the {@link ThreatParityEvaluator}
+     * @return the evaluator, which can be shared by several searches
+     */
+    public static IEvaluator parse(String name) {
+        return switch (name) {
+            case "none" -> IEvaluator.NONE;
+            case "cells" -> new CellTableEvaluator();
+            case "threes" -> new OpenThreeEvaluator();
+            case "parity" -> new ThreatParityEvaluator();
+            default -> throw new IllegalArgumentException("Unknown evaluator " + name);
+        };
+    }
+}
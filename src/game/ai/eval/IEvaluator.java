@@ -0,0 +1,30 @@
+package game.ai.eval;
+
+import game.model.IVierGewinntModel;
+
+/**
+ * Interface representing a static evaluation of a position, used by depth-limited searches such as
+ * {@link game.ai.NegamaxAI} to score the positions at which they stop searching.
+ * Evaluators only judge positions that are neither won nor full; the search handles those itself.
+ */
+public interface IEvaluator {
+
+    /**
+     * The largest score an evaluator may return, far below the scores of won positions.
+     */
+    int MAX_SCORE = 100_000;
+
+    /**
+     * An evaluator that knows nothing about the position and scores every position as a draw.
+     */
+    IEvaluator NONE = model -> 0;
+
+    /**
+     * Scores the position of the model without playing any moves.
+     * Implementations must not change the model and must be safe to use from several threads.
+     *
+     * @param model The model holding the position.
+     * @return The score between {@code -MAX_SCORE} and {@code MAX_SCORE}, positive if the player to move is better.
+     */
+    int evaluate(IVierGewinntModel model);
+}
@@ -0,0 +1,20 @@
+package game.ai.eval;
+
+/**
+ * Scores a position by the open threes of both players: the free slots that would complete a line
+ * of {@code winLength} chips, counted once per slot even if they complete several lines.
+ */
+public class OpenThreeEvaluator extends BitboardEvaluator {
+
+    /**
+     * the score of a free slot that completes a line
+     */
+    static final int THREAT = 32;
+
+    @Override
+    int evaluate(BoardMasks masks, long first, long second) {
+        long occupied = first | second;
+        return THREAT * (Long.bitCount(masks.threats(first, occupied))
+                - Long.bitCount(masks.threats(second, occupied)));
+    }
+}
@@ -0,0 +1,38 @@
+package game.ai.eval;
+
+/**
+ * Scores a position by the rows of the threats of both players, the odd-even rule of Connect Four:
+ * when the board fills up, the first player gets the slots in the odd rows (counted from 1 at the
+ * bottom) and the second player those in the even rows. A threat in a row of the right parity is
+ * therefore likely to be won in the end, unless the opponent has a threat below it in the same
+ * column, which has to be filled first.
+ * <p>
+ * Threats of the right parity without an opposing threat below them score the most, all other
+ * threats a little, and the {@link CellTableEvaluator cell weights} break ties in quiet positions.
+ */
+public class ThreatParityEvaluator extends BitboardEvaluator {
+
+    /**
+     * the score of a threat in a row of the right parity with no opposing threat below it
+     */
+    static final int GOOD_THREAT = 64;
+
+    /**
+     * the score of any other threat
+     */
+    static final int THREAT = 16;
+
+    @Override
+    int evaluate(BoardMasks masks, long first, long second) {
+        long occupied = first | second;
+        long threats1 = masks.threats(first, occupied);
+        long threats2 = masks.threats(second, occupied);
+        long aboveThreats1 = masks.fillUp((threats1 << 1) & masks.board);
+        long aboveThreats2 = masks.fillUp((threats2 << 1) & masks.board);
+        long good1 = threats1 & masks.oddRows & ~aboveThreats2;
+        long good2 = threats2 & ~masks.oddRows & ~aboveThreats1;
+        return GOOD_THREAT * (Long.bitCount(good1) - Long.bitCount(good2))
+                + THREAT * (Long.bitCount(threats1 & ~good1) - Long.bitCount(threats2 & ~good2))
+                + masks.cellWeights(first) - masks.cellWeights(second);
+    }
+}
@@ -0,0 +1,156 @@
+package game.controller;
+
+import game.model.Move;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs the searches of the AI in the background and hands their moves back as futures.
+ * The threads are created once with the executor instead of once per move. At most
+ * {@code capacity} searches may be running or waiting at once; further ones are rejected
+ * instead of piling up.
+ * <p>
+ * The kind of threads is chosen with a {@link Mode}: a single platform thread runs the searches
+ * one after the other, a pool runs several at once, and virtual threads start a cheap new thread
+ * for every search.
+ */
+public class AIExecutor implements AutoCloseable {
+
+    /**
+     * the kinds of threads the searches can run on
+     */
+    public enum Mode {
+        /**
+         * one platform thread, searches run one after the other
+         */
+        SINGLE,
+        /**
+         * a fixed number of platform threads
+         */
+        POOL,
+        /**
+         * a new virtual thread for every search
+         */
+        VIRTUAL;
+
+        /**
+         * Reads a mode from its name, ignoring case.
+         *
+         * @param name {@code single}, {@code pool} or {@code virtual}
+         * @return the mode
+         * @throws IllegalArgumentException if there is no mode of that name
+         */
+        public static Mode parse(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * the number of searches that may be running or waiting at once by default
+     */
+    public static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * runs the searches
+     */
+    private final ExecutorService executor;
+
+    /**
+     * one permit for every search that may still be submitted
+     */
+    private final Semaphore permits;
+
+    /**
+     * Creates an executor with a pool of as many threads as there are processors
+     * and room for {@value #DEFAULT_CAPACITY} searches.
+     *
+     * @param mode the kind of threads
+     */
+    public AIExecutor(Mode mode) {
+        this(mode, Runtime.getRuntime().availableProcessors(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param mode     the kind of threads
+     * @param threads  the number of threads of a {@link Mode#POOL}, ignored by the other modes
+     * @param capacity the number of searches that may be running or waiting at once
+     */
+    public AIExecutor(Mode mode, int threads, int capacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1 but was " + threads);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1 but was " + capacity);
+        }
+        this.executor = switch (mode) {
+            case SINGLE -> Executors.newSingleThreadExecutor(platformThreads());
+            case POOL -> Executors.newFixedThreadPool(threads, platformThreads());
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-", 0).factory());
+        };
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * Creates the platform threads of the executor. They do not keep the application alive.
+     *
+     * @return the thread factory
+     */
+    private static ThreadFactory platformThreads() {
+        return Thread.ofPlatform().name("ai-", 0).daemon().factory();
+    }
+
+    /**
+     * Starts a search in the background.
+     *
+     * @param search finds the move to play, may return null if there is none to play any more
+     * @param <T>    the result of the search, usually the {@link Move} to play
+     * @return the move found, or the exception thrown by the search; a
+     * {@link RejectedExecutionException} if too many searches are pending or the executor is closed
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> search) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!permits.tryAcquire()) {
+            future.completeExceptionally(new RejectedExecutionException("Too many AI moves pending"));
+            return future;
+        }
+        try {
+            executor.execute(() -> {
+                T move = null;
+                Throwable failure = null;
+                try {
+                    move = search.call();
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                // free the permit first, so that whoever waits for the move can submit the next search
+                permits.release();
+                if (failure == null) {
+                    future.complete(move);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Interrupts the running searches and stops the threads. Searches submitted afterwards are rejected.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -16,4 +16,10 @@ public interface IVierGewinntController {
      * @param keyCode The code representing the key that was pressed.
      */
     void handleKeyPressed(int keyCode);
+
+    /**
+     * Stops the background work of the controller and writes out what is still pending,
+     * when the game ends.
+     */
+    void close();
 }
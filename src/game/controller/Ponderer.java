@@ -0,0 +1,226 @@
+package game.controller;
+
+import game.ai.NegamaxAI;
+import game.ai.SearchResult;
+import game.model.IVierGewinntModel;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lets the AI think on the time of its opponent. After the AI moved, the ponderer guesses the reply
+ * of the opponent with a short search and then searches the position after that reply in the
+ * background, until the opponent moves.
+ * <p>
+ * If the opponent plays the guessed reply, a ponder hit, the search goes on for what is left of the
+ * time the AI has for its move, or its result is used right away if it already searched that long.
+ * Otherwise the search is stopped, and the AI searches the actual position as usual; as the
+ * pondering AI shares its {@link game.ai.TranspositionTable} with the playing one, the positions
+ * searched meanwhile are not searched again.
+ * <p>
+ * The search runs in slices of at most {@value #SLICE_MILLIS} ms. Every slice starts where the
+ * last one left off thanks to the table, and a stop that comes just before a slice starts delays
+ * the ponderer by one slice at most instead of letting it run on.
+ */
+public class Ponderer {
+
+    /**
+     * the time spent guessing the reply of the opponent, in milliseconds
+     */
+    static final long GUESS_MILLIS = 50;
+
+    /**
+     * the longest search between two checks for a stop, in milliseconds
+     */
+    static final long SLICE_MILLIS = 250;
+
+    /**
+     * the longest time to ponder while the opponent does not move, in milliseconds
+     */
+    public static final long DEFAULT_MAX_MILLIS = 30_000;
+
+    /**
+     * searches on the opponent's time, used by no one else
+     */
+    private final NegamaxAI ai;
+
+    /**
+     * runs the pondering
+     */
+    private final AIExecutor executor;
+
+    /**
+     * the longest time to ponder while the opponent does not move, in milliseconds
+     */
+    private final long maxMillis;
+
+    /**
+     * the pondering going on, or null
+     */
+    private Session session;
+
+    /**
+     * One round of pondering, from a move of the AI to the reply of its opponent.
+     */
+    private static final class Session {
+
+        /**
+         * the result of the pondering, null if it was stopped or there was nothing to ponder
+         */
+        final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+
+        /**
+         * the guessed reply, or -1 while guessing
+         */
+        int guess = -1;
+
+        /**
+         * the {@code System.nanoTime()} at which the search of the guessed reply started
+         */
+        long searchStart;
+
+        /**
+         * the {@code System.nanoTime()} at which to stop searching
+         */
+        long deadline;
+
+        /**
+         * true once the opponent played something else or the game changed
+         */
+        boolean stopped;
+    }
+
+    /**
+     * Creates a ponderer that ponders for at most {@value #DEFAULT_MAX_MILLIS} ms per move.
+     *
+     * @param ai       the AI to ponder with, sharing its table with the playing AI but not used by it
+     * @param executor runs the pondering
+     */
+    public Ponderer(NegamaxAI ai, AIExecutor executor) {
+        this(ai, executor, DEFAULT_MAX_MILLIS);
+    }
+
+    /**
+     * Creates a ponderer.
+     *
+     * @param ai        the AI to ponder with, sharing its table with the playing AI but not used by it
+     * @param executor  runs the pondering
+     * @param maxMillis the longest time to ponder while the opponent does not move
+     */
+    public Ponderer(NegamaxAI ai, AIExecutor executor, long maxMillis) {
+        this.ai = ai;
+        this.executor = executor;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Starts pondering a position in which the opponent is to move, stopping any earlier pondering.
+     *
+     * @param position a copy of the model holding the position, owned by the ponderer from now on
+     */
+    public synchronized void start(IVierGewinntModel position) {
+        stop();
+        Session started = new Session();
+        started.deadline = System.nanoTime() + maxMillis * 1_000_000;
+        session = started;
+        executor.submit(() -> ponder(position, started)).whenComplete((result, e) -> {
+            // a failed or rejected pondering only loses its head start
+            started.result.complete(e == null ? result : null);
+        });
+    }
+
+    /**
+     * Stops pondering, if it is going on, including the search of a ponder hit.
+     */
+    public synchronized void stop() {
+        if (session != null) {
+            session.stopped = true;
+            ai.cancel();
+            session = null;
+        }
+    }
+
+    /**
+     * Tells the ponderer the reply of the opponent. On a ponder hit, the search goes on for the
+     * time the AI has for its move less the time already pondered; otherwise the pondering is stopped.
+     *
+     * @param column     the column the opponent played
+     * @param timeMillis the time the AI may think about its move, in milliseconds
+     * @return the result of the search of the position after the reply on a ponder hit, which may
+     * complete with null if there was nothing to search; null if the reply was not pondered
+     */
+    public synchronized CompletableFuture<SearchResult> reply(int column, long timeMillis) {
+        Session current = session;
+        if (current == null || current.guess != column) {
+            stop();
+            return null;
+        }
+        // the session stays current, so that stop() still ends its search
+        long now = System.nanoTime();
+        long pondered = now - current.searchStart;
+        current.deadline = Math.min(current.deadline, now + Math.max(0, timeMillis * 1_000_000 - pondered));
+        if (current.deadline <= now) {
+            ai.cancel();
+        }
+        return current.result;
+    }
+
+    /**
+     * Returns the guessed reply of the pondering going on.
+     *
+     * @return the column, or -1 if there is no pondering or the guess is not known yet
+     */
+    public synchronized int getGuess() {
+        return session == null ? -1 : session.guess;
+    }
+
+    /**
+     * Guesses the reply of the opponent and searches the position after it. Runs on a thread of the executor.
+     *
+     * @param position the position in which the opponent is to move
+     * @param session  the pondering the search belongs to
+     * @return the deepest result found, or null if pondering was stopped or the guess ends the game
+     * @throws Exception if the search fails
+     */
+    private SearchResult ponder(IVierGewinntModel position, Session session) throws Exception {
+        synchronized (this) {
+            if (session.stopped) {
+                return null;
+            }
+        }
+        int guess = ai.search(position, GUESS_MILLIS).column();
+        position.play(guess);
+        if (!position.gameWon().isEmpty() || position.isGameOver()) {
+            return null;
+        }
+        synchronized (this) {
+            if (session.stopped) {
+                return null;
+            }
+            session.guess = guess;
+            session.searchStart = System.nanoTime();
+        }
+        int slotsLeft = position.getWidth() * position.getHeight() - position.getMoveCount();
+        SearchResult best = null;
+        while (true) {
+            long slice;
+            synchronized (this) {
+                long left = session.deadline - System.nanoTime();
+                if (session.stopped) {
+                    return null;
+                }
+                if (best != null && left <= 0) {
+                    return best;
+                }
+                slice = Math.max(1, Math.min(SLICE_MILLIS, left / 1_000_000));
+            }
+            SearchResult result = ai.search(position, slice);
+            if (best == null || result.depth() >= best.depth()) {
+                best = result;
+            }
+            if (Math.abs(best.score()) > NegamaxAI.WIN_SCORE - slotsLeft - 1 || best.depth() >= slotsLeft) {
+                // the outcome is known, searching on would not change the move
+                return best;
+            }
+        }
+    }
+}
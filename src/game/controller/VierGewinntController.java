@@ -1,27 +1,73 @@
 package game.controller;
 
-import game.model.VierGewinntModel;
+import game.ai.NegamaxAI;
+import game.ai.OpeningBook;
+import game.ai.OpeningBookGenerator;
+import game.ai.SearchResult;
+import game.ai.TimeBudget;
+import game.ai.TranspositionTable;
+import game.log.EventLog;
+import game.log.GameEvent;
+import game.log.LogWriter;
+import game.model.BitboardVierGewinntModel;
 import game.model.IVierGewinntModel;
 import game.model.Move;
 import game.model.exceptions.InvalidMoveException;
 import game.model.exceptions.NoMoreMovesException;
 import game.model.exceptions.NoMoreUndoMovesException;
 import game.view.IVierGewinntView;
+import game.view.RenderState;
 import processing.core.PConstants;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller class for the "Vier Gewinnt" (Connect Four) game.
  * This class implements the {@link IVierGewinntController} interface and is responsible for managing
  * the game's logic and user interactions.
+ * <p>
+ * The AI searches on a copy of the model in an {@link AIExecutor}, so the model is only ever
+ * changed while holding the controller's lock. The kind of threads the AI runs on is read from the
+ * system property {@value #AI_EXECUTOR_PROPERTY}: {@code single} (the default), {@code pool} or
+ * {@code virtual}. While the player thinks about a move, the AI ponders the reply it expects
+ * with a {@link Ponderer}.
+ * <p>
+ * The controller never draws: after every change it publishes a {@link RenderState} to the view,
+ * which draws the latest one in its own frame loop. So a move of the AI, finished on another
+ * thread, is shown the same way as a move of the player.
+ * <p>
+ * Game events are logged to an {@link EventLog}, whose latest events the view shows in its log
+ * panel. A {@link LogWriter} writes them to the console and, if the system property
+ * {@value #LOG_FILE_PROPERTY} names a file, appends them to that file, until the controller is
+ * {@linkplain #close() closed}.
  */
 public class VierGewinntController implements IVierGewinntController {
     /**
      * the default position of the coin
      */
     private static final int DEFAULT_POSITION = 3;
+    /**
+     * the deepest the AI searches, the number of slots on the board
+     */
+    private static final int AI_MAX_DEPTH = 42;
+    /**
+     * the most time the AI may think about a single move, in milliseconds
+     */
+    private static final long AI_MOVE_MILLIS = 1000;
+    /**
+     * the most time the AI may think about all its moves of a game, in milliseconds
+     */
+    private static final long AI_GAME_MILLIS = 15_000;
     /**
      * the color of the first player
      */
@@ -30,6 +76,14 @@ public class VierGewinntController implements IVierGewinntController {
      * the color of the second player or the AI.
      */
     private static final String PLAYER2COLOR = "Yellow";
+    /**
+     * the system property choosing the {@link AIExecutor.Mode} of the AI
+     */
+    public static final String AI_EXECUTOR_PROPERTY = "viergewinnt.ai.executor";
+    /**
+     * the system property naming a file the game events are appended to
+     */
+    public static final String LOG_FILE_PROPERTY = "viergewinnt.log.file";
     /**
      * the game view
      */
@@ -42,6 +96,47 @@ public class VierGewinntController implements IVierGewinntController {
      * the game model
      */
     private IVierGewinntModel model;
+    /**
+     * the transposition table shared by the AI and its ponderer
+     */
+    private final TranspositionTable aiTable = new TranspositionTable(NegamaxAI.DEFAULT_TABLE_SIZE);
+    /**
+     * the computer opponent used when playing with AI
+     */
+    private final NegamaxAI ai = new NegamaxAI(AI_MAX_DEPTH, aiTable);
+    /**
+     * searches the expected reply of the player while the player thinks
+     */
+    private final Ponderer ponderer;
+    /**
+     * the precomputed moves of the AI for the first plies, or null if there is no book
+     */
+    private final OpeningBook openingBook;
+    /**
+     * the thinking time left to the AI in the current game. Must only be used holding the controller's lock.
+     */
+    private final TimeBudget aiTime = new TimeBudget(AI_MOVE_MILLIS, AI_GAME_MILLIS);
+    /**
+     * runs the searches of the AI
+     */
+    private final AIExecutor aiExecutor;
+    /**
+     * counts the AI moves requested. A search only plays its move if no newer one was requested
+     * and the position was not changed meanwhile, which also increments the count.
+     */
+    private volatile int aiRequest;
+    /**
+     * the latest game events, shown in the log panel of the view
+     */
+    private final EventLog eventLog = new EventLog();
+    /**
+     * writes the game events to the console and the log file in the background
+     */
+    private final LogWriter logWriter;
+    /**
+     * the file the game events are appended to, or null if there is none
+     */
+    private final Writer logFile;
     /**
      * true if playing with AI.
      */
@@ -50,11 +145,6 @@ public class VierGewinntController implements IVierGewinntController {
      * the current position of the coin to be played
      */
     private int position = DEFAULT_POSITION;
-    /**
-     * counts the total number of moves made.
-     * i.e. the number of coins on the board.
-     */
-    private int moves = 0;
     /**
      * contains a list of the winningMoves if the game is won
      */
@@ -66,9 +156,9 @@ public class VierGewinntController implements IVierGewinntController {
     private Move playMove = null;
 
     /**
-     * A string containing log messages related to gameplay.
+     * the state published to the view last. Must be changed holding the controller's lock.
      */
-    private String playMsg = "";
+    private RenderState rendered = RenderState.START;
 
     /**
      * initialize view
@@ -76,16 +166,95 @@ public class VierGewinntController implements IVierGewinntController {
      * @param view the view to use to display model information
      */
     public VierGewinntController(IVierGewinntView view) {
+        this(view, new AIExecutor(AIExecutor.Mode.parse(System.getProperty(AI_EXECUTOR_PROPERTY, "single"))));
+    }
+
+    /**
+     * initialize view and the threads of the AI
+     *
+     * @param view       the view to use to display model information
+     * @param aiExecutor runs the searches of the AI
+     */
+    public VierGewinntController(IVierGewinntView view, AIExecutor aiExecutor) {
         this.view = view;
+        this.aiExecutor = aiExecutor;
+        this.logFile = openLogFile();
+        Writer console = new OutputStreamWriter(System.out);
+        this.logWriter = logFile == null ? new LogWriter(eventLog, console) : new LogWriter(eventLog, console, logFile);
+        this.ponderer = new Ponderer(new NegamaxAI(AI_MAX_DEPTH, aiTable), aiExecutor);
+        this.openingBook = loadOpeningBook(Path.of(OpeningBookGenerator.DEFAULT_FILE));
+    }
+
+    /**
+     * Opens the file named by the system property {@value #LOG_FILE_PROPERTY} to append the game
+     * events to. It is closed by {@link #close()}.
+     *
+     * @return the file, or null if the property is not set or the file can not be opened
+     */
+    private Writer openLogFile() {
+        String file = System.getProperty(LOG_FILE_PROPERTY);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return Files.newBufferedWriter(Path.of(file), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Log file not opened: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stops the AI, writes the game events not written yet and closes the log file.
+     * The view calls this when the program ends.
+     */
+    @Override
+    public synchronized void close() {
+        aiRequest++;
+        ai.cancel();
+        ponderer.stop();
+        logWriter.close();
+        if (logFile != null) {
+            try {
+                logFile.close();
+            } catch (IOException e) {
+                System.err.println("Log file not closed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens the opening book of the AI. The game works without one, the AI then searches every move.
+     * A book made by another version of the AI is not used, as its moves are not the ones the AI
+     * would choose now.
+     *
+     * @param path the book file
+     * @return the book, or null if there is none, it can not be read or it is outdated
+     */
+    private OpeningBook loadOpeningBook(Path path) {
+        try {
+            OpeningBook book = OpeningBook.open(path);
+            if (book.getEngineVersion() != NegamaxAI.ENGINE_VERSION) {
+                logMessage(GameEvent.Type.INFO, String.format("Opening book not used, it was made by AI version %d instead of %d",
+                        book.getEngineVersion(), NegamaxAI.ENGINE_VERSION));
+                return null;
+            }
+            return book;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logMessage(GameEvent.Type.ERROR, "Opening book not loaded: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
      * sets up the view to display the start screen
      */
     @Override
-    public void startScreen() {
+    public synchronized void startScreen() {
         this.state = GameState.GAME_CONFIGURATION;
-        view.displayStart();
+        render(rendered.withScreen(RenderState.Screen.START));
     }
 
     /**
@@ -95,18 +264,21 @@ public class VierGewinntController implements IVierGewinntController {
      * @param playWithAI true if the game is to be played with AI else false.
      */
     private void simulateStart(boolean playWithAI) {
-        model = new VierGewinntModel();
-        moves = 0;
+        model = new BitboardVierGewinntModel();
+        // drop the move of a search still running for the previous game
+        aiRequest++;
+        ai.cancel();
+        ponderer.stop();
+        aiTime.reset();
         winningMoves = new ArrayList<>();
         this.playWithAI = playWithAI;
         if (this.playWithAI && !model.isPlayerTurn()) {
             // AI starts
             try {
                 model.playRandom();
-                logMessage("Game Started");
-                moves++;
+                logMessage(GameEvent.Type.INFO, "Game Started");
             } catch (InvalidMoveException | NoMoreMovesException e) {
-                logMessage(e.getMessage());
+                logMessage(GameEvent.Type.ERROR, e.getMessage());
             }
         }
         state = GameState.GAME_STARTED;
@@ -114,12 +286,25 @@ public class VierGewinntController implements IVierGewinntController {
     }
 
     /**
-     * Used to log message in the view
+     * Logs a game event, which the view shows in its log panel and the log writer writes out later.
+     * Takes constant time, however long the game goes on.
+     *
+     * @param type what kind of event it is
+     * @param msg  the message to be logged
+     */
+    private void logMessage(GameEvent.Type type, String msg) {
+        eventLog.log(type, msg);
+        render(rendered.withLog(eventLog.tail(RenderState.LOG_LINES)));
+    }
+
+    /**
+     * Hands a new state to the view, which draws it with its next frame.
      *
-     * @param msg the message to be logged
+     * @param next the state to show
      */
-    private void logMessage(String msg) {
-        view.log(msg);
+    private void render(RenderState next) {
+        rendered = next;
+        view.publish(next);
     }
 
     /**
@@ -132,45 +317,182 @@ public class VierGewinntController implements IVierGewinntController {
      */
     private String logMove(Move move) {
         String prevPlayerColor = this.model.isPlayerTurn() ? PLAYER2COLOR : PLAYER1COLOR;
-        return (String.format("Player %s played %s%n", prevPlayerColor, move));
+        return (String.format("Player %s played %s", prevPlayerColor, move));
     }
 
     /**
-     * Starts a new AI thread responsible for making AI moves in the game.
+     * A move found by the AI, played on the copy of the model it was found on.
+     *
+     * @param move    the move
+     * @param millis  the thinking time to charge to the AI, in milliseconds
+     * @param message how the AI found the move, to be logged when the move is played
      */
-    public void startAIThread() {
-        AIThread aiTask = new AIThread(this);
-        Thread aiThread = new Thread(aiTask);
-        aiThread.start();
+    private record AIMove(Move move, long millis, String message) {
     }
 
     /**
-     * Makes an AI move in the game.
-     * This method handles AI move generation and updates game state accordingly.
+     * Lets the AI search its move on a copy of the model in the background. Once found, the move
+     * is played on the model, unless the position changed meanwhile, and the game is checked for
+     * a win or a draw. Must be called holding the controller's lock.
      *
+     * @param timeMillis the time the AI may think about its move
      */
-    public void aiMakeMove() {
+    private void startAIMove(long timeMillis) {
+        int request = ++aiRequest;
+        IVierGewinntModel snapshot = model.fork();
+        aiExecutor.submit(() -> searchAIMove(snapshot, request, timeMillis))
+                .thenAccept(move -> finishAIMove(move, request))
+                .exceptionally(e -> {
+                    failAIMove(e instanceof CompletionException ? e.getCause() : e, request);
+                    return null;
+                });
+    }
+
+    /**
+     * Lets the AI play the result of a ponder hit once the pondering is done. If there is no
+     * result, the AI searches as usual. Must be called holding the controller's lock.
+     *
+     * @param pondered   the result of the search of the position, see {@link Ponderer#reply(int, long)}
+     * @param timeMillis the time the AI may think about its move if it has to search after all
+     */
+    private void startPonderedAIMove(CompletableFuture<SearchResult> pondered, long timeMillis) {
+        int request = ++aiRequest;
+        IVierGewinntModel snapshot = model.fork();
+        long start = System.nanoTime();
+        pondered.thenCompose(result -> {
+                    if (request != aiRequest) {
+                        return CompletableFuture.completedFuture((AIMove) null);
+                    }
+                    if (result == null) {
+                        return aiExecutor.submit(() -> searchAIMove(snapshot, request, timeMillis));
+                    }
+                    try {
+                        // only the time waited for the pondering after the reply is charged
+                        return CompletableFuture.completedFuture(new AIMove(snapshot.play(result.column()),
+                                (System.nanoTime() - start) / 1_000_000, String.format("AI pondered %s", result)));
+                    } catch (InvalidMoveException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                })
+                .thenAccept(move -> finishAIMove(move, request))
+                .exceptionally(e -> {
+                    failAIMove(e instanceof CompletionException ? e.getCause() : e, request);
+                    return null;
+                });
+    }
+
+    /**
+     * Returns the time the AI may think about its next move. Must be called holding the controller's lock.
+     *
+     * @param model the model holding the position in which the AI is to move
+     * @return the time in milliseconds
+     */
+    private long nextAIMoveMillis(IVierGewinntModel model) {
+        int movesLeft = (model.getWidth() * model.getHeight() - model.getMoveCount() + 1) / 2;
+        return aiTime.nextMoveMillis(movesLeft);
+    }
+
+    /**
+     * Finds the move of the AI: the move of the opening book if the position is in it, or else
+     * the best column the AI finds within its time budget. Runs on a thread of the AI executor.
+     * Searches are run one after the other, as the AI is not thread-safe.
+     *
+     * @param snapshot   a copy of the model holding the position, owned by the search
+     * @param request    the number of the request, to skip the search if it is outdated
+     * @param timeMillis the time the AI may think about its move
+     * @return the move, or null if the request is outdated
+     * @throws InvalidMoveException if the AI chose a full column
+     * @throws NoMoreMovesException if there is no valid move left
+     */
+    private AIMove searchAIMove(IVierGewinntModel snapshot, int request, long timeMillis) throws InvalidMoveException, NoMoreMovesException {
+        int column = lookupOpeningBook(snapshot);
+        if (column != -1) {
+            return new AIMove(snapshot.play(column), 0, String.format("AI played column %d from the opening book", column));
+        }
+        synchronized (ai) {
+            // read before the request, as a newer request is made before the search is cancelled
+            int cancelCount = ai.getCancelCount();
+            if (request != aiRequest) {
+                return null;
+            }
+            SearchResult result = ai.search(snapshot, timeMillis, cancelCount);
+            return new AIMove(snapshot.play(result.column()), result.nanos() / 1_000_000,
+                    String.format("AI searched %s", result));
+        }
+    }
+
+    /**
+     * Plays the move found by the AI, charges its thinking time and updates the game state
+     * accordingly. If the player took back their move or started a new game meanwhile, the move
+     * is dropped and its time is not charged.
+     *
+     * @param move    the move found by the AI, or null if there is none
+     * @param request the number of the request the move answers
+     */
+    private synchronized void finishAIMove(AIMove move, int request) {
+        if (request != aiRequest) {
+            return;
+        }
+        if (move == null || state != GameState.GAME_STARTED || model.isPlayerTurn()) {
+            return;
+        }
+        aiTime.consume(move.millis());
         try {
-            Thread.sleep(1);
-            playMove = model.playRandom();
+            playMove = model.play(move.move().column());
+            if (!move.message().isEmpty()) {
+                logMessage(GameEvent.Type.AI, move.message());
+            }
+            logMessage(GameEvent.Type.MOVE, this.logMove(playMove));
+            this.position = DEFAULT_POSITION;
+            this.display(playMove);
+            if (checkGameEnd()) {
+                return;
+            }
+            ponderer.start(model.fork());
+        } catch (InvalidMoveException e) {
+            logMessage(GameEvent.Type.ERROR, e.getMessage());
         }
-        catch (InvalidMoveException e) {
-            logMessage(e.getMessage());
-        } catch (NoMoreMovesException e) {
-            state = GameState.GAME_OVER;
-            logMessage(e.getMessage());
-            view.displayWinner(0);
+    }
+
+    /**
+     * Reports a search of the AI that failed.
+     *
+     * @param e       the exception thrown by the search
+     * @param request the number of the request that failed
+     */
+    private synchronized void failAIMove(Throwable e, int request) {
+        if (request != aiRequest) {
+            return;
         }
-        catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logMessage(e.getMessage() + "\nAI thread was interrupted.");
+        if (e instanceof NoMoreMovesException) {
+            state = GameState.GAME_OVER;
+            logMessage(GameEvent.Type.RESULT, e.getMessage());
+            render(rendered.withResult(0, List.of()));
+        } else {
+            logMessage(GameEvent.Type.ERROR, "AI failed to move: " + e);
         }
     }
 
+    /**
+     * Looks up a position in the opening book.
+     *
+     * @param model the model holding the position
+     * @return the column of the book move, or -1 if the position is not in the book
+     */
+    private int lookupOpeningBook(IVierGewinntModel model) {
+        if (openingBook == null || openingBook.getWidth() != model.getWidth()
+                || openingBook.getHeight() != model.getHeight()
+                || openingBook.getWinLength() != model.getWinLength()) {
+            return -1;
+        }
+        int column = openingBook.lookup(model.getHash());
+        // a different position with the same hash could map to a full column
+        return column != -1 && model.isValidMove(column) ? column : -1;
+    }
 
     /**
      * plays a move based on the column position passed.
-     * if playing with AI, it automatically plays an AI move after a player is done
+     * if playing with AI, it automatically starts an AI move after a player is done
      * Messages of the moves played and exceptions caught are also logged to the
      * view
      *
@@ -178,59 +500,71 @@ public class VierGewinntController implements IVierGewinntController {
      */
     private void play(int position) {
         try {
-        playMove = model.play(position);
-        moves++;
-        playMsg += this.logMove(playMove);
-        this.position = DEFAULT_POSITION;
-        this.display();
+            playMove = model.play(position);
+            logMessage(GameEvent.Type.MOVE, this.logMove(playMove));
+            this.position = DEFAULT_POSITION;
+            this.display(playMove);
+            if (checkGameEnd()) {
+                ponderer.stop();
+                return;
+            }
+        } catch (InvalidMoveException e) {
+            logMessage(GameEvent.Type.ERROR, e.getMessage());
+            this.display();
+            return;
+        }
+        if (playWithAI) {
+            long timeMillis = nextAIMoveMillis(model);
+            CompletableFuture<SearchResult> pondered = ponderer.reply(position, timeMillis);
+            if (pondered != null && lookupOpeningBook(model) == -1) {
+                startPonderedAIMove(pondered, timeMillis);
+            } else {
+                ponderer.stop();
+                startAIMove(timeMillis);
+            }
+        }
+    }
+
+    /**
+     * Checks if the last move won or drew the game. If so, the game is over and the
+     * result is shown with the help of the view.
+     *
+     * @return true if the game is over
+     */
+    private boolean checkGameEnd() {
         winningMoves = model.gameWon();
         if (!winningMoves.isEmpty()) {
             state = GameState.GAME_OVER;
             int winner = model.getOpposingPlayer();
-            view.displayWinningMoves(winningMoves);
-            view.displayWinner(winner);
-            playMsg += String.format("Player %d won", winner);
-            logMessage(playMsg);
-            return;
+            render(rendered.withResult(winner, winningMoves));
+            logMessage(GameEvent.Type.RESULT, String.format("Player %d won", winner));
+            return true;
         }
         if (model.isGameOver()) {
             state = GameState.GAME_OVER;
-            view.displayWinner(0);
-            playMsg += "Game ended in a draw";
-            logMessage(playMsg);
-            return;
+            render(rendered.withResult(0, List.of()));
+            logMessage(GameEvent.Type.RESULT, "Game ended in a draw");
+            return true;
         }
-        } catch (InvalidMoveException e) {
-            logMessage(e.getMessage());
-            this.display();
-            return;
-        }
-        if (playWithAI) {
-                startAIThread();
-                this.position = DEFAULT_POSITION;
-                this.display();
-                winningMoves = model.gameWon();
-
-                if (!winningMoves.isEmpty()) {
-                    state = GameState.GAME_OVER;
-                    int winner = model.getOpposingPlayer();
-                    view.displayWinningMoves(winningMoves);
-                    view.displayWinner(winner);
-                    playMsg += String.format("Player %d won", winner);
-                    logMessage(playMsg);
-                    return;
-                }
-        }
-        this.position = DEFAULT_POSITION;
-        logMessage(playMsg);
-        this.display();
+        return false;
     }
 
     /**
      * with the help of the view, the current state of the board is displayed.
+     * The position is published first, so that the view and other readers get a snapshot that
+     * does not change while they draw or analyse it.
      */
     private void display() {
-        view.displayBoard(model.getBoard(), model.isPlayerTurn(), position);
+        display(null);
+    }
+
+    /**
+     * with the help of the view, the current state of the board is displayed, after a move was played.
+     *
+     * @param dropped the move just played, which the view lets drop into the board, or null
+     */
+    private void display(Move dropped) {
+        render(rendered.withBoard(model.publish(), position, dropped));
     }
 
     /**
@@ -241,9 +575,13 @@ public class VierGewinntController implements IVierGewinntController {
      * @param keyCode the code of the key pressed
      */
     @Override
-    public void handleKeyPressed(int keyCode) {
+    public synchronized void handleKeyPressed(int keyCode) {
         switch (state) {
             case GAME_STARTED -> {
+                if (playWithAI && !model.isPlayerTurn() && keyCode != PConstants.UP) {
+                    // the AI has not played its move yet
+                    return;
+                }
                 switch (keyCode) {
                     case PConstants.UP -> this.undo();
                     case PConstants.DOWN, PConstants.ENTER -> this.play(this.position);
@@ -257,7 +595,7 @@ public class VierGewinntController implements IVierGewinntController {
                 switch (keyCode) {
                     case 's' -> {
                         this.display();
-                        view.displayWinningMoves(winningMoves);
+                        render(rendered.withWinningMoves(winningMoves));
                     }
                     case PConstants.ENTER -> this.startScreen();
                     default -> { // do nothing
@@ -268,7 +606,7 @@ public class VierGewinntController implements IVierGewinntController {
                 switch (keyCode) {
                     case '1' -> this.simulateStart(false);
                     case '2' -> this.simulateStart(true);
-                    case '3' -> this.view.displayHelp();
+                    case '3' -> render(rendered.withScreen(RenderState.Screen.HELP));
                     default -> {// do nothing
                     }
                 }
@@ -278,52 +616,47 @@ public class VierGewinntController implements IVierGewinntController {
 
     /**
      * calculates and sets the position current player wants to set his coin for the
-     * next move. the position is always >= 0 and <=6
+     * next move. the position is always >= 0 and < the width of the board, moving
+     * past the last column wraps around to the first one and vice versa
      *
      * @param direction the direction to be moved -1 is left +1 is right
      */
     private void move(int direction) {
-        position += direction;
-        if (position == -1) {
-            position = 6;
-        }
-        if (position == 7) {
-            position = 0;
-        }
+        position = Math.floorMod(position + direction, model.getWidth());
         this.display();
     }
 
     /**
      * this reverts a move made.
      * if playing with AI, AI and player moves are reverted.
+     * if the AI has not played yet because its search was cancelled, only the player move is reverted.
      */
     private void undo() {
-        String msg = "";
+        // drop the move of a search still running for the position taken back, and stop it right away
+        aiRequest++;
+        ai.cancel();
+        ponderer.stop();
         try {
-            if (this.playWithAI) {
-                if (moves == 1) {
+            if (this.playWithAI && !model.isPlayerTurn()) {
+                logMessage(GameEvent.Type.UNDO, logUndoMove(model.undo()));
+            } else if (this.playWithAI) {
+                if (model.getMoveCount() == 1) {
                     // AI just started game.
                     try {
-                        msg += logUndoMove(model.undo());
-                        moves--;
-                        msg += model.playRandom();
-                        moves++;
+                        logMessage(GameEvent.Type.UNDO, logUndoMove(model.undo()));
+                        logMessage(GameEvent.Type.MOVE, logMove(model.playRandom()));
                     } catch (InvalidMoveException | NoMoreMovesException e) {
-                        logMessage(e.getMessage());
+                        logMessage(GameEvent.Type.ERROR, e.getMessage());
                     }
                 } else {
-                    msg += logUndoMove(model.undo());
-                    moves--;
-                    msg += logUndoMove(model.undo());
-                    moves--;
+                    logMessage(GameEvent.Type.UNDO, logUndoMove(model.undo()));
+                    logMessage(GameEvent.Type.UNDO, logUndoMove(model.undo()));
                 }
             } else {
-                msg += logUndoMove(model.undo());
-                moves--;
+                logMessage(GameEvent.Type.UNDO, logUndoMove(model.undo()));
             }
-            logMessage(msg);
         } catch (NoMoreUndoMovesException e) {
-            logMessage(e.getMessage());
+            logMessage(GameEvent.Type.ERROR, e.getMessage());
         }
         this.display();
     }
@@ -336,7 +669,7 @@ public class VierGewinntController implements IVierGewinntController {
      */
     private String logUndoMove(Move move) {
         String prevPlayerColor = this.model.isPlayerTurn() ? PLAYER2COLOR : PLAYER1COLOR;
-        return String.format("Player %s removed move %s%n", prevPlayerColor, move);
+        return String.format("Player %s removed move %s", prevPlayerColor, move);
     }
 }
 
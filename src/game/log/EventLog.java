@@ -0,0 +1,166 @@
+package game.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free ring buffer of the latest {@link GameEvent}s. Any number of threads may log and
+ * read at once; logging an event takes constant time and never waits for a reader.
+ * <p>
+ * Every event gets the next sequence number and is stored in the slot {@code sequence % capacity},
+ * replacing the event {@code capacity} places before it, so the memory used does not grow with
+ * the number of events. A reader that falls behind by more than the capacity loses the events
+ * overwritten meanwhile and is told how many.
+ */
+public class EventLog {
+
+    /**
+     * the default number of events kept
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * the latest events, at the index of their sequence number modulo the capacity
+     */
+    private final AtomicReferenceArray<GameEvent> slots;
+
+    /**
+     * the capacity less one, to find the slot of a sequence number
+     */
+    private final int mask;
+
+    /**
+     * the sequence number of the next event
+     */
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * Creates a log keeping the last {@value #DEFAULT_CAPACITY} events.
+     */
+    public EventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a log.
+     *
+     * @param capacity the number of events kept, a power of two
+     * @throws IllegalArgumentException if the capacity is not a power of two
+     */
+    public EventLog(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two but was " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds an event. Messages of several lines are logged as a single line.
+     *
+     * @param type    what kind of event it is
+     * @param message the message
+     * @return the event logged
+     */
+    public GameEvent log(GameEvent.Type type, String message) {
+        long sequence = next.getAndIncrement();
+        GameEvent event = new GameEvent(sequence, System.currentTimeMillis(), type, message.strip().replace('\n', ' '));
+        int index = (int) (sequence & mask);
+        GameEvent current;
+        do {
+            current = slots.get(index);
+            if (current != null && current.sequence() > sequence) {
+                // a newer event already took the slot while this thread was held up
+                return event;
+            }
+        } while (!slots.compareAndSet(index, current, event));
+        return event;
+    }
+
+    /**
+     * Returns the number of events logged so far, which is the sequence number of the next event.
+     *
+     * @return the number of events
+     */
+    public long size() {
+        return next.get();
+    }
+
+    /**
+     * Returns the number of events the log keeps.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the latest events, oldest first.
+     *
+     * @param count the most events to return
+     * @return up to {@code count} events, fewer if fewer were logged or some are still being written
+     */
+    public List<GameEvent> tail(int count) {
+        long end = next.get();
+        long start = Math.max(0, end - Math.min(count, capacity()));
+        List<GameEvent> events = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            GameEvent event = slots.get((int) (sequence & mask));
+            if (event != null && event.sequence() == sequence) {
+                events.add(event);
+            }
+        }
+        return List.copyOf(events);
+    }
+
+    /**
+     * Receives the events read from the log.
+     */
+    public interface Reader {
+
+        /**
+         * Called with every event read, in the order of the sequence numbers.
+         *
+         * @param event the event
+         */
+        void event(GameEvent event);
+
+        /**
+         * Called if events were overwritten before they could be read.
+         *
+         * @param count the number of events lost
+         */
+        void dropped(long count);
+    }
+
+    /**
+     * Reads the events from a sequence number on, as far as they are written.
+     *
+     * @param from   the sequence number of the first event to read
+     * @param reader receives the events
+     * @return the sequence number to continue reading from
+     */
+    public long read(long from, Reader reader) {
+        long end = next.get();
+        if (end - from > capacity()) {
+            reader.dropped(end - capacity() - from);
+            from = end - capacity();
+        }
+        for (long sequence = from; sequence < end; sequence++) {
+            GameEvent event = slots.get((int) (sequence & mask));
+            if (event == null || event.sequence() < sequence) {
+                // claimed but not written yet, read on from here next time
+                return sequence;
+            }
+            if (event.sequence() > sequence) {
+                reader.dropped(1);
+                continue;
+            }
+            reader.event(event);
+        }
+        return end;
+    }
+}
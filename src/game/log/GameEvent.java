@@ -0,0 +1,62 @@
+package game.log;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Something that happened in a game, as stored in an {@link EventLog}.
+ *
+ * @param sequence   the number of the event in its log, counting from 0
+ * @param timeMillis the time the event was logged, in milliseconds since the epoch
+ * @param type       what kind of event it is
+ * @param message    the message, a single line
+ */
+public record GameEvent(long sequence, long timeMillis, Type type, String message) {
+
+    /**
+     * the format of the time in {@link #format()}
+     */
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    /**
+     * The kinds of events.
+     */
+    public enum Type {
+        /**
+         * a move played by a player or the AI
+         */
+        MOVE,
+        /**
+         * a move taken back
+         */
+        UNDO,
+        /**
+         * how the AI found its move
+         */
+        AI,
+        /**
+         * the end of a game
+         */
+        RESULT,
+        /**
+         * anything else worth telling
+         */
+        INFO,
+        /**
+         * something that went wrong
+         */
+        ERROR
+    }
+
+    /**
+     * Formats the event as a line of a log file, e.g. {@code 12:03:44.120 MOVE Player RED played [0, 3]}.
+     *
+     * @return the line, without a line separator
+     */
+    public String format() {
+        LocalTime time = LocalTime.ofInstant(Instant.ofEpochMilli(timeMillis), ZoneId.systemDefault());
+        return TIME.format(time) + " " + type + " " + message;
+    }
+}
@@ -0,0 +1,128 @@
+package game.log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the events of an {@link EventLog} to the console, a file or any other {@link Writer} on
+ * a background thread, so that logging never waits for output.
+ * <p>
+ * Every {@value #FLUSH_MILLIS} ms the thread reads all events logged since its last round and
+ * writes them to every output in one batch, followed by a flush. Events logged less than that
+ * before the program ends may not be written. The outputs belong to the caller and are not closed.
+ */
+public final class LogWriter implements AutoCloseable {
+
+    /**
+     * the time between two batches, in milliseconds
+     */
+    static final long FLUSH_MILLIS = 100;
+
+    /**
+     * the log to write
+     */
+    private final EventLog log;
+
+    /**
+     * the outputs every batch is written to
+     */
+    private final List<Writer> outputs;
+
+    /**
+     * writes the batches
+     */
+    private final Thread thread;
+
+    /**
+     * the sequence number of the next event to write, only used while holding the lock of this writer
+     */
+    private long cursor;
+
+    /**
+     * the text of the batch being written, reused from batch to batch
+     */
+    private final StringBuilder batch = new StringBuilder();
+
+    /**
+     * adds the events read to the batch
+     */
+    private final EventLog.Reader appender = new EventLog.Reader() {
+        @Override
+        public void event(GameEvent event) {
+            batch.append(event.format()).append(System.lineSeparator());
+        }
+
+        @Override
+        public void dropped(long count) {
+            batch.append(count).append(" events dropped").append(System.lineSeparator());
+        }
+    };
+
+    /**
+     * false once the writer was closed
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Starts writing the events logged from now on.
+     *
+     * @param log     the log to write
+     * @param outputs the outputs to write the events to
+     */
+    public LogWriter(EventLog log, Writer... outputs) {
+        this.log = log;
+        this.outputs = List.of(outputs);
+        this.cursor = log.size();
+        this.thread = new Thread(this::run, "log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Writes batches until the writer is closed.
+     */
+    private void run() {
+        while (running) {
+            flush();
+            LockSupport.parkNanos(FLUSH_MILLIS * 1_000_000);
+        }
+    }
+
+    /**
+     * Writes all events logged so far and not written yet. Called by the background thread, but
+     * may be called by any thread to have the output up to date right away.
+     */
+    public synchronized void flush() {
+        cursor = log.read(cursor, appender);
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Writer output : outputs) {
+            try {
+                output.append(batch);
+                output.flush();
+            } catch (IOException e) {
+                // the other outputs still get the events
+                System.err.println("Log not written: " + e.getMessage());
+            }
+        }
+        batch.setLength(0);
+    }
+
+    /**
+     * Stops the background thread after writing the events logged so far.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
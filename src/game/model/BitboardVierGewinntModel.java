@@ -0,0 +1,578 @@
+package game.model;
+
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import game.model.exceptions.NoMoreUndoMovesException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * class BitboardVierGewinntModel
+ * <p>
+ * A {@link IVierGewinntModel} that stores the position in two {@code long} masks, one per player.
+ * Every column occupies {@code height + 1} bits of a mask (the extra bit is a sentinel that keeps
+ * shifted lines from wrapping into the next column), so playing, undoing, validating a move and
+ * testing for a win are constant time bit operations that do not allocate.
+ * A win is found by testing the precomputed lines through the slot played last (see {@link WinLines}),
+ * so the board may have any size that fits into a {@code long}, i.e. {@code width * (height + 1) <= 64},
+ * and any number of chips in a row may be needed to win. Larger boards need {@link VierGewinntModel}.
+ * The {@code int[][]} board used by the view is only built when {@link #getBoard()} is called.
+ */
+public class BitboardVierGewinntModel implements IVierGewinntModel {
+
+    /**
+     * the chips of player 1. bit {@code col * (height + 1) + row} is set if player 1 owns that slot.
+     */
+    private long player1Mask;
+
+    /**
+     * the chips of player 2. uses the same layout as {@code player1Mask}.
+     */
+    private long player2Mask;
+
+    /**
+     * the Zobrist hash of the position, updated by every move played or undone.
+     */
+    private long hash;
+
+    /**
+     * the number of chips in each column, i.e. the row of the next free slot.
+     */
+    private final int[] heights;
+
+    /**
+     * the columns whose top slot is taken, one bit per column.
+     */
+    private int fullColumns;
+
+    /**
+     * the columns of all moves played, in order. only the first {@code moveCount} entries are used.
+     */
+    private final int[] moves;
+
+    /**
+     * the number of moves played.
+     */
+    private int moveCount;
+
+    /**
+     * the height of the board
+     */
+    private final int height;
+
+    /**
+     * the width of the board
+     */
+    private final int width;
+
+    /**
+     * the number of chips in a row needed to win
+     */
+    private final int winLength;
+
+    /**
+     * the lines a player can win with, shared by all models of this geometry
+     */
+    private final WinLines lines;
+
+    /**
+     * is used to check if it is player 1's turn
+     */
+    private boolean isPlayerTurn;
+
+    /**
+     * needed to generate random numbers, created by the first random move.
+     */
+    private Random r;
+
+    /**
+     * the board handed out to the view, created by the first call of {@link #getBoard()}. it is
+     * rebuilt from the masks when {@code boardDirty} is set, so copies of the model never copy it.
+     */
+    private int[][] board;
+
+    /**
+     * true if the masks changed since {@code board} was last built.
+     */
+    private boolean boardDirty;
+
+    /**
+     * the snapshot published last.
+     */
+    private volatile Position position;
+
+    /**
+     * initialises the game as a 6*7 board on which four in a row win.
+     */
+    public BitboardVierGewinntModel() {
+        this(7, 6, 4);
+    }
+
+    /**
+     * initialises the game with a board of the given size.
+     *
+     * @param width     the number of columns, 1 to 16
+     * @param height    the number of rows, 1 to 16
+     * @param winLength the number of chips in a row needed to win, 1 to 16
+     * @throws IllegalArgumentException if the board is too large for a bitboard or a size is out of range
+     */
+    public BitboardVierGewinntModel(int width, int height, int winLength) {
+        Zobrist.checkGeometry(width, height, winLength);
+        if (width * (height + 1) > Long.SIZE) {
+            throw new IllegalArgumentException("A board of " + width + "x" + height
+                    + " does not fit into a bitboard, use VierGewinntModel instead");
+        }
+        this.height = height;
+        this.width = width;
+        this.winLength = winLength;
+        this.lines = WinLines.of(width, height, winLength);
+        this.heights = new int[width];
+        this.moves = new int[width * height];
+        this.isPlayerTurn = true;
+        this.position = new Position(width, height, winLength, new long[2], 0, true, hash);
+    }
+
+    /**
+     * initialises the game as a copy of another model.
+     *
+     * @param other the model to copy
+     */
+    private BitboardVierGewinntModel(BitboardVierGewinntModel other) {
+        this.player1Mask = other.player1Mask;
+        this.player2Mask = other.player2Mask;
+        this.hash = other.hash;
+        this.height = other.height;
+        this.width = other.width;
+        this.winLength = other.winLength;
+        this.lines = other.lines;
+        this.heights = other.heights.clone();
+        this.fullColumns = other.fullColumns;
+        this.moves = other.moves.clone();
+        this.moveCount = other.moveCount;
+        this.isPlayerTurn = other.isPlayerTurn;
+        this.position = other.position;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * checks if it is player 1s turn
+     *
+     * @return true if its player 1s turn
+     */
+    @Override
+    public boolean isPlayerTurn() {
+        return isPlayerTurn;
+    }
+
+    /**
+     * Returns the number of the player who is not to move, i.e. the player who played last.
+     */
+    @Override
+    public int getOpposingPlayer() {
+        return isPlayerTurn ? 2 : 1;
+    }
+
+    /**
+     * Builds the board from the masks if a move was played or undone since the last call.
+     *
+     * @return the game board
+     */
+    @Override
+    public int[][] getBoard() {
+        if (board == null) {
+            board = new int[height][width];
+            boardDirty = true;
+        }
+        if (boardDirty) {
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    long bit = bit(row, col);
+                    if ((player1Mask & bit) != 0) {
+                        board[row][col] = 1;
+                    } else if ((player2Mask & bit) != 0) {
+                        board[row][col] = 2;
+                    } else {
+                        board[row][col] = 0;
+                    }
+                }
+            }
+            boardDirty = false;
+        }
+        return board;
+    }
+
+    /**
+     * getter method for the Zobrist hash of the position
+     *
+     * @return the hash of the position
+     */
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the mask with the single bit of the slot at the given row and column set.
+     *
+     * @param row the row of the slot
+     * @param col the column of the slot
+     * @return the bit of the slot
+     */
+    private long bit(int row, int col) {
+        return 1L << (col * (height + 1) + row);
+    }
+
+    @Override
+    public long getMask(int player) {
+        return player == 1 ? player1Mask : player2Mask;
+    }
+
+    /**
+     * Checks if there is a slot free in a column for a move to be made.
+     *
+     * @param col the column to be validated
+     * @return true if the column exists and has an empty slot else false
+     */
+    @Override
+    public boolean isValidMove(int col) {
+        return col >= 0 && col < width && heights[col] < height;
+    }
+
+    /**
+     * plays a move by first checking if the move is a valid move.
+     * If this is not the case an {@code InvalidMoveException} is thrown
+     * After the move is played, the {@code isPlayerTurn} variable is toggled.
+     *
+     * @param col the column to play
+     * @return the move played consisting of the column of row.
+     * @throws InvalidMoveException if the move to be played is invalid.
+     */
+    @Override
+    public Move play(int col) throws InvalidMoveException {
+        if (!isValidMove(col)) {
+            throw new InvalidMoveException(col);
+        }
+        return Moves.toMove(playUnchecked(col));
+    }
+
+    @Override
+    public int getLegalMoves() {
+        return ~fullColumns & (1 << width) - 1;
+    }
+
+    @Override
+    public int tryPlay(int col) {
+        if (!isValidMove(col)) {
+            return Moves.INVALID;
+        }
+        int move = Moves.of(placeChip(col), col);
+        if (lastMoveWon()) {
+            move |= Moves.WIN;
+        }
+        if (isGameOver()) {
+            move |= Moves.FULL;
+        }
+        return move;
+    }
+
+    @Override
+    public int playUnchecked(int col) {
+        return Moves.of(placeChip(col), col);
+    }
+
+    /**
+     * Places a chip of the player to move in a column that is known to have a free slot
+     * and toggles the {@code isPlayerTurn} variable.
+     *
+     * @param col the column to play
+     * @return the row the chip landed in
+     */
+    private int placeChip(int col) {
+        int row = heights[col]++;
+        if (row == height - 1) {
+            fullColumns |= 1 << col;
+        }
+        if (isPlayerTurn) {
+            player1Mask |= bit(row, col);
+            hash ^= Zobrist.key(1, row, col);
+        } else {
+            player2Mask |= bit(row, col);
+            hash ^= Zobrist.key(2, row, col);
+        }
+        moves[moveCount++] = col;
+        isPlayerTurn = !isPlayerTurn;
+        boardDirty = true;
+        return row;
+    }
+
+    /**
+     * If there are any moves on the board, the most resent move is reverted.
+     */
+    @Override
+    public Move undo() throws NoMoreUndoMovesException {
+        if (moveCount == 0) {
+            throw new NoMoreUndoMovesException();
+        }
+        return Moves.toMove(undoUnchecked());
+    }
+
+    @Override
+    public int undoUnchecked() {
+        int col = moves[moveCount - 1];
+        return Moves.of(removeChip(), col);
+    }
+
+    /**
+     * Removes the chip of the last move played, which is known to exist, and toggles the
+     * {@code isPlayerTurn} variable.
+     *
+     * @return the row the chip was removed from
+     */
+    private int removeChip() {
+        int col = moves[--moveCount];
+        int row = --heights[col];
+        fullColumns &= ~(1 << col);
+        isPlayerTurn = !isPlayerTurn;
+        if (isPlayerTurn) {
+            player1Mask &= ~bit(row, col);
+            hash ^= Zobrist.key(1, row, col);
+        } else {
+            player2Mask &= ~bit(row, col);
+            hash ^= Zobrist.key(2, row, col);
+        }
+        boardDirty = true;
+        return row;
+    }
+
+    @Override
+    public Position getPosition() {
+        return position;
+    }
+
+    @Override
+    public Position publish() {
+        Position snapshot = new Position(width, height, winLength, new long[]{player1Mask, player2Mask}, moveCount,
+                isPlayerTurn, hash);
+        position = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Checks if there are no more playable slots on the board.
+     *
+     * @return true if there are no more available slots else false
+     */
+    @Override
+    public boolean isGameOver() {
+        return moveCount == width * height;
+    }
+
+    /**
+     * Returns the number of chips on the board.
+     *
+     * @return the number of moves played
+     */
+    @Override
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public int[] getMoves() {
+        return Arrays.copyOf(moves, moveCount);
+    }
+
+    /**
+     * Returns the bit index of the slot the last move was played into.
+     *
+     * @return the bit index of the last move, or -1 if no move was played
+     */
+    private int lastSlot() {
+        if (moveCount == 0) {
+            return -1;
+        }
+        int col = moves[moveCount - 1];
+        return col * (height + 1) + heights[col] - 1;
+    }
+
+    /**
+     * Checks if the previous player has won the game with the last move.
+     * Only the lines through the slot played last are tested.
+     *
+     * @return if game won, a list containing the winning moves is returned else an
+     * empty list is returned
+     */
+    @Override
+    public List<Move> gameWon() {
+        int slot = lastSlot();
+        long slots = slot == -1 ? 0 : lines.winningSlots(isPlayerTurn ? player2Mask : player1Mask, slot);
+        if (slots == 0) {
+            return Collections.emptyList();
+        }
+        List<Move> winningMoves = new ArrayList<>(Long.bitCount(slots));
+        while (slots != 0) {
+            int index = Long.numberOfTrailingZeros(slots);
+            winningMoves.add(new Move(index % (height + 1), index / (height + 1)));
+            slots &= slots - 1;
+        }
+        return winningMoves;
+    }
+
+    /**
+     * Checks if the last move won the game, without building the list of winning moves.
+     * For the usual four in a row, the whole mask is shifted onto itself in every direction, which
+     * is cheaper than testing the lines through the last slot one by one.
+     *
+     * @return true if the previous player has won
+     */
+    private boolean lastMoveWon() {
+        long mask = isPlayerTurn ? player2Mask : player1Mask;
+        if (winLength == 4) {
+            return isFourInARow(mask, 1) || isFourInARow(mask, height + 1)
+                    || isFourInARow(mask, height) || isFourInARow(mask, height + 2);
+        }
+        int slot = lastSlot();
+        return slot != -1 && lines.isWin(mask, slot);
+    }
+
+    /**
+     * Checks if the given mask contains four chips in a row in one direction.
+     * The mask is shifted onto itself so that a bit survives only if the next three slots in that
+     * direction are set as well.
+     *
+     * @param mask  the chips of one player
+     * @param shift the distance between two neighbouring slots of the direction
+     * @return true if there is a line of four
+     */
+    private static boolean isFourInARow(long mask, int shift) {
+        long pairs = mask & (mask >>> shift);
+        return (pairs & (pairs >>> (2 * shift))) != 0;
+    }
+
+    /**
+     * Counts the columns with at least one free slot.
+     *
+     * @return the number of valid moves
+     */
+    private int countValidMoves() {
+        return width - Integer.bitCount(fullColumns);
+    }
+
+    /**
+     * Returns the column of the n-th valid move, counting from the left.
+     *
+     * @param n the index of the valid move, less than {@link #countValidMoves()}
+     * @return the column of the valid move
+     */
+    private int nthValidMove(int n) {
+        for (int col = 0; col < width; col++) {
+            if (heights[col] < height && n-- == 0) {
+                return col;
+            }
+        }
+        throw new IllegalArgumentException("There are less than " + n + " valid moves");
+    }
+
+    /**
+     * This chooses a column with at least one free slot at random and plays it.
+     *
+     * @return the random move played
+     * @throws InvalidMoveException if the move chosen at random is invalid
+     * @throws NoMoreMovesException if there are no available moves to play.
+     */
+    @Override
+    public Move playRandom() throws InvalidMoveException, NoMoreMovesException {
+        int validMoves = countValidMoves();
+        if (validMoves == 0) {
+            throw new NoMoreMovesException();
+        }
+        if (r == null) {
+            r = new Random();
+        }
+        return this.play(nthValidMove(r.nextInt(validMoves)));
+    }
+
+    /**
+     * Plays random moves until the game is won or the board is full and then takes them back.
+     * Only the masks, heights and move stack change on the way, nothing is allocated.
+     *
+     * @param random the random number generator to choose the columns with
+     * @return the winning player, or 0 if the game ends in a draw
+     */
+    @Override
+    public int playout(RandomGenerator random) {
+        int start = moveCount;
+        int winner = lastMoveWon() ? getOpposingPlayer() : -1;
+        while (winner == -1) {
+            int validMoves = countValidMoves();
+            if (validMoves == 0) {
+                winner = 0;
+                break;
+            }
+            placeChip(nthValidMove(random.nextInt(validMoves)));
+            if (lastMoveWon()) {
+                winner = getOpposingPlayer();
+            }
+        }
+        while (moveCount > start) {
+            removeChip();
+        }
+        return winner;
+    }
+
+    /**
+     * Creates an independent copy of the model. Only the masks, heights and move stack are copied;
+     * the board of the copy is built when it is first asked for.
+     *
+     * @return the copy of the model
+     */
+    @Override
+    public BitboardVierGewinntModel fork() {
+        return new BitboardVierGewinntModel(this);
+    }
+
+    /**
+     * Copies the masks, heights and move stack of another model of the same size into this one.
+     * The board is rebuilt when it is next asked for.
+     *
+     * @param other the model to copy
+     * @return true if the model was copied, false if the other model is not a bitboard model of this size
+     */
+    @Override
+    public boolean copyFrom(IVierGewinntModel other) {
+        if (!(other instanceof BitboardVierGewinntModel source) || source.width != width
+                || source.height != height || source.winLength != winLength) {
+            return false;
+        }
+        this.player1Mask = source.player1Mask;
+        this.player2Mask = source.player2Mask;
+        this.hash = source.hash;
+        System.arraycopy(source.heights, 0, heights, 0, width);
+        this.fullColumns = source.fullColumns;
+        System.arraycopy(source.moves, 0, moves, 0, source.moveCount);
+        this.moveCount = source.moveCount;
+        this.isPlayerTurn = source.isPlayerTurn;
+        this.boardDirty = true;
+        this.position = source.position;
+        return true;
+    }
+}
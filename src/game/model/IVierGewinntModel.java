@@ -5,6 +5,7 @@ import game.model.exceptions.NoMoreMovesException;
 import game.model.exceptions.NoMoreUndoMovesException;
 
 import java.util.List;
+import java.util.random.RandomGenerator;
 /**
  * Interface representing the model of a "Vier Gewinnt" (Connect Four) game.
  * Implementations of this interface are responsible for managing the game state and logic.
@@ -32,6 +33,81 @@ public interface IVierGewinntModel {
          */
         int[][] getBoard();
 
+        /**
+         * Retrieves the number of columns of the game board.
+         *
+         * @return The width of the board.
+         */
+        int getWidth();
+
+        /**
+         * Retrieves the number of rows of the game board.
+         *
+         * @return The height of the board.
+         */
+        int getHeight();
+
+        /**
+         * Retrieves the number of chips in a row a player needs to win the game.
+         *
+         * @return The win length, 4 in the standard game.
+         */
+        int getWinLength();
+
+        /**
+         * Checks if a chip can be played in the specified column.
+         *
+         * @param col The column to be checked.
+         * @return `true` if the column exists and has a free slot, `false` otherwise.
+         */
+        boolean isValidMove(int col);
+
+        /**
+         * Retrieves the columns that can be played, one bit per column.
+         *
+         * @return The mask of the columns with a free slot, bit 0 for column 0.
+         */
+        int getLegalMoves();
+
+        /**
+         * Retrieves the Zobrist hash of the current position.
+         * The hash is maintained incrementally by `play` and `undo` and is the same for equal
+         * positions, regardless of the order in which the moves were played or of the implementation.
+         *
+         * @return The hash of the position.
+         */
+        long getHash();
+
+        /**
+         * Retrieves the chips of a player on a board that fits one `long`, in the layout of
+         * {@link Position}: bit `col * (height + 1) + row`, with row 0 at the bottom.
+         * Reading the chips this way costs no copy, so evaluators can use it at every node of a search.
+         *
+         * @param player The player, 1 or 2.
+         * @return The chips of the player.
+         * @throws IllegalStateException if the board needs more than 64 bits.
+         */
+        long getMask(int player);
+
+        /**
+         * Takes an immutable snapshot of the current position and publishes it, so that
+         * {@link #getPosition()} hands it to every thread from now on. The model itself may only be
+         * used by one thread at a time; that thread publishes the position after every move readers
+         * should see. Moves played during a search are not published, so they cost nothing extra.
+         *
+         * @return The snapshot of the current position.
+         */
+        Position publish();
+
+        /**
+         * Retrieves the snapshot of the position published last, or of the starting position if
+         * nothing was published yet. Unlike the model itself it may be read by any thread without
+         * locks: readers see the position of one {@link #publish()}, never one in between moves.
+         *
+         * @return The snapshot published last.
+         */
+        Position getPosition();
+
         /**
          * Attempts to play a move in the specified column.
          *
@@ -50,12 +126,53 @@ public interface IVierGewinntModel {
         Move undo() throws NoMoreUndoMovesException;
 
         /**
-         * Checks if the game is over.
+         * Plays a move if the column can be played, without throwing or allocating.
+         *
+         * @param col The column in which the move should be played.
+         * @return The move packed by {@link Moves}, with the flags `WIN` and `FULL` set if the move
+         * won the game or filled the board, or {@link Moves#INVALID} if the column cannot be played.
+         */
+        int tryPlay(int col);
+
+        /**
+         * Plays a move in a column that is known to have a free slot, without any checks.
+         * Playing a full column or one that does not exist leaves the model broken.
+         *
+         * @param col The column in which the move should be played.
+         * @return The move played, packed by {@link Moves}.
+         */
+        int playUnchecked(int col);
+
+        /**
+         * Undoes the last move played, which is known to exist, without any checks.
+         *
+         * @return The move undone, packed by {@link Moves}.
+         */
+        int undoUnchecked();
+
+        /**
+         * Checks if the game is over because the board is full.
+         * Implementations keep track of this while moves are played and undone, so the check takes
+         * constant time.
          *
          * @return `true` if the game is over, `false` otherwise.
          */
         boolean isGameOver();
 
+        /**
+         * Returns the number of chips on the board, which is the number of moves played and not undone.
+         *
+         * @return The number of moves played.
+         */
+        int getMoveCount();
+
+        /**
+         * Retrieves the columns of all moves played and not undone, in the order they were played.
+         *
+         * @return A new array of {@link #getMoveCount()} columns.
+         */
+        int[] getMoves();
+
         /**
          * Determines the list of moves that resulted in a winning combination.
          *
@@ -71,4 +188,34 @@ public interface IVierGewinntModel {
          * @throws NoMoreMovesException If there are no more valid moves left.
          */
         Move playRandom() throws InvalidMoveException, NoMoreMovesException;
+
+        /**
+         * Plays random moves until the game is won or the board is full, then takes all of them back.
+         * Unlike `playRandom`, this does not allocate, so it can be called millions of times by a
+         * Monte Carlo search. Every thread should pass its own random number generator.
+         *
+         * @param random The random number generator to choose the columns with.
+         * @return The winning player (1 or 2), or 0 if the game ends in a draw.
+         */
+        int playout(RandomGenerator random);
+
+        /**
+         * Creates an independent copy of the model, holding the same position and move history.
+         * Moves played or undone on the copy do not affect this model and vice versa, so copies
+         * can be handed to other threads.
+         *
+         * @return The copy of the model.
+         */
+        IVierGewinntModel fork();
+
+        /**
+         * Sets this model to the position and move history of another model, copying into the memory
+         * of this model instead of allocating a new one. Only models of the same implementation and
+         * board size can be copied, which is what {@link ModelPool} relies on to reuse models.
+         *
+         * @param other The model to copy, which is not changed.
+         * @return `true` if the model was copied, `false` if the other model is of another kind or size,
+         * in which case this model is unchanged.
+         */
+        boolean copyFrom(IVierGewinntModel other);
 }
@@ -0,0 +1,85 @@
+package game.model;
+
+import java.util.ArrayDeque;
+
+/**
+ * Hands out private copies of models and takes them back for reuse, so that searches and
+ * simulators that copy positions over and over do not allocate a new model every time.
+ * <p>
+ * Every thread has its own free list, so acquiring and releasing takes no locks. A model may be
+ * released on another thread than the one that acquired it; it is then reused by that thread.
+ * A released model is only reused for a position of the same implementation and board size;
+ * otherwise it is dropped and a new copy is made with {@link IVierGewinntModel#fork()}.
+ */
+public class ModelPool {
+
+    /**
+     * the default number of free models kept per thread
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * the number of free models kept per thread, models released beyond it are left to the garbage collector
+     */
+    private final int capacity;
+
+    /**
+     * the free models of every thread
+     */
+    private final ThreadLocal<ArrayDeque<IVierGewinntModel>> free = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Creates a pool keeping up to {@value #DEFAULT_CAPACITY} free models per thread.
+     */
+    public ModelPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param capacity the number of free models kept per thread
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public ModelPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns an independent copy of a model, reusing a released model if possible.
+     *
+     * @param position the model to copy, which is not changed
+     * @return a model holding the same position and move history, owned by the caller until it is released
+     */
+    public IVierGewinntModel acquire(IVierGewinntModel position) {
+        IVierGewinntModel model = free.get().pollLast();
+        if (model != null && model.copyFrom(position)) {
+            return model;
+        }
+        return position.fork();
+    }
+
+    /**
+     * Gives a model back to the pool. The caller must not use the model afterwards.
+     *
+     * @param model a model acquired from this pool or created elsewhere
+     */
+    public void release(IVierGewinntModel model) {
+        ArrayDeque<IVierGewinntModel> models = free.get();
+        if (models.size() < capacity) {
+            models.addLast(model);
+        }
+    }
+
+    /**
+     * Returns the number of free models kept for the calling thread.
+     *
+     * @return the number of models ready for reuse
+     */
+    public int available() {
+        return free.get().size();
+    }
+}
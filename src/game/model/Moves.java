@@ -0,0 +1,114 @@
+package game.model;
+
+/**
+ * Packs moves into a single {@code int}, as returned by the low-level move methods of
+ * {@link IVierGewinntModel}, so that engines can play and take back moves without allocating.
+ * <p>
+ * The column is kept in bits 0 to 7 and the row in bits 8 to 15. {@link IVierGewinntModel#tryPlay(int)}
+ * adds the flags {@link #WIN} and {@link #FULL} above them, and returns {@link #INVALID} for a
+ * column that cannot be played.
+ */
+public final class Moves {
+
+    /**
+     * returned for a column that does not exist or is full
+     */
+    public static final int INVALID = -1;
+
+    /**
+     * set if the move won the game for the player who made it
+     */
+    public static final int WIN = 1 << 16;
+
+    /**
+     * set if the move took the last free slot of the board
+     */
+    public static final int FULL = 1 << 17;
+
+    private Moves() {
+    }
+
+    /**
+     * Packs a move without any flags.
+     *
+     * @param row the row of the move, 0 to 255
+     * @param col the column of the move, 0 to 255
+     * @return the packed move
+     */
+    public static int of(int row, int col) {
+        return row << 8 | col;
+    }
+
+    /**
+     * Returns the row of a packed move.
+     *
+     * @param move a valid packed move
+     * @return the row
+     */
+    public static int row(int move) {
+        return move >>> 8 & 0xFF;
+    }
+
+    /**
+     * Returns the column of a packed move.
+     *
+     * @param move a valid packed move
+     * @return the column
+     */
+    public static int column(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * Checks if a packed move was played.
+     *
+     * @param move the packed move
+     * @return false for {@link #INVALID}
+     */
+    public static boolean isValid(int move) {
+        return move != INVALID;
+    }
+
+    /**
+     * Checks if a packed move won the game.
+     *
+     * @param move the packed move
+     * @return true if the {@link #WIN} flag is set
+     */
+    public static boolean isWin(int move) {
+        return move != INVALID && (move & WIN) != 0;
+    }
+
+    /**
+     * Checks if a packed move filled the board.
+     *
+     * @param move the packed move
+     * @return true if the {@link #FULL} flag is set
+     */
+    public static boolean isFull(int move) {
+        return move != INVALID && (move & FULL) != 0;
+    }
+
+    /**
+     * Unpacks a move.
+     *
+     * @param move a valid packed move
+     * @return the move as a record
+     */
+    public static Move toMove(int move) {
+        return new Move(row(move), column(move));
+    }
+
+    /**
+     * Returns a string representation of a packed move, such as {@code [2, 3] win}.
+     *
+     * @param move the packed move
+     * @return the string representation
+     */
+    public static String toString(int move) {
+        if (move == INVALID) {
+            return "invalid";
+        }
+        return toMove(move) + (isWin(move) ? " win" : "") + (isFull(move) ? " full" : "");
+    }
+}
@@ -0,0 +1,190 @@
+package game.model;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of a position: the chips of both players as packed bits, the player to
+ * move and the number of moves played. Models publish a new snapshot after every move and undo
+ * (see {@link IVierGewinntModel#getPosition()}), so views and analysis threads can read a
+ * consistent position at any time without locking the model and without copying its board.
+ * <p>
+ * The chips are kept in the layout of {@link BitboardVierGewinntModel}: bit
+ * {@code col * (height + 1) + row} stands for a slot, with row 0 at the bottom, spread over as
+ * many {@code long}s as the board needs.
+ */
+public final class Position {
+
+    private final int width;
+    private final int height;
+    private final int winLength;
+
+    /**
+     * the chips of player 1, followed by those of player 2, each {@code words} longs
+     */
+    private final long[] chips;
+
+    /**
+     * the number of longs per player
+     */
+    private final int words;
+
+    /**
+     * the number of moves played
+     */
+    private final int ply;
+
+    /**
+     * true if player 1 is to move
+     */
+    private final boolean playerTurn;
+
+    /**
+     * the Zobrist hash of the position
+     */
+    private final long hash;
+
+    /**
+     * Creates a snapshot. The array is owned by the snapshot afterwards and must not be changed.
+     *
+     * @param width      the number of columns
+     * @param height     the number of rows
+     * @param winLength  the number of chips in a row needed to win
+     * @param chips      the chips of player 1 followed by those of player 2, see {@link #words(int, int)}
+     * @param ply        the number of moves played
+     * @param playerTurn true if player 1 is to move
+     * @param hash       the Zobrist hash of the position
+     */
+    Position(int width, int height, int winLength, long[] chips, int ply, boolean playerTurn, long hash) {
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        this.chips = chips;
+        this.words = chips.length / 2;
+        this.ply = ply;
+        this.playerTurn = playerTurn;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the number of longs needed for the chips of one player.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @return the number of longs per player
+     */
+    static int words(int width, int height) {
+        return (width * (height + 1) + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Returns the number of moves played, which is also the number of chips on the board.
+     *
+     * @return the number of moves played
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Checks whose turn it is.
+     *
+     * @return true if player 1 is to move
+     */
+    public boolean isPlayerTurn() {
+        return playerTurn;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position, the same as {@link IVierGewinntModel#getHash()}.
+     *
+     * @return the hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the owner of a slot.
+     *
+     * @param row the row, 0 at the bottom
+     * @param col the column
+     * @return 1 or 2 for the player owning the slot, 0 if it is empty
+     */
+    public int get(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            throw new IndexOutOfBoundsException("No slot at row " + row + ", column " + col);
+        }
+        int index = col * (height + 1) + row;
+        long bit = 1L << index;
+        int word = index / Long.SIZE;
+        if ((chips[word] & bit) != 0) {
+            return 1;
+        }
+        return (chips[words + word] & bit) != 0 ? 2 : 0;
+    }
+
+    /**
+     * Returns the chips of a player on a board that fits one {@code long}.
+     *
+     * @param player 1 or 2
+     * @return the chips of the player in the layout of {@link BitboardVierGewinntModel}
+     * @throws IllegalStateException if the board needs more than one long
+     */
+    public long getMask(int player) {
+        if (words != 1) {
+            throw new IllegalStateException("A board of " + width + "x" + height + " does not fit into a long");
+        }
+        return chips[player - 1];
+    }
+
+    /**
+     * Builds a board as returned by {@link IVierGewinntModel#getBoard()}. Every call returns a new array.
+     *
+     * @return the owner of every slot, indexed by row and column
+     */
+    public int[][] toBoard() {
+        int[][] board = new int[height][width];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                board[row][col] = get(row, col);
+            }
+        }
+        return board;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Position other && width == other.width && height == other.height
+                && winLength == other.winLength && ply == other.ply && playerTurn == other.playerTurn
+                && Arrays.equals(chips, other.chips);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int row = height - 1; row >= 0; row--) {
+            for (int col = 0; col < width; col++) {
+                text.append(".XO".charAt(get(row, col)));
+            }
+            text.append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+}
@@ -5,8 +5,11 @@ import game.model.exceptions.NoMoreMovesException;
 import game.model.exceptions.NoMoreUndoMovesException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * class ConnectFourModel
@@ -14,10 +17,21 @@ import java.util.Random;
 public class VierGewinntModel implements IVierGewinntModel {
 
     /**
-     * the game board. contains all the moves played.
+     * the row and column steps of the horizontal, vertical, ascending and descending lines.
      */
-    private final int[][] board;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
 
+    /**
+     * the board handed out by {@link #getBoard()}, created by its first call. it is rebuilt from
+     * {@code chips} when {@code boardDirty} is set, so copies of the model never copy it.
+     */
+    private int[][] board;
+    /**
+     * true if the chips changed since {@code board} was last built.
+     */
+    private boolean boardDirty;
+
+    @Override
     public int getHeight() {
         return height;
     }
@@ -27,6 +41,7 @@ public class VierGewinntModel implements IVierGewinntModel {
      */
     private final int height;
 
+    @Override
     public int getWidth() {
         return width;
     }
@@ -35,28 +50,108 @@ public class VierGewinntModel implements IVierGewinntModel {
      * the width of the board
      */
     private final int width;
+
+    @Override
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * the number of chips in a row needed to win
+     */
+    private final int winLength;
     /**
      * is used to check if it is player 1's turn
      */
     private boolean isPlayerTurn; // 1
     /**
-     * needed to generate random numbers.
+     * needed to generate random numbers, created by the first random move.
+     */
+    private Random r;
+    /**
+     * the columns of all moves played, in order. only the first {@code moveCount} entries are used.
+     */
+    private final int[] moves;
+    /**
+     * the number of moves played.
+     */
+    private int moveCount;
+    /**
+     * the result of the last call to {@code gameWon}, null if a move was played or undone since.
+     */
+    private List<Move> winningMoves;
+    /**
+     * the Zobrist hash of the position, updated by every move played or undone.
+     */
+    private long hash;
+    /**
+     * the columns whose top slot is taken, one bit per column, updated by every move played or undone.
      */
-    private final Random r = new Random();
+    private int fullColumns;
     /**
-     * contains all moves played.
+     * the number of chips in every column, updated by every move played or undone.
      */
-    private final List<Integer> moves;
+    private final int[] heights;
+    /**
+     * the chips of both players in the layout of {@link Position}, updated by every move played or undone.
+     */
+    private final long[] chips;
+    /**
+     * the lines a player can win with, shared by all models of this size.
+     */
+    private final WinLines lines;
+    /**
+     * the snapshot published last.
+     */
+    private volatile Position position;
 
     /**
-     * initialises the game as a 6*7 board.
+     * initialises the game as a 6*7 board on which four in a row win.
      */
     public VierGewinntModel() {
-        moves = new ArrayList<>();
-        this.height = 6;
-        this.width = 7;
-        this.board = new int[height][width];
+        this(7, 6, 4);
+    }
+
+    /**
+     * initialises the game with a board of the given size.
+     *
+     * @param width     the number of columns, 1 to 16
+     * @param height    the number of rows, 1 to 16
+     * @param winLength the number of chips in a row needed to win, 1 to 16
+     * @throws IllegalArgumentException if a size is out of range
+     */
+    public VierGewinntModel(int width, int height, int winLength) {
+        Zobrist.checkGeometry(width, height, winLength);
+        moves = new int[width * height];
+        this.height = height;
+        this.width = width;
+        this.winLength = winLength;
         this.isPlayerTurn = true;
+        this.heights = new int[width];
+        this.chips = new long[2 * Position.words(width, height)];
+        this.lines = WinLines.of(width, height, winLength);
+        this.position = new Position(width, height, winLength, chips.clone(), 0, true, hash);
+    }
+
+    /**
+     * initialises the game as a copy of another model.
+     *
+     * @param other the model to copy
+     */
+    private VierGewinntModel(VierGewinntModel other) {
+        this.moves = other.moves.clone();
+        this.moveCount = other.moveCount;
+        this.height = other.height;
+        this.width = other.width;
+        this.winLength = other.winLength;
+        this.isPlayerTurn = other.isPlayerTurn;
+        this.winningMoves = other.winningMoves;
+        this.hash = other.hash;
+        this.fullColumns = other.fullColumns;
+        this.heights = other.heights.clone();
+        this.chips = other.chips.clone();
+        this.lines = other.lines;
+        this.position = other.position;
     }
 
     /**
@@ -79,25 +174,72 @@ public class VierGewinntModel implements IVierGewinntModel {
     }
 
     /**
-     * getter method for board
+     * Builds the board from the chips if a move was played or undone since the last call.
      *
      * @return the game board
      */
     @Override
     public int[][] getBoard() {
+        if (board == null) {
+            board = new int[height][width];
+            boardDirty = true;
+        }
+        if (boardDirty) {
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    board[row][col] = owner(row, col);
+                }
+            }
+            boardDirty = false;
+        }
         return board;
     }
 
+    /**
+     * Returns the player owning a slot.
+     *
+     * @param row the row of the slot
+     * @param col the column of the slot
+     * @return 1 or 2 for the owner, 0 if the slot is empty
+     */
+    private int owner(int row, int col) {
+        int index = col * (height + 1) + row;
+        long bit = 1L << index;
+        if ((chips[index / Long.SIZE] & bit) != 0) {
+            return 1;
+        }
+        return (chips[chipsOffset(2) + index / Long.SIZE] & bit) != 0 ? 2 : 0;
+    }
+
+    /**
+     * getter method for the Zobrist hash of the position
+     *
+     * @return the hash of the position
+     */
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public long getMask(int player) {
+        if (chips.length != 2) {
+            throw new IllegalStateException("A board of " + width + "x" + height + " does not fit into a long");
+        }
+        return chips[player - 1];
+    }
+
     /**
      * Checks if there is a slot free in a column for a move to be made.
      * If there is a slot free, it means that a player can be able to place a "chip"
      * in that column
      *
      * @param col the column to be validated
-     * @return true if the column has an empty slot else false
+     * @return true if the column exists and has an empty slot else false
      */
-    private boolean isValidMove(int col) {
-        return this.board[5][col] == 0;
+    @Override
+    public boolean isValidMove(int col) {
+        return col >= 0 && col < width && (fullColumns & (1 << col)) == 0;
     }
 
     /**
@@ -111,21 +253,58 @@ public class VierGewinntModel implements IVierGewinntModel {
      */
     @Override
     public Move play(int col) throws InvalidMoveException {
-        if (col >= width) {
+        if (!this.isValidMove(col)) {
             throw new InvalidMoveException(col);
         }
-        int row = this.findFreeSlot(col);
-        if (row == -1) {
-            throw new InvalidMoveException(col);
+        return Moves.toMove(playUnchecked(col));
+    }
+
+    @Override
+    public int getLegalMoves() {
+        return ~fullColumns & (1 << width) - 1;
+    }
+
+    @Override
+    public int tryPlay(int col) {
+        if (!this.isValidMove(col)) {
+            return Moves.INVALID;
+        }
+        int row = placeChip(col);
+        int move = Moves.of(row, col);
+        if (isWinningMove(row, col)) {
+            move |= Moves.WIN;
         }
-        moves.add(col);
-        if (this.isPlayerTurn) {
-            this.board[row][col] = 1;
-        } else {
-            this.board[row][col] = 2;
+        if (isGameOver()) {
+            move |= Moves.FULL;
+        }
+        return move;
+    }
+
+    @Override
+    public int playUnchecked(int col) {
+        return Moves.of(placeChip(col), col);
+    }
+
+    /**
+     * Places a chip of the player to move in a column that is known to have a free slot
+     * and toggles the {@code isPlayerTurn} variable.
+     *
+     * @param col the column to play
+     * @return the row the chip landed in
+     */
+    private int placeChip(int col) {
+        int row = heights[col]++;
+        moves[moveCount++] = col;
+        winningMoves = null;
+        int player = this.isPlayerTurn ? 1 : 2;
+        this.hash ^= Zobrist.key(player, row, col);
+        toggleChip(player, row, col);
+        boardDirty = true;
+        if (row == height - 1) {
+            fullColumns |= 1 << col;
         }
         this.isPlayerTurn = !this.isPlayerTurn;
-        return new Move(row, col);
+        return row;
     }
 
     /**
@@ -133,100 +312,123 @@ public class VierGewinntModel implements IVierGewinntModel {
      */
     @Override
     public Move undo() throws NoMoreUndoMovesException {
-        if (!this.moves.isEmpty()) {
-            int lastMovePosition = this.moves.size() - 1;
-            int lastColumnPlayed = moves.get(lastMovePosition); // col 0
-            int freeSlot = findFreeSlot(lastColumnPlayed);
-            int prevRow = freeSlot == -1 ? 5 : freeSlot - 1;
-            this.board[prevRow][lastColumnPlayed] = 0;
-            this.moves.remove(lastMovePosition);
-            this.isPlayerTurn = !this.isPlayerTurn;
-            return new Move(prevRow, lastColumnPlayed);
+        if (moveCount == 0) {
+            throw new NoMoreUndoMovesException();
         }
-        throw new NoMoreUndoMovesException();
+        return Moves.toMove(undoUnchecked());
+    }
+
+    @Override
+    public int undoUnchecked() {
+        int lastColumnPlayed = moves[moveCount - 1];
+        return Moves.of(removeChip(), lastColumnPlayed);
     }
 
     /**
-     * Checks a column and returns a playable free slot position.
+     * Removes the chip of the last move played, which is known to exist, and toggles the
+     * {@code isPlayerTurn} variable.
      *
-     * @param col the column to be checked
-     * @return a free slot position in a column if none is available, -1 is returned.
+     * @return the row the chip was removed from
      */
-    private int findFreeSlot(int col) {
-        for (int i = 0; i < board.length; i++) {
-            if (board[i][col] == 0) {
-                return i;
-            }
-        }
-        return -1;
+    private int removeChip() {
+        int lastColumnPlayed = moves[--moveCount];
+        int prevRow = --heights[lastColumnPlayed];
+        int player = getOpposingPlayer();
+        this.hash ^= Zobrist.key(player, prevRow, lastColumnPlayed);
+        toggleChip(player, prevRow, lastColumnPlayed);
+        boardDirty = true;
+        this.fullColumns &= ~(1 << lastColumnPlayed);
+        this.winningMoves = null;
+        this.isPlayerTurn = !this.isPlayerTurn;
+        return prevRow;
+    }
+
+    /**
+     * Sets or clears the bit of a slot in the chips of a player.
+     *
+     * @param player the player owning the slot, 1 or 2
+     * @param row    the row of the slot
+     * @param col    the column of the slot
+     */
+    private void toggleChip(int player, int row, int col) {
+        int index = col * (height + 1) + row;
+        chips[chipsOffset(player) + index / Long.SIZE] ^= 1L << index;
     }
 
     /**
-     * Checks if there are no more playable slots on the board.
+     * Returns the index of the first long of the chips of a player.
+     *
+     * @param player the player, 1 or 2
+     * @return the index in {@code chips}
+     */
+    private int chipsOffset(int player) {
+        return (player - 1) * (chips.length / 2);
+    }
+
+    @Override
+    public Position getPosition() {
+        return position;
+    }
+
+    @Override
+    public Position publish() {
+        Position snapshot = new Position(width, height, winLength, chips.clone(), moveCount, isPlayerTurn, hash);
+        position = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Checks if there are no more playable slots on the board, which is the case when the top
+     * slot of every column is taken.
      *
      * @return true if there are no more available slots else false
      */
     @Override
     public boolean isGameOver() {
-        for (int[] rows : board) {
-            if (rows[height] == 0) {
-                return false;
-            }
-        }
-        return true;
+        return fullColumns == (1 << width) - 1;
     }
 
     /**
-     * Checks diagonally in ascending position if the previous player (player that
-     * just played) has won the game
+     * Returns the number of chips on the board.
      *
-     * @return an empty list if there are no winning positions else a list
-     * containing the winning moves.
+     * @return the number of moves played
      */
-    private List<Move> checkDescendingDiagonal() {
-        int previousPlayer = this.getOpposingPlayer();
-        List<Move> winningMoves = new ArrayList<>();
-        for (int i = 3; i < height; i++) {
-            for (int j = 0; j < width - 3; j++) {
-                if (this.board[i][j] == previousPlayer) {
-                    if (this.board[i - 1][j + 1] == previousPlayer) {
-                        if (this.board[i - 2][j + 2] == previousPlayer) {
-                            if (this.board[i - 3][j + 3] == previousPlayer) {
-                                winningMoves.add(new Move(i, j));
-                                winningMoves.add(new Move(i - 1, j + 1));
-                                winningMoves.add(new Move(i - 2, j + 2));
-                                winningMoves.add(new Move(i - 3, j + 3));
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return winningMoves;
+    @Override
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public int[] getMoves() {
+        return Arrays.copyOf(moves, moveCount);
     }
 
     /**
-     * Checks diagonally in descending position if the previous player (player that
-     * just played) has won the game
+     * Checks all lines of one direction if the previous player (player that
+     * just played) has {@code winLength} chips in a row
      *
-     * @return an empty list if there is no winning positions else a list
+     * @param rowDir the row step of the direction
+     * @param colDir the column step of the direction
+     * @return an empty list if there are no winning positions else a list
      * containing the winning moves.
      */
-    private List<Move> checkAscendingDiagonal() {
+    private List<Move> checkDirection(int rowDir, int colDir) {
         int previousPlayer = this.getOpposingPlayer();
         List<Move> winningMoves = new ArrayList<>();
-        for (int i = 3; i < height; i++) {
-            for (int j = 3; j < width; j++) {
-                if (this.board[i][j] == previousPlayer) {
-                    if (this.board[i - 1][j - 1] == previousPlayer) {
-                        if (this.board[i - 2][j - 2] == previousPlayer) {
-                            if (this.board[i - 3][j - 3] == previousPlayer) {
-                                winningMoves.add(new Move(i, j));
-                                winningMoves.add(new Move(i - 1, j - 1));
-                                winningMoves.add(new Move(i - 2, j - 2));
-                                winningMoves.add(new Move(i - 3, j - 3));
-                            }
-                        }
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                int endRow = i + (winLength - 1) * rowDir;
+                int endCol = j + (winLength - 1) * colDir;
+                if (endRow < 0 || endRow >= height || endCol < 0 || endCol >= width) {
+                    continue;
+                }
+                int inRow = 0;
+                while (inRow < winLength && owner(i + inRow * rowDir, j + inRow * colDir) == previousPlayer) {
+                    inRow++;
+                }
+                if (inRow == winLength) {
+                    for (int k = 0; k < winLength; k++) {
+                        winningMoves.add(new Move(i + k * rowDir, j + k * colDir));
                     }
                 }
             }
@@ -235,94 +437,89 @@ public class VierGewinntModel implements IVierGewinntModel {
     }
 
     /**
-     * Checks horizontally if the previous player (player that
-     * just played) has won the game
+     * Checks if the previous player has won the game.
+     * Only the precomputed lines through the last move played are examined, as no other line
+     * can have changed since the previous check. The result is cached until the next
+     * move is played or undone.
      *
-     * @return an empty list if there is no winning positions else a list
-     * containing the winning moves.
+     * @return if game won, a list containing the winning moves is returned else an
+     * empty list is returned
      */
-    private List<Move> checkHorizontal() {
-        int previousPlayer = this.getOpposingPlayer();
-        List<Move> winningMoves = new ArrayList<>();
-        for (int j = 0; j < width - 3; j++) {
-            for (int i = 0; i < height; i++) {
-                if (this.board[i][j] == previousPlayer) {
-                    if (this.board[i][j + 1] == previousPlayer) {
-                        if (this.board[i][j + 2] == previousPlayer) {
-                            if (this.board[i][j + 3] == previousPlayer) {
-                                winningMoves.add(new Move(i, j));
-                                winningMoves.add(new Move(i, j + 1));
-                                winningMoves.add(new Move(i, j + 2));
-                                winningMoves.add(new Move(i, j + 3));
-                            }
-                        }
-                    }
-                }
-            }
+    @Override
+    public List<Move> gameWon() {
+        if (winningMoves == null) {
+            winningMoves = checkLastMove();
         }
         return winningMoves;
     }
 
     /**
-     * Checks vertically if the previous player (player that just played) has won
-     * the game
+     * Checks the lines through the last move played for {@code winLength} chips of the previous
+     * player in a row.
      *
-     * @return an empty list if there is no winning positions else a list
-     * containing the winning moves.
+     * @return an unmodifiable list containing the winning moves, or an empty list if the
+     * last move did not win the game.
      */
-    private List<Move> checkVertical() {
-        int previousPlayer = this.getOpposingPlayer();
-        List<Move> winningMoves = new ArrayList<>();
-        for (int i = 0; i < height - 3; i++) {
-            for (int j = 0; j < width; j++) {
-                if (this.board[i][j] == previousPlayer) {
-                    if (this.board[i + 1][j] == previousPlayer) {
-                        if (this.board[i + 2][j] == previousPlayer) {
-                            if (this.board[i + 3][j] == previousPlayer) {
-                                winningMoves.add(new Move(i, j));
-                                winningMoves.add(new Move(i + 1, j));
-                                winningMoves.add(new Move(i + 2, j));
-                                winningMoves.add(new Move(i + 3, j));
-                            }
-                        }
-                    }
-                }
+    private List<Move> checkLastMove() {
+        if (moveCount == 0) {
+            return Collections.emptyList();
+        }
+        int col = moves[moveCount - 1];
+        int offset = chipsOffset(getOpposingPlayer());
+        int slot = col * (height + 1) + heights[col] - 1;
+        if (!lines.isWin(chips, offset, slot)) {
+            return Collections.emptyList();
+        }
+        // only a won game needs the slots of the winning lines
+        long[] slots = new long[chips.length / 2];
+        lines.winningSlots(chips, offset, slot, slots);
+        List<Move> lastMoveWins = new ArrayList<>();
+        for (int word = 0; word < slots.length; word++) {
+            for (long bits = slots[word]; bits != 0; bits &= bits - 1) {
+                int index = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                lastMoveWins.add(new Move(index % (height + 1), index / (height + 1)));
             }
         }
-        return winningMoves;
+        return Collections.unmodifiableList(lastMoveWins);
     }
 
     /**
-     * Checks if the previous player has won the game
+     * Checks the whole board for a win of the previous player. Unlike {@link #gameWon()} this
+     * does not rely on the last move and is therefore kept to verify the incremental check in tests.
      *
      * @return if game won, a list containing the winning moves is returned else an
      * empty list is returned
      */
-    @Override
-    public List<Move> gameWon() {
+    public List<Move> gameWonFullScan() {
         List<Move> winningMoves = new ArrayList<>();
-
-        winningMoves.addAll(checkDescendingDiagonal());
-        winningMoves.addAll(checkAscendingDiagonal());
-        winningMoves.addAll(checkHorizontal());
-        winningMoves.addAll(checkVertical());
-
+        for (int[] direction : DIRECTIONS) {
+            winningMoves.addAll(checkDirection(direction[0], direction[1]));
+        }
         return winningMoves;
     }
 
     /**
-     * Analyses the board and returns player columns as an array.
+     * Counts the columns with at least one free slot.
      *
-     * @return a list of all columns with at least one free slot
+     * @return the number of valid moves
      */
-    private List<Integer> validMoves() {
-        List<Integer> results = new ArrayList<>();
-        for (int i = 0; i < board[0].length; i++) {
-            if (isValidMove(i)) {
-                results.add(i);
+    private int countValidMoves() {
+        return width - Integer.bitCount(fullColumns);
+    }
+
+    /**
+     * Returns the column of the n-th valid move, counting from the left.
+     *
+     * @param n the index of the valid move, less than {@link #countValidMoves()}
+     * @return the column of the valid move
+     */
+    private int nthValidMove(int n) {
+        for (int i = 0; i < width; i++) {
+            if (isValidMove(i) && n-- == 0) {
+                return i;
             }
         }
-        return results;
+        throw new IllegalArgumentException("There are less than " + n + " valid moves");
     }
 
     /**
@@ -335,12 +532,91 @@ public class VierGewinntModel implements IVierGewinntModel {
      */
     @Override
     public Move playRandom() throws InvalidMoveException, NoMoreMovesException {
-        List<Integer> validMoves = validMoves();
-        if (!validMoves.isEmpty()) {
-            int randomColumn = validMoves.get(r.nextInt(validMoves.size()));
-            return this.play(randomColumn);
+        int validMoves = countValidMoves();
+        if (validMoves > 0) {
+            if (r == null) {
+                r = new Random();
+            }
+            return this.play(nthValidMove(r.nextInt(validMoves)));
         }
         throw new NoMoreMovesException();
     }
 
+    /**
+     * Plays random moves until the game is won or the board is full and then takes them back.
+     * No {@code Move} objects or lists are created on the way.
+     *
+     * @param random the random number generator to choose the columns with
+     * @return the winning player, or 0 if the game ends in a draw
+     */
+    @Override
+    public int playout(RandomGenerator random) {
+        int winner = gameWon().isEmpty() ? -1 : getOpposingPlayer();
+        int played = 0;
+        while (winner == -1) {
+            int validMoves = countValidMoves();
+            if (validMoves == 0) {
+                winner = 0;
+                break;
+            }
+            int col = nthValidMove(random.nextInt(validMoves));
+            int row = placeChip(col);
+            played++;
+            if (isWinningMove(row, col)) {
+                winner = getOpposingPlayer();
+            }
+        }
+        for (; played > 0; played--) {
+            removeChip();
+        }
+        return winner;
+    }
+
+    /**
+     * Checks if the chip at the given slot is part of {@code winLength} chips of the previous player in a row.
+     *
+     * @param row the row of the chip
+     * @param col the column of the chip
+     * @return true if the chip completes a line
+     */
+    private boolean isWinningMove(int row, int col) {
+        return lines.isWin(chips, chipsOffset(getOpposingPlayer()), col * (height + 1) + row);
+    }
+
+    /**
+     * Creates an independent copy of the model with its own chips and move history. Only the packed
+     * chips, the column heights and the moves are copied; the board is built when it is asked for.
+     *
+     * @return the copy of the model
+     */
+    @Override
+    public VierGewinntModel fork() {
+        return new VierGewinntModel(this);
+    }
+
+    /**
+     * Copies the move history, column heights and chips of another model of the same size into the
+     * arrays of this one. The board is rebuilt from the chips when it is asked for next.
+     *
+     * @param other the model to copy
+     * @return true if the model was copied, false if the other model is not a {@code VierGewinntModel} of this size
+     */
+    @Override
+    public boolean copyFrom(IVierGewinntModel other) {
+        if (!(other instanceof VierGewinntModel source) || source.width != width || source.height != height
+                || source.winLength != winLength) {
+            return false;
+        }
+        System.arraycopy(source.moves, 0, moves, 0, source.moveCount);
+        this.moveCount = source.moveCount;
+        System.arraycopy(source.heights, 0, heights, 0, width);
+        this.boardDirty = true;
+        System.arraycopy(source.chips, 0, chips, 0, chips.length);
+        this.isPlayerTurn = source.isPlayerTurn;
+        this.winningMoves = source.winningMoves;
+        this.hash = source.hash;
+        this.fullColumns = source.fullColumns;
+        this.position = source.position;
+        return true;
+    }
 }
@@ -0,0 +1,201 @@
+package game.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds every line of {@code winLength} slots a player can complete to win on a board of one
+ * geometry, as masks in the layout of {@link Position}: bit {@code col * (height + 1) + row} stands
+ * for a slot. Boards of up to 64 bits use one long per line, larger ones as many longs as
+ * {@link Position#words(int, int)}.
+ * <p>
+ * The lines are grouped by slot, so checking if a move won only tests the few lines through the
+ * slot it was played into, whatever the size of the board and the length of the lines.
+ * The tables are built once per geometry and shared by all models of that geometry.
+ */
+final class WinLines {
+
+    /**
+     * the row and column steps of the vertical, horizontal, ascending and descending lines.
+     */
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {-1, 1}};
+
+    /**
+     * the tables already built, keyed by {@link #key(int, int, int)}
+     */
+    private static final Map<Integer, WinLines> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * the number of longs of the mask of a line
+     */
+    private final int words;
+
+    /**
+     * the masks of all lines through every slot, {@code words} longs per line. the lines of slot
+     * {@code i} are the lines {@code start[i]} to {@code start[i + 1] - 1}
+     */
+    private final long[] masks;
+
+    /**
+     * the number of the first line of every slot, plus the end of the last slot
+     */
+    private final int[] start;
+
+    /**
+     * Builds the lines of a geometry.
+     *
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param winLength the number of chips in a row needed to win
+     */
+    private WinLines(int width, int height, int winLength) {
+        int stride = height + 1;
+        this.words = Position.words(width, height);
+        List<List<long[]>> linesBySlot = new ArrayList<>(width * stride);
+        for (int i = 0; i < width * stride; i++) {
+            linesBySlot.add(new ArrayList<>());
+        }
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                for (int[] direction : DIRECTIONS) {
+                    int endRow = row + (winLength - 1) * direction[0];
+                    int endCol = col + (winLength - 1) * direction[1];
+                    if (endRow < 0 || endRow >= height || endCol >= width) {
+                        continue;
+                    }
+                    long[] line = new long[words];
+                    for (int i = 0; i < winLength; i++) {
+                        int slot = (col + i * direction[1]) * stride + row + i * direction[0];
+                        line[slot / Long.SIZE] |= 1L << slot;
+                    }
+                    for (int i = 0; i < winLength; i++) {
+                        linesBySlot.get((col + i * direction[1]) * stride + row + i * direction[0]).add(line);
+                    }
+                }
+            }
+        }
+        this.start = new int[linesBySlot.size() + 1];
+        for (int i = 0; i < linesBySlot.size(); i++) {
+            start[i + 1] = start[i] + linesBySlot.get(i).size();
+        }
+        this.masks = new long[start[linesBySlot.size()] * words];
+        for (int i = 0; i < linesBySlot.size(); i++) {
+            for (int j = 0; j < linesBySlot.get(i).size(); j++) {
+                System.arraycopy(linesBySlot.get(i).get(j), 0, masks, (start[i] + j) * words, words);
+            }
+        }
+    }
+
+    /**
+     * Returns the lines of a geometry, building them on first use.
+     *
+     * @param width     the number of columns, 1 to 16
+     * @param height    the number of rows, 1 to 16
+     * @param winLength the number of chips in a row needed to win, 1 to 16
+     * @return the lines of the geometry
+     */
+    static WinLines of(int width, int height, int winLength) {
+        return CACHE.computeIfAbsent(key(width, height, winLength), key -> new WinLines(width, height, winLength));
+    }
+
+    private static int key(int width, int height, int winLength) {
+        return (width << 16) | (height << 8) | winLength;
+    }
+
+    /**
+     * Returns all slots of the lines through a slot that are completely filled by the given chips.
+     * Only for boards of up to 64 bits.
+     *
+     * @param mask the chips of one player
+     * @param slot the bit index of the slot, usually the one played last
+     * @return a mask of all slots that belong to a winning line through the slot, 0 if there is none
+     */
+    long winningSlots(long mask, int slot) {
+        long slots = 0;
+        for (int i = start[slot]; i < start[slot + 1]; i++) {
+            long line = masks[i];
+            if ((mask & line) == line) {
+                slots |= line;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Checks if the given chips fill one of the lines through a slot. Only for boards of up to 64 bits.
+     *
+     * @param mask the chips of one player
+     * @param slot the bit index of the slot, usually the one played last
+     * @return true if there is a winning line through the slot
+     */
+    boolean isWin(long mask, int slot) {
+        for (int i = start[slot]; i < start[slot + 1]; i++) {
+            long line = masks[i];
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds all slots of the lines through a slot that are completely filled by the given chips to
+     * a mask, for boards of any size.
+     *
+     * @param chips  the chips of one player, {@link Position#words(int, int)} longs from {@code offset} on
+     * @param offset the index of the first long of the chips
+     * @param slot   the bit index of the slot, usually the one played last
+     * @param slots  the mask the slots of the winning lines are added to, as many longs as the chips
+     * @return true if there is a winning line through the slot
+     */
+    boolean winningSlots(long[] chips, int offset, int slot, long[] slots) {
+        boolean won = false;
+        for (int line = start[slot]; line < start[slot + 1]; line++) {
+            if (isFilled(chips, offset, line)) {
+                for (int w = 0; w < words; w++) {
+                    slots[w] |= masks[line * words + w];
+                }
+                won = true;
+            }
+        }
+        return won;
+    }
+
+    /**
+     * Checks if the given chips fill one of the lines through a slot, for boards of any size.
+     *
+     * @param chips  the chips of one player, {@link Position#words(int, int)} longs from {@code offset} on
+     * @param offset the index of the first long of the chips
+     * @param slot   the bit index of the slot, usually the one played last
+     * @return true if there is a winning line through the slot
+     */
+    boolean isWin(long[] chips, int offset, int slot) {
+        for (int line = start[slot]; line < start[slot + 1]; line++) {
+            if (isFilled(chips, offset, line)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given chips fill a line.
+     *
+     * @param chips  the chips of one player
+     * @param offset the index of the first long of the chips
+     * @param line   the number of the line
+     * @return true if every slot of the line is taken by the chips
+     */
+    private boolean isFilled(long[] chips, int offset, int line) {
+        int base = line * words;
+        for (int w = 0; w < words; w++) {
+            long mask = masks[base + w];
+            if ((chips[offset + w] & mask) != mask) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package game.model;
+
+/**
+ * Holds the random keys used to compute Zobrist hashes of positions.
+ * The hash of a position is the XOR of the keys of all chips on the board, so playing or
+ * undoing a move only needs to XOR in the key of a single chip. The player to move does not
+ * need a key of its own, as it follows from the number of chips on the board.
+ * <p>
+ * The keys are generated from a fixed seed, so hashes stay the same across runs and can be
+ * stored in files.
+ */
+final class Zobrist {
+
+    /**
+     * the largest number of rows or columns a board can have to be hashed
+     */
+    static final int MAX_SIZE = 16;
+
+    /**
+     * the keys of all chips, indexed by {@code ((player - 1) * MAX_SIZE + col) * MAX_SIZE + row}
+     */
+    private static final long[] KEYS = new long[2 * MAX_SIZE * MAX_SIZE];
+
+    static {
+        long seed = 0x56494552_47455749L; // "VIERGEWI"
+        for (int i = 0; i < KEYS.length; i++) {
+            // splitmix64
+            seed += 0x9E3779B97F4A7C15L;
+            long z = seed;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            KEYS[i] = z ^ (z >>> 31);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a chip.
+     *
+     * @param player the player owning the chip, 1 or 2
+     * @param row    the row of the chip
+     * @param col    the column of the chip
+     * @return the key to XOR into the hash when the chip is played or removed
+     */
+    static long key(int player, int row, int col) {
+        return KEYS[((player - 1) * MAX_SIZE + col) * MAX_SIZE + row];
+    }
+
+    /**
+     * Checks the size of a board, which is limited by the number of keys.
+     *
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param winLength the number of chips in a row needed to win
+     * @throws IllegalArgumentException if a size is out of range
+     */
+    static void checkGeometry(int width, int height, int winLength) {
+        if (width < 1 || width > MAX_SIZE || height < 1 || height > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between 1x1 and " + MAX_SIZE + "x"
+                    + MAX_SIZE + " but was " + width + "x" + height);
+        }
+        if (winLength < 1 || winLength > MAX_SIZE) {
+            throw new IllegalArgumentException("Win length must be between 1 and " + MAX_SIZE
+                    + " but was " + winLength);
+        }
+    }
+}
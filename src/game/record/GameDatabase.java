@@ -0,0 +1,332 @@
+package game.record;
+
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * A searchable archive of games on top of a game record file.
+ * <p>
+ * The file is memory-mapped and every position of every game is entered into an off-heap index
+ * from its Zobrist hash (see {@link IVierGewinntModel#getHash()}) to the offset and the winner of
+ * the game in the file, so the games that reached a position are found, and their outcome added
+ * up, without scanning the file. Games appended
+ * to the file later, by {@link #add(GameRecord)} or by another writer such as
+ * {@link game.sim.SelfPlay}, are indexed by {@link #refresh()} without indexing the older games
+ * again. A record that is still being written is left for the next refresh.
+ * <p>
+ * Games are identified by their offset in the file, which stays the same as the file grows.
+ * Files can hold up to 2 GB of records. All methods are synchronized.
+ * <p>
+ * Usage: {@code java game.record.GameDatabase <file> [moves]} prints the outcome of the games
+ * that reached the position after the given moves, e.g. {@code 4453}, columns counted from 1.
+ */
+public class GameDatabase implements AutoCloseable {
+
+    /**
+     * the file of the records
+     */
+    private final Path path;
+
+    /**
+     * the keys of the positions of all indexed games, see {@link #key(long, int, int, int)}, mapped
+     * to {@code offset << 16 | winner << 9 | ply}
+     */
+    private final PositionIndex index = new PositionIndex();
+
+    /**
+     * a reader of the mapped file, replaced whenever the file has grown
+     */
+    private GameRecordReader reader;
+
+    /**
+     * the size of the mapped part of the file
+     */
+    private long mapped;
+
+    /**
+     * the offset behind the last indexed record
+     */
+    private int indexed = GameRecordFormat.HEADER_BYTES;
+
+    /**
+     * the number of indexed games
+     */
+    private int games;
+
+    /**
+     * appends the games passed to {@link #add(GameRecord)}, opened on first use
+     */
+    private GameRecordWriter writer;
+
+    /**
+     * Creates a database of the given file.
+     *
+     * @param path the game record file, which has to exist
+     */
+    private GameDatabase(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens a game record file and indexes all games in it, creating the file if it does not exist.
+     *
+     * @param path the game record file
+     * @return the database
+     * @throws IOException if the file can not be read or is not a game record file
+     */
+    public static GameDatabase open(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            GameRecordWriter.open(path).close();
+        }
+        GameDatabase database = new GameDatabase(path);
+        database.refresh();
+        return database;
+    }
+
+    public static void main(String[] args) throws IOException, InvalidMoveException {
+        if (args.length < 1) {
+            System.err.println("Usage: java game.record.GameDatabase <file> [moves]");
+            return;
+        }
+        try (GameDatabase database = open(Path.of(args[0]))) {
+            System.out.printf("%d games, %d positions%n", database.size(), database.index.keys());
+            if (database.size() > 0) {
+                GameRecord first = database.get(GameRecordFormat.HEADER_BYTES);
+                IVierGewinntModel model = newModel(first.width(), first.height(), first.winLength());
+                String moves = args.length > 1 ? args[1] : "";
+                for (char move : moves.toCharArray()) {
+                    model.play(Character.digit(move, Character.MAX_RADIX) - 1);
+                }
+                System.out.println(database.stats(model));
+            }
+        }
+    }
+
+    /**
+     * Creates a model for a board, preferring the bitboard model.
+     *
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param winLength the number of chips in a row needed to win
+     * @return an empty model
+     */
+    private static IVierGewinntModel newModel(int width, int height, int winLength) {
+        return width * (height + 1) <= Long.SIZE
+                ? new BitboardVierGewinntModel(width, height, winLength)
+                : new VierGewinntModel(width, height, winLength);
+    }
+
+    /**
+     * Returns the key of a position in the index, its Zobrist hash mixed with the size of the board,
+     * as the hash alone does not tell boards of different sizes apart.
+     *
+     * @param hash      the Zobrist hash of the position
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param winLength the number of chips in a row needed to win
+     * @return the key
+     */
+    private static long key(long hash, int width, int height, int winLength) {
+        // fmix64 of the geometry
+        long z = (long) width << 16 | height << 8 | winLength;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ z ^ (z >>> 33);
+    }
+
+    private static long key(IVierGewinntModel model) {
+        return key(model.getHash(), model.getWidth(), model.getHeight(), model.getWinLength());
+    }
+
+    /**
+     * Indexes the games appended to the file since the last refresh.
+     *
+     * @return the number of games indexed
+     * @throws IOException           if the file can not be read
+     * @throws IllegalStateException if a record is corrupt or its moves can not be played
+     */
+    public synchronized int refresh() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == mapped) {
+                return 0;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Game record file " + path + " is larger than 2 GB");
+            }
+            reader = new GameRecordReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            mapped = size;
+        }
+        int added = 0;
+        reader.seek(indexed);
+        while (reader.next()) {
+            addToIndex();
+            indexed = reader.end();
+            added++;
+        }
+        games += added;
+        return added;
+    }
+
+    /**
+     * Enters all positions of the game under the reader into the index.
+     *
+     * @throws IllegalStateException if a move of the game can not be played
+     */
+    private void addToIndex() {
+        IVierGewinntModel model = newModel(reader.width(), reader.height(), reader.winLength());
+        long game = (long) reader.offset() << 16 | reader.winner() << 9;
+        index.add(key(model), game);
+        for (int ply = 0; ply < reader.moveCount(); ply++) {
+            try {
+                model.play(reader.move(ply));
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("Game at offset " + reader.offset() + " can not be replayed", e);
+            }
+            index.add(key(model), game | (ply + 1));
+        }
+    }
+
+    /**
+     * Appends a game to the file and indexes it.
+     *
+     * @param record the game
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void add(GameRecord record) throws IOException {
+        if (writer == null) {
+            writer = GameRecordWriter.open(path);
+        }
+        writer.write(record);
+        writer.flush();
+        refresh();
+    }
+
+    /**
+     * Returns the number of indexed games.
+     *
+     * @return the number of games
+     */
+    public synchronized int size() {
+        return games;
+    }
+
+    /**
+     * Finds the games that reached the position of a model, with the same board and the same chips.
+     *
+     * @param model the position to look for
+     * @return the offsets of the games, the latest first
+     */
+    public synchronized int[] find(IVierGewinntModel model) {
+        int ply = model.getMoveCount();
+        IntStream.Builder found = IntStream.builder();
+        index.forEach(key(model), value -> {
+            if ((value & 0x1FF) == ply) {
+                found.add((int) (value >>> 16));
+            }
+        });
+        return found.build().toArray();
+    }
+
+    /**
+     * Adds up the outcome of the games that reached the position of a model, without reading the games.
+     *
+     * @param model the position to look for
+     * @return the number of games won by either player and drawn
+     */
+    public synchronized PositionStats stats(IVierGewinntModel model) {
+        int ply = model.getMoveCount();
+        int[] results = new int[3];
+        index.forEach(key(model), value -> {
+            if ((value & 0x1FF) == ply) {
+                results[(int) (value >>> 9 & 3)]++;
+            }
+        });
+        return new PositionStats(results[0] + results[1] + results[2], results[1], results[2], results[0]);
+    }
+
+    /**
+     * Reads a game.
+     *
+     * @param offset the offset of the game, as returned by {@link #find(IVierGewinntModel)}
+     * @return the record of the game
+     */
+    public synchronized GameRecord get(int offset) {
+        moveTo(offset);
+        return reader.toRecord();
+    }
+
+    /**
+     * Replays a game on a new model.
+     *
+     * @param offset the offset of the game, as returned by {@link #find(IVierGewinntModel)}
+     * @return a model holding the final position of the game
+     * @throws InvalidMoveException if a move of the game can not be played
+     */
+    public synchronized IVierGewinntModel replay(int offset) throws InvalidMoveException {
+        moveTo(offset);
+        return replay(offset, reader.moveCount());
+    }
+
+    /**
+     * Replays the first moves of a game on a new model.
+     *
+     * @param offset the offset of the game, as returned by {@link #find(IVierGewinntModel)}
+     * @param plies  the number of moves to play
+     * @return a model holding the position after these moves
+     * @throws InvalidMoveException if a move of the game can not be played
+     */
+    public synchronized IVierGewinntModel replay(int offset, int plies) throws InvalidMoveException {
+        moveTo(offset);
+        if (plies < 0 || plies > reader.moveCount()) {
+            throw new IllegalArgumentException("The game has " + reader.moveCount() + " moves, not " + plies);
+        }
+        IVierGewinntModel model = newModel(reader.width(), reader.height(), reader.winLength());
+        for (int ply = 0; ply < plies; ply++) {
+            model.play(reader.move(ply));
+        }
+        model.publish();
+        return model;
+    }
+
+    /**
+     * Moves the reader to an indexed game.
+     *
+     * @param offset the offset of the game
+     * @throws IllegalArgumentException if no indexed game starts at the offset
+     */
+    private void moveTo(int offset) {
+        if (offset == reader.offset()) {
+            return;
+        }
+        if (offset < GameRecordFormat.HEADER_BYTES || offset >= indexed) {
+            throw new IllegalArgumentException("No game at offset " + offset);
+        }
+        reader.seek(offset);
+        if (!reader.next() || reader.end() > indexed) {
+            throw new IllegalArgumentException("No game at offset " + offset);
+        }
+    }
+
+    /**
+     * Closes the file if games were added.
+     *
+     * @throws IOException if the added games can not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
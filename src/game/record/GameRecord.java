@@ -0,0 +1,106 @@
+package game.record;
+
+import game.model.IVierGewinntModel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A finished game as it is archived: the geometry of the board, the players, the outcome, the
+ * thinking times and the columns played.
+ *
+ * @param width         The number of columns, 1 to 16.
+ * @param height        The number of rows, 1 to 16.
+ * @param winLength     The number of chips in a row needed to win, 1 to 16.
+ * @param player1       The name of the first player, e.g. {@code negamax:8}.
+ * @param player2       The name of the second player.
+ * @param winner        The winning player, or 0 for a draw.
+ * @param startMillis   The time the game started, in milliseconds since the epoch.
+ * @param player1Micros The time the first player thought about all its moves, in microseconds.
+ * @param player2Micros The time the second player thought about all its moves, in microseconds.
+ * @param moves         The columns played, in order.
+ */
+public record GameRecord(int width, int height, int winLength, String player1, String player2, int winner,
+                         long startMillis, long player1Micros, long player2Micros, byte[] moves) {
+
+    /**
+     * the longest player name in bytes of UTF-8
+     */
+    public static final int MAX_NAME_BYTES = 255;
+
+    /**
+     * Checks the values of a record.
+     *
+     * @throws IllegalArgumentException if a value can not be stored
+     */
+    public GameRecord {
+        if (width < 1 || width > 16 || height < 1 || height > 16 || winLength < 1 || winLength > 16) {
+            throw new IllegalArgumentException("Unsupported board " + width + "x" + height + ", " + winLength + " in a row");
+        }
+        if (winner < 0 || winner > 2) {
+            throw new IllegalArgumentException("Invalid winner " + winner);
+        }
+        if (startMillis < 0 || player1Micros < 0 || player2Micros < 0) {
+            throw new IllegalArgumentException("Times must not be negative");
+        }
+        if (player1.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES
+                || player2.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Player names must not be longer than " + MAX_NAME_BYTES + " bytes");
+        }
+        if (moves.length > width * height) {
+            throw new IllegalArgumentException(moves.length + " moves do not fit on the board");
+        }
+        for (byte move : moves) {
+            if (move < 0 || move >= width) {
+                throw new IllegalArgumentException("Invalid column " + move);
+            }
+        }
+    }
+
+    /**
+     * Creates the record of a game that has ended.
+     *
+     * @param model         the model holding the final position
+     * @param player1       the name of the first player
+     * @param player2       the name of the second player
+     * @param startMillis   the time the game started, in milliseconds since the epoch
+     * @param player1Micros the time the first player thought about all its moves, in microseconds
+     * @param player2Micros the time the second player thought about all its moves, in microseconds
+     * @return the record of the game
+     */
+    public static GameRecord of(IVierGewinntModel model, String player1, String player2, long startMillis,
+                                long player1Micros, long player2Micros) {
+        int[] columns = model.getMoves();
+        byte[] moves = new byte[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            moves[i] = (byte) columns[i];
+        }
+        int winner = model.gameWon().isEmpty() ? 0 : model.getOpposingPlayer();
+        return new GameRecord(model.getWidth(), model.getHeight(), model.getWinLength(), player1, player2, winner,
+                startMillis, player1Micros, player2Micros, moves);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameRecord other && width == other.width && height == other.height
+                && winLength == other.winLength && player1.equals(other.player1) && player2.equals(other.player2)
+                && winner == other.winner && startMillis == other.startMillis
+                && player1Micros == other.player1Micros && player2Micros == other.player2Micros
+                && Arrays.equals(moves, other.moves);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(moves) + Long.hashCode(startMillis);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder columns = new StringBuilder();
+        for (byte move : moves) {
+            columns.append(Character.forDigit(move + 1, Character.MAX_RADIX));
+        }
+        return String.format("%s against %s on %dx%d, %d in a row: %s, winner %d",
+                player1, player2, width, height, winLength, columns, winner);
+    }
+}
@@ -0,0 +1,135 @@
+package game.record;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary format of game record files, shared by {@link GameRecordWriter} and {@link GameRecordReader}.
+ * <p>
+ * A file starts with a header of {@value #HEADER_BYTES} bytes: the magic number, the format
+ * version and two reserved bytes. It is followed by the records, one after the other, each laid
+ * out as follows. Numbers marked as varints take seven bits per byte, the lowest first, with the
+ * top bit set on every byte but the last.
+ * <ul>
+ *     <li>varint: the number of bytes of the rest of the record, so that readers can skip it</li>
+ *     <li>byte: the width minus 1 in the high nibble, the height minus 1 in the low one</li>
+ *     <li>byte: the win length minus 1 in the high nibble, the winner in the low one</li>
+ *     <li>byte and UTF-8 bytes: the length and the name of the first player, then of the second</li>
+ *     <li>varints: the start time in milliseconds since the epoch, then the thinking times of both
+ *     players in microseconds</li>
+ *     <li>varint: the number of moves</li>
+ *     <li>the columns of the moves, two per byte, the earlier move in the low nibble</li>
+ * </ul>
+ * A game of 42 moves between players with short names takes about 56 bytes: 21 for the moves and
+ * the rest for the length, the board, the names, the times and the move count.
+ */
+final class GameRecordFormat {
+
+    /**
+     * the first four bytes of every game record file, "VGGR"
+     */
+    static final int MAGIC = 0x56474752;
+
+    /**
+     * the version of the file format
+     */
+    static final short VERSION = 1;
+
+    /**
+     * the size of the header in bytes
+     */
+    static final int HEADER_BYTES = 8;
+
+    private GameRecordFormat() {
+    }
+
+    /**
+     * Writes the header of a new file.
+     *
+     * @param buffer the buffer to write to
+     */
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+    }
+
+    /**
+     * Returns the number of bytes a record takes in a file, including its length.
+     *
+     * @param record the record
+     * @return the size of the encoded record
+     */
+    static int encodedSize(GameRecord record) {
+        int body = bodySize(record);
+        return varintSize(body) + body;
+    }
+
+    /**
+     * Returns the number of bytes of a record after its length.
+     *
+     * @param record the record
+     * @return the size of the body
+     */
+    private static int bodySize(GameRecord record) {
+        return 2
+                + 1 + record.player1().getBytes(StandardCharsets.UTF_8).length
+                + 1 + record.player2().getBytes(StandardCharsets.UTF_8).length
+                + varintSize(record.startMillis())
+                + varintSize(record.player1Micros())
+                + varintSize(record.player2Micros())
+                + varintSize(record.moves().length)
+                + (record.moves().length + 1) / 2;
+    }
+
+    /**
+     * Writes a record at the position of a buffer, which must have room for {@link #encodedSize(GameRecord)} bytes.
+     *
+     * @param buffer the buffer to write to
+     * @param record the record
+     */
+    static void encode(ByteBuffer buffer, GameRecord record) {
+        putVarint(buffer, bodySize(record));
+        buffer.put((byte) ((record.width() - 1) << 4 | (record.height() - 1)));
+        buffer.put((byte) ((record.winLength() - 1) << 4 | record.winner()));
+        putName(buffer, record.player1());
+        putName(buffer, record.player2());
+        putVarint(buffer, record.startMillis());
+        putVarint(buffer, record.player1Micros());
+        putVarint(buffer, record.player2Micros());
+        byte[] moves = record.moves();
+        putVarint(buffer, moves.length);
+        for (int i = 0; i < moves.length; i += 2) {
+            int high = i + 1 < moves.length ? moves[i + 1] : 0;
+            buffer.put((byte) (high << 4 | moves[i]));
+        }
+    }
+
+    private static void putName(ByteBuffer buffer, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        buffer.put((byte) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes a non-negative number as a varint.
+     *
+     * @param buffer the buffer to write to
+     * @param value  the number
+     */
+    static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Returns the number of bytes of a varint.
+     *
+     * @param value the number, not negative
+     * @return the size of the varint
+     */
+    static int varintSize(long value) {
+        return Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 6) / 7);
+    }
+}
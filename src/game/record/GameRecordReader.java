@@ -0,0 +1,285 @@
+package game.record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records of a game record file, see {@link GameRecordFormat}, straight out of a
+ * {@link ByteBuffer}, usually a memory-mapped file.
+ * <p>
+ * The reader is a cursor: {@link #next()} moves it to the next record and the getters read the
+ * record under the cursor from the buffer. Only the fixed fields are decoded when the cursor
+ * moves; names and moves are read when asked for, so scanning through a file allocates nothing.
+ * {@link #toRecord()} copies the current record into a {@link GameRecord}.
+ * <p>
+ * A record cut off at the end of the buffer, as left by a writer that crashed, ends the file.
+ * Readers are not thread-safe, but several readers can share one file.
+ */
+public class GameRecordReader {
+
+    /**
+     * the contents of the file, read with absolute positions only
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * the offset of the record after the current one
+     */
+    private int next = GameRecordFormat.HEADER_BYTES;
+
+    /**
+     * the offset of the current record, or -1 before the first call of {@link #next()}
+     */
+    private int offset = -1;
+
+    /**
+     * the offset of the next byte to decode
+     */
+    private int cursor;
+
+    private int width;
+    private int height;
+    private int winLength;
+    private int winner;
+    private int name1Offset;
+    private int name2Offset;
+    private long startMillis;
+    private long player1Micros;
+    private long player2Micros;
+    private int moveCount;
+
+    /**
+     * the offset of the first byte of the moves of the current record
+     */
+    private int movesOffset;
+
+    /**
+     * Creates a reader of the given buffer, which has to hold a game record file from its start.
+     *
+     * @param buffer the contents of the file
+     * @throws IOException if the buffer does not start with the header of a game record file
+     */
+    public GameRecordReader(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < GameRecordFormat.HEADER_BYTES || buffer.getInt(0) != GameRecordFormat.MAGIC) {
+            throw new IOException("Not a game record file");
+        }
+        if (buffer.getShort(4) != GameRecordFormat.VERSION) {
+            throw new IOException("Unsupported game record version " + buffer.getShort(4));
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a game record file into memory.
+     *
+     * @param path the file
+     * @return a reader positioned before the first record
+     * @throws IOException if the file can not be read or is not a game record file
+     */
+    public static GameRecordReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new GameRecordReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Moves the cursor to the next record.
+     *
+     * @return true if there is one, false at the end of the buffer or if the next record is cut off
+     * @throws IllegalStateException if the record is corrupt
+     */
+    public boolean next() {
+        int limit = buffer.limit();
+        if (next >= limit) {
+            return false;
+        }
+        cursor = next;
+        long length = readVarint(limit);
+        if (length < 0 || length > limit - cursor) {
+            return false;
+        }
+        int start = next;
+        int end = cursor + (int) length;
+        int geometry = buffer.get(cursor++);
+        width = (geometry >> 4 & 0xF) + 1;
+        height = (geometry & 0xF) + 1;
+        int result = buffer.get(cursor++);
+        winLength = (result >> 4 & 0xF) + 1;
+        winner = result & 0xF;
+        name1Offset = cursor;
+        cursor = skipName(end, start);
+        name2Offset = cursor;
+        cursor = skipName(end, start);
+        startMillis = readVarint(end);
+        player1Micros = readVarint(end);
+        player2Micros = readVarint(end);
+        moveCount = (int) readVarint(end);
+        movesOffset = cursor;
+        if (moveCount < 0 || winner > 2 || movesOffset + (moveCount + 1) / 2 != end) {
+            throw new IllegalStateException("Corrupt game record at offset " + start);
+        }
+        offset = start;
+        next = end;
+        return true;
+    }
+
+    /**
+     * Skips the name at the cursor.
+     *
+     * @param end   the end of the record
+     * @param start the offset of the record, for the error message
+     * @return the offset behind the name
+     * @throws IllegalStateException if the name does not end within the record
+     */
+    private int skipName(int end, int start) {
+        int behind = cursor < end ? cursor + 1 + (buffer.get(cursor) & 0xFF) : end + 1;
+        if (behind > end) {
+            throw new IllegalStateException("Corrupt game record at offset " + start);
+        }
+        return behind;
+    }
+
+    /**
+     * Reads a varint at the cursor and moves the cursor behind it.
+     *
+     * @param limit the offset the varint has to end before
+     * @return the number, or -1 if the varint does not end before the limit
+     */
+    private long readVarint(int limit) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE && cursor < limit; shift += 7) {
+            byte b = buffer.get(cursor++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset of the current record in the buffer, which can be passed to {@link #seek(int)}.
+     *
+     * @return the offset of the current record, or -1 before the first record
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Returns the offset behind the last complete record read, where a writer continues the file.
+     *
+     * @return the offset behind the current record
+     */
+    public int end() {
+        return next;
+    }
+
+    /**
+     * Moves the cursor so that the next call of {@link #next()} reads the record at the given offset.
+     *
+     * @param offset the offset of a record, as returned by {@link #offset()}
+     */
+    public void seek(int offset) {
+        if (offset < GameRecordFormat.HEADER_BYTES || offset > buffer.limit()) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is outside the records");
+        }
+        this.next = offset;
+        this.offset = -1;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    /**
+     * Returns the winner of the current game.
+     *
+     * @return the winning player, or 0 for a draw
+     */
+    public int winner() {
+        return winner;
+    }
+
+    public String player1() {
+        return readName(name1Offset);
+    }
+
+    public String player2() {
+        return readName(name2Offset);
+    }
+
+    public long startMillis() {
+        return startMillis;
+    }
+
+    public long player1Micros() {
+        return player1Micros;
+    }
+
+    public long player2Micros() {
+        return player2Micros;
+    }
+
+    /**
+     * Returns the number of moves of the current game.
+     *
+     * @return the number of moves
+     */
+    public int moveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns a move of the current game.
+     *
+     * @param index the number of the move, from 0
+     * @return the column played
+     */
+    public int move(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + moveCount);
+        }
+        int packed = buffer.get(movesOffset + index / 2);
+        return (packed >> (index % 2) * 4) & 0xF;
+    }
+
+    /**
+     * Copies the current record.
+     *
+     * @return the record under the cursor
+     * @throws IllegalArgumentException if the record holds invalid values
+     */
+    public GameRecord toRecord() {
+        byte[] moves = new byte[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            moves[i] = (byte) move(i);
+        }
+        return new GameRecord(width, height, winLength, player1(), player2(), winner, startMillis,
+                player1Micros, player2Micros, moves);
+    }
+
+    /**
+     * Decodes a name.
+     *
+     * @param at the offset of the length of the name
+     * @return the name
+     */
+    private String readName(int at) {
+        byte[] bytes = new byte[buffer.get(at) & 0xFF];
+        buffer.get(at + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
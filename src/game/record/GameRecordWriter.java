@@ -0,0 +1,149 @@
+package game.record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends games to a game record file, see {@link GameRecordFormat}.
+ * <p>
+ * Records are collected in a direct buffer and written to the file in one go when the buffer is
+ * full, on {@link #flush()} and on {@link #close()}, so writing a game costs no system call.
+ * Opening an existing file continues it; a record cut off by a crash is dropped first.
+ * <p>
+ * All methods are synchronized, so the games of several threads can be written to one file.
+ */
+public class GameRecordWriter implements AutoCloseable {
+
+    /**
+     * the size of the buffer used by {@link #open(Path)}, in bytes
+     */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 16;
+
+    /**
+     * the file, positioned at its end
+     */
+    private final FileChannel channel;
+
+    /**
+     * the records not written to the file yet
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * the number of records written by this writer
+     */
+    private long count;
+
+    /**
+     * Creates a writer appending to the given file.
+     *
+     * @param channel     the file, readable and writable
+     * @param bufferBytes the size of the buffer
+     * @throws IOException if the file can not be read or is not a game record file
+     */
+    private GameRecordWriter(FileChannel channel, int bufferBytes) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+        if (channel.size() == 0) {
+            GameRecordFormat.writeHeader(buffer);
+            flush();
+        } else {
+            GameRecordReader reader = new GameRecordReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            while (reader.next()) {
+                // find the end of the last complete record
+            }
+            if (reader.end() != channel.size()) {
+                channel.truncate(reader.end());
+            }
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * Opens a game record file for appending, creating it if it does not exist.
+     *
+     * @param path the file
+     * @return the writer
+     * @throws IOException if the file can not be read or is not a game record file
+     */
+    public static GameRecordWriter open(Path path) throws IOException {
+        return open(path, DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * Opens a game record file for appending, creating it if it does not exist.
+     *
+     * @param path        the file
+     * @param bufferBytes the number of bytes collected before they are written, at least 1024
+     * @return the writer
+     * @throws IOException if the file can not be read or is not a game record file
+     */
+    public static GameRecordWriter open(Path path, int bufferBytes) throws IOException {
+        if (bufferBytes < 1024) {
+            throw new IllegalArgumentException("Buffer of " + bufferBytes + " bytes is too small");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE);
+        try {
+            return new GameRecordWriter(channel, bufferBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a game to the file. It is written to the disk when the buffer is full at the latest.
+     *
+     * @param record the game
+     * @throws IOException if the buffer could not be written
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        int size = GameRecordFormat.encodedSize(record);
+        if (size > buffer.remaining()) {
+            flush();
+        }
+        // a record is at most a few hundred bytes, the buffer at least a kilobyte
+        GameRecordFormat.encode(buffer, record);
+        count++;
+    }
+
+    /**
+     * Writes all buffered games to the file.
+     *
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns the number of games written by this writer.
+     *
+     * @return the number of records
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes all buffered games and closes the file.
+     *
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
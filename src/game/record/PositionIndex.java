@@ -0,0 +1,165 @@
+package game.record;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.function.LongConsumer;
+
+/**
+ * A multimap from position hashes to {@code long} values, kept outside the Java heap so that an
+ * index of millions of positions costs the garbage collector nothing.
+ * <p>
+ * The table holds every hash once, with open addressing and linear probing, together with the
+ * head of a list of its values. The values live in a second buffer, each with a link to the value
+ * added before it, so adding a value never probes more than its hash and positions reached by
+ * every game, such as the empty board, do not slow down the table.
+ */
+final class PositionIndex {
+
+    /**
+     * the largest number of longs a direct buffer can hold
+     */
+    private static final int MAX_LONGS = Integer.MAX_VALUE / Long.BYTES;
+
+    /**
+     * pairs of a hash and the number of its newest value plus 1, or 0 in the second long for a free slot
+     */
+    private LongBuffer table;
+
+    /**
+     * pairs of a value and the number of the value added before it for the same hash plus 1, or 0 for none
+     */
+    private LongBuffer entries;
+
+    /**
+     * the number of hashes in the table
+     */
+    private int keys;
+
+    /**
+     * the number of values
+     */
+    private int size;
+
+    /**
+     * Creates an empty index.
+     */
+    PositionIndex() {
+        this.table = allocate(2 * 1024);
+        this.entries = allocate(2 * 1024);
+    }
+
+    private static LongBuffer allocate(int longs) {
+        return ByteBuffer.allocateDirect(longs * Long.BYTES).asLongBuffer();
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return the size of the index
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of different hashes.
+     *
+     * @return the number of positions
+     */
+    int keys() {
+        return keys;
+    }
+
+    /**
+     * Adds a value for a hash.
+     *
+     * @param hash  the hash of the position
+     * @param value the value
+     * @throws IllegalStateException if the index has reached the size limit of a direct buffer
+     */
+    void add(long hash, long value) {
+        if (2 * (size + 1) > entries.capacity()) {
+            entries = grow(entries);
+        }
+        if (4 * (keys + 1) > table.capacity()) {
+            rehash();
+        }
+        int slot = find(table, hash);
+        long head = table.get(slot + 1);
+        if (head == 0) {
+            table.put(slot, hash);
+            keys++;
+        }
+        entries.put(2 * size, value);
+        entries.put(2 * size + 1, head);
+        size++;
+        table.put(slot + 1, size);
+    }
+
+    /**
+     * Passes all values of a hash to an action, the newest first.
+     *
+     * @param hash   the hash of the position
+     * @param action the action to call for every value
+     */
+    void forEach(long hash, LongConsumer action) {
+        long next = table.get(find(table, hash) + 1);
+        while (next != 0) {
+            int entry = 2 * (int) (next - 1);
+            action.accept(entries.get(entry));
+            next = entries.get(entry + 1);
+        }
+    }
+
+    /**
+     * Finds the slot of a hash, or the free slot it would go to.
+     *
+     * @param table the table to search
+     * @param hash  the hash
+     * @return the index of the first long of the slot
+     */
+    private static int find(LongBuffer table, long hash) {
+        int mask = table.capacity() / 2 - 1;
+        // Fibonacci hashing, as the hash of the empty board is 0
+        int slot = (int) (hash * 0x9E3779B97F4A7C15L >>> 32) & mask;
+        while (table.get(2 * slot + 1) != 0 && table.get(2 * slot) != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return 2 * slot;
+    }
+
+    /**
+     * Doubles the size of the table and inserts all hashes again.
+     */
+    private void rehash() {
+        LongBuffer old = table;
+        if (old.capacity() > MAX_LONGS / 2) {
+            throw new IllegalStateException("Position index is full with " + keys + " positions");
+        }
+        table = allocate(2 * old.capacity());
+        for (int i = 0; i < old.capacity(); i += 2) {
+            long head = old.get(i + 1);
+            if (head != 0) {
+                int slot = find(table, old.get(i));
+                table.put(slot, old.get(i));
+                table.put(slot + 1, head);
+            }
+        }
+    }
+
+    /**
+     * Copies a buffer into one of twice its size.
+     *
+     * @param buffer the full buffer
+     * @return the larger buffer
+     */
+    private LongBuffer grow(LongBuffer buffer) {
+        if (buffer.capacity() > MAX_LONGS / 2) {
+            throw new IllegalStateException("Position index is full with " + size + " entries");
+        }
+        LongBuffer larger = allocate(2 * buffer.capacity());
+        larger.put(buffer.duplicate().clear());
+        larger.clear();
+        return larger;
+    }
+}
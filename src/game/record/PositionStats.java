@@ -0,0 +1,32 @@
+package game.record;
+
+/**
+ * The outcome of the archived games that reached a position, see {@link GameDatabase#stats}.
+ *
+ * @param games       the number of games that reached the position
+ * @param player1Wins the number of these games won by the first player
+ * @param player2Wins the number of these games won by the second player
+ * @param draws       the number of these games that ended in a draw
+ */
+public record PositionStats(int games, int player1Wins, int player2Wins, int draws) {
+
+    /**
+     * Returns the share of points a player scored from the position, counting a draw as half a win.
+     *
+     * @param player the player, 1 or 2
+     * @return the score between 0 and 1, or 0.5 if no game reached the position
+     */
+    public double score(int player) {
+        if (games == 0) {
+            return 0.5;
+        }
+        int wins = player == 1 ? player1Wins : player2Wins;
+        return (wins + draws / 2.0) / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games: player 1 scored %.1f%%, player 2 %.1f%% (%d wins, %d losses, %d draws)",
+                games, 100 * score(1), 100 * score(2), player1Wins, player2Wins, draws);
+    }
+}
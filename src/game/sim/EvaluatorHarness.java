@@ -0,0 +1,136 @@
+package game.sim;
+
+import game.ai.eval.Evaluators;
+import game.ai.eval.IEvaluator;
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreUndoMovesException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the evaluators of {@link game.ai.eval}: how many positions each evaluates per second,
+ * and how strong a negamax search using it plays against the same search without an evaluator.
+ * <p>
+ * Speed is measured on random positions of the standard board that are neither won nor full.
+ * Strength is measured with {@link SelfPlay}: half of the games are played with the evaluator
+ * moving first, half with it moving second, each after a few random opening moves.
+ * <p>
+ * Usage: {@code java game.sim.EvaluatorHarness [evaluators] [depth] [games] [threads] [baseline]},
+ * by default all evaluators, comma-separated, at depth 6 in 200 games on all available processors
+ * against {@code none}.
+ */
+public class EvaluatorHarness {
+
+    /**
+     * the number of random opening moves of every game
+     */
+    private static final int OPENING_PLIES = 2;
+
+    public static void main(String[] args) {
+        String[] evaluators = args.length > 0 ? args[0].split(",")
+                : Evaluators.NAMES.subList(1, Evaluators.NAMES.size()).toArray(new String[0]);
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        String baseline = args.length > 4 ? args[4] : "none";
+
+        List<IVierGewinntModel> positions = randomPositions(4096, 42);
+        System.out.printf("negamax:%d against negamax:%d:%s, %d games, %d threads%n",
+                depth, depth, baseline, games, threads);
+        for (String name : evaluators) {
+            double speed = evaluationsPerSecond(Evaluators.parse(name), positions, 1000);
+            double score = score(name, baseline, depth, games, threads);
+            System.out.printf("%-8s %12.0f evaluations/s, scored %.1f%%%n", name, speed, 100 * score);
+        }
+    }
+
+    /**
+     * Plays random games and collects positions from them.
+     *
+     * @param count the number of positions
+     * @param seed  the seed of the random moves
+     * @return positions of the standard board that are neither won nor full, each in a model of its own
+     */
+    public static List<IVierGewinntModel> randomPositions(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<IVierGewinntModel> positions = new ArrayList<>(count);
+        try {
+            while (positions.size() < count) {
+                IVierGewinntModel model = new BitboardVierGewinntModel();
+                int plies = random.nextInt(4, 36);
+                while (model.getMoveCount() < plies) {
+                    int col = random.nextInt(model.getWidth());
+                    if (!model.isValidMove(col)) {
+                        continue;
+                    }
+                    model.play(col);
+                    if (!model.gameWon().isEmpty()) {
+                        model.undo();
+                        break;
+                    }
+                }
+                if (!model.isGameOver()) {
+                    positions.add(model);
+                }
+            }
+        } catch (InvalidMoveException | NoMoreUndoMovesException e) {
+            throw new IllegalStateException("Only valid moves are played and undone", e);
+        }
+        return positions;
+    }
+
+    /**
+     * Measures how fast an evaluator scores positions.
+     *
+     * @param evaluator the evaluator
+     * @param positions the positions to evaluate, over and over
+     * @param millis    the time to measure, after as long a warm-up
+     * @return the number of positions evaluated per second
+     */
+    public static double evaluationsPerSecond(IEvaluator evaluator, List<IVierGewinntModel> positions, long millis) {
+        long sink = 0;
+        double speed = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            long end = start + millis * 1_000_000;
+            long evaluations = 0;
+            do {
+                for (IVierGewinntModel position : positions) {
+                    sink += evaluator.evaluate(position);
+                }
+                evaluations += positions.size();
+            } while (System.nanoTime() < end);
+            speed = evaluations * 1e9 / (System.nanoTime() - start);
+        }
+        // keeps the evaluations from being optimised away
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink);
+        }
+        return speed;
+    }
+
+    /**
+     * Plays negamax with an evaluator against negamax with the baseline evaluator.
+     *
+     * @param evaluator the name of the evaluator to measure
+     * @param baseline  the name of the evaluator of the opponent
+     * @param depth     the search depth of both players
+     * @param games     the number of games, half with each player moving first
+     * @param threads   the number of games played at once
+     * @return the share of points scored by the evaluator, counting a draw as half a win
+     */
+    public static double score(String evaluator, String baseline, int depth, int games, int threads) {
+        String player = "negamax:" + depth + ":" + evaluator;
+        String opponent = "negamax:" + depth + ":" + baseline;
+        SimulationResult first = new SelfPlay(SelfPlay.parsePlayer(player), SelfPlay.parsePlayer(opponent),
+                SelfPlay.parseModel("bitboard"), threads, OPENING_PLIES, 42).run(games / 2);
+        SimulationResult second = new SelfPlay(SelfPlay.parsePlayer(opponent), SelfPlay.parsePlayer(player),
+                SelfPlay.parseModel("bitboard"), threads, OPENING_PLIES, 43).run(games - games / 2);
+        double points = first.player1Wins() + second.player2Wins() + (first.draws() + second.draws()) / 2.0;
+        return points / Math.max(1, games);
+    }
+}
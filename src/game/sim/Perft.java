@@ -0,0 +1,154 @@
+package game.sim;
+
+import game.model.IVierGewinntModel;
+import game.model.Moves;
+import game.model.exceptions.InvalidMoveException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Counts the move sequences of a given length from a position ("perft"), to verify the move
+ * generation and win detection of the models against known numbers and to measure how many
+ * moves per second they play and take back.
+ * <p>
+ * A sequence ends early when a move wins the game: the won position counts if it is reached at
+ * the full length, but is not played on. Until the first win is possible at ply 7, every
+ * sequence of the empty board is valid, so the counts are powers of seven.
+ * <p>
+ * Usage: {@code java game.sim.Perft [depth] [moves] [model] [threads]}, by default depth 8 from
+ * the empty board on the {@code bitboard} model with all available processors. The moves are the
+ * columns played before counting, numbered from 1 as in the usual notation, e.g. {@code 4453};
+ * {@code -} stands for the empty board. Every depth up to the given one is counted and timed.
+ */
+public class Perft {
+
+    private Perft() {
+    }
+
+    public static void main(String[] args) throws InvalidMoveException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        String moves = args.length > 1 ? args[1] : "-";
+        String model = args.length > 2 ? args[2] : "bitboard";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        IVierGewinntModel position = SelfPlay.parseModel(model).get();
+        playMoves(position, moves);
+        System.out.printf("%s model, moves %s, %d threads%n", model, moves, threads);
+        System.out.printf("%6s %14s %10s %14s%n", "depth", "nodes", "ms", "nodes/s");
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = perft(position, d, threads);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%6d %14d %10d %14d%n", d, nodes, nanos / 1_000_000,
+                    nodes * 1_000_000_000L / Math.max(1, nanos));
+        }
+    }
+
+    /**
+     * Plays a sequence of moves in the usual notation.
+     *
+     * @param model the model to play on
+     * @param moves the columns to play, numbered from 1, or {@code -} for none
+     * @throws InvalidMoveException if a column is full or does not exist
+     */
+    public static void playMoves(IVierGewinntModel model, String moves) throws InvalidMoveException {
+        if (moves.equals("-")) {
+            return;
+        }
+        for (char move : moves.toCharArray()) {
+            model.play(Character.digit(move, Character.MAX_RADIX) - 1);
+        }
+    }
+
+    /**
+     * Counts the move sequences of the given length from the position of the model.
+     *
+     * @param model the model holding the position, which is restored before returning
+     * @param depth the length of the sequences, 0 or more
+     * @return the number of sequences
+     */
+    public static long perft(IVierGewinntModel model, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (depth == 1) {
+            return Integer.bitCount(model.getLegalMoves());
+        }
+        long nodes = 0;
+        for (int legal = model.getLegalMoves(); legal != 0; legal &= legal - 1) {
+            int move = model.tryPlay(Integer.numberOfTrailingZeros(legal));
+            if (!Moves.isWin(move)) {
+                nodes += perft(model, depth - 1);
+            }
+            model.undoUnchecked();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the move sequences of the given length, separately for every first move.
+     *
+     * @param model the model holding the position, which is restored before returning
+     * @param depth the length of the sequences, 1 or more
+     * @return the number of sequences starting with each column, 0 for full columns
+     */
+    public static long[] divide(IVierGewinntModel model, int depth) {
+        long[] nodes = new long[model.getWidth()];
+        for (int col = 0; col < model.getWidth(); col++) {
+            int move = model.tryPlay(col);
+            if (Moves.isValid(move)) {
+                nodes[col] = depth == 1 || !Moves.isWin(move) ? perft(model, depth - 1) : 0;
+                model.undoUnchecked();
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the move sequences of the given length, with the subtrees of the first moves counted
+     * in parallel on copies of the model.
+     *
+     * @param model   the model holding the position, which is not changed
+     * @param depth   the length of the sequences, 1 or more
+     * @param threads the number of threads counting at once
+     * @return the number of sequences
+     */
+    public static long perft(IVierGewinntModel model, int depth, int threads) {
+        if (threads == 1 || depth < 2) {
+            return perft(model, depth);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "perft");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> subtrees = new ArrayList<>();
+            for (int col = 0; col < model.getWidth(); col++) {
+                if (model.isValidMove(col)) {
+                    IVierGewinntModel copy = model.fork();
+                    boolean won = Moves.isWin(copy.tryPlay(col));
+                    subtrees.add(pool.submit(() -> won ? 0L : perft(copy, depth - 1)));
+                }
+            }
+            long nodes = 0;
+            for (Future<Long> subtree : subtrees) {
+                nodes += subtree.get();
+            }
+            return nodes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while counting", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+}
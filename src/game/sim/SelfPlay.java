@@ -0,0 +1,387 @@
+package game.sim;
+
+import game.ai.IVierGewinntAI;
+import game.ai.MonteCarloAI;
+import game.ai.NegamaxAI;
+import game.ai.RandomAI;
+import game.ai.TranspositionTable;
+import game.ai.eval.Evaluators;
+import game.ai.eval.IEvaluator;
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import game.record.GameRecord;
+import game.record.GameRecordWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Plays complete games between two computer players without a view, to measure how many games
+ * and moves per second the models and AIs manage and how long the AIs take per move.
+ * <p>
+ * The games run in parallel on a pool of threads. Every thread creates its own players once and
+ * keeps them for all its games, as the AIs are not thread-safe. The first moves of every game can
+ * be played at random, so that deterministic players do not play the same game over and over;
+ * these moves are chosen with a seed derived from the number of the game, so a batch always plays
+ * the same openings.
+ * <p>
+ * Finished games can be archived with {@link #record(GameRecordWriter, String, String)}.
+ * <p>
+ * Usage: {@code java game.sim.SelfPlay [games] [player1] [player2] [threads] [openingPlies] [model]
+ * [width] [height] [winLength] [records]}, by default 1000 games of {@code random} against
+ * {@code random} on all available processors with 0 random opening plies on the {@code bitboard}
+ * model of the standard 7x6 board with four in a row. Players are {@code random},
+ * {@code negamax:<depth>[:<evaluator>]} or {@code mcts:<iterations>}; models {@code bitboard} or
+ * {@code array}.
+ * Boards too large for a bitboard need the {@code array} model. If a record file is given, the
+ * games are appended to it.
+ */
+public class SelfPlay {
+
+    /**
+     * creates the first player, once per thread
+     */
+    private final Supplier<IVierGewinntAI> player1;
+
+    /**
+     * creates the second player, once per thread
+     */
+    private final Supplier<IVierGewinntAI> player2;
+
+    /**
+     * creates the model of every game
+     */
+    private final Supplier<IVierGewinntModel> models;
+
+    /**
+     * the number of games played at once
+     */
+    private final int threads;
+
+    /**
+     * the number of random moves at the start of every game
+     */
+    private final int openingPlies;
+
+    /**
+     * the seed the random opening moves are derived from
+     */
+    private final long seed;
+
+    /**
+     * archives the finished games, or null
+     */
+    private GameRecordWriter recorder;
+
+    /**
+     * the names of the players in the archived games
+     */
+    private String name1;
+    private String name2;
+
+    /**
+     * Creates a simulator.
+     *
+     * @param player1      creates the first player, once per thread
+     * @param player2      creates the second player, once per thread
+     * @param models       creates the model of every game
+     * @param threads      the number of games played at once
+     * @param openingPlies the number of random moves at the start of every game
+     * @param seed         the seed the random opening moves are derived from
+     */
+    public SelfPlay(Supplier<IVierGewinntAI> player1, Supplier<IVierGewinntAI> player2,
+                    Supplier<IVierGewinntModel> models, int threads, int openingPlies, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1 but was " + threads);
+        }
+        if (openingPlies < 0) {
+            throw new IllegalArgumentException("Number of opening plies must not be negative but was " + openingPlies);
+        }
+        this.player1 = player1;
+        this.player2 = player2;
+        this.models = models;
+        this.threads = threads;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        String player1 = args.length > 1 ? args[1] : "random";
+        String player2 = args.length > 2 ? args[2] : "random";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int openingPlies = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        String model = args.length > 5 ? args[5] : "bitboard";
+        int width = args.length > 6 ? Integer.parseInt(args[6]) : 7;
+        int height = args.length > 7 ? Integer.parseInt(args[7]) : 6;
+        int winLength = args.length > 8 ? Integer.parseInt(args[8]) : 4;
+
+        SelfPlay selfPlay = new SelfPlay(parsePlayer(player1), parsePlayer(player2),
+                parseModel(model, width, height, winLength), threads, openingPlies, 42);
+        System.out.printf("%s against %s on the %s model, %dx%d board, %d in a row, %d threads%n",
+                player1, player2, model, width, height, winLength, threads);
+        if (args.length > 9) {
+            try (GameRecordWriter writer = GameRecordWriter.open(Path.of(args[9]))) {
+                selfPlay.record(writer, player1, player2);
+                System.out.print(selfPlay.run(games));
+            }
+        } else {
+            System.out.print(selfPlay.run(games));
+        }
+    }
+
+    /**
+     * Archives all games played by later calls of {@link #run(int)}. The writer is not closed.
+     *
+     * @param writer  the file to append the games to, or null to stop archiving
+     * @param player1 the name of the first player in the records
+     * @param player2 the name of the second player in the records
+     */
+    public void record(GameRecordWriter writer, String player1, String player2) {
+        this.recorder = writer;
+        this.name1 = player1;
+        this.name2 = player2;
+    }
+
+    /**
+     * Creates the factory of a player from its description.
+     * Random players of different threads get different seeds.
+     *
+     * @param description {@code random}, {@code negamax:<depth>[:<evaluator>]} or {@code mcts:<iterations>},
+     *                    with an evaluator name of {@link Evaluators#NAMES}, {@code parity} by default
+     * @return a factory creating a new player on every call
+     */
+    public static Supplier<IVierGewinntAI> parsePlayer(String description) {
+        String[] parts = description.split(":", 3);
+        return switch (parts[0]) {
+            case "random" -> {
+                AtomicLong seeds = new AtomicLong();
+                yield () -> new RandomAI(seeds.incrementAndGet());
+            }
+            case "negamax" -> {
+                int depth = parseParameter(description, parts);
+                IEvaluator evaluator = parts.length > 2 ? Evaluators.parse(parts[2]) : NegamaxAI.DEFAULT_EVALUATOR;
+                yield () -> new NegamaxAI(depth, new TranspositionTable(NegamaxAI.DEFAULT_TABLE_SIZE), evaluator);
+            }
+            case "mcts" -> {
+                int iterations = parseParameter(description, parts);
+                AtomicLong seeds = new AtomicLong();
+                yield () -> new MonteCarloAI(MonteCarloAI.DEFAULT_EXPLORATION, iterations, 1, seeds.incrementAndGet());
+            }
+            default -> throw new IllegalArgumentException("Unknown player " + description);
+        };
+    }
+
+    /**
+     * Reads the number after the colon of a player description.
+     *
+     * @param description the whole description, for the error message
+     * @param parts       the description split at the colon
+     * @return the number
+     */
+    private static int parseParameter(String description, String[] parts) {
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Missing parameter of player " + description);
+        }
+        return Integer.parseInt(parts[1]);
+    }
+
+    /**
+     * Creates the factory of a model from its name.
+     *
+     * @param name {@code bitboard} or {@code array}
+     * @return a factory creating a new empty model on every call
+     */
+    public static Supplier<IVierGewinntModel> parseModel(String name) {
+        return parseModel(name, 7, 6, 4);
+    }
+
+    /**
+     * Creates the factory of a model of the given geometry from its name.
+     *
+     * @param name      {@code bitboard} or {@code array}
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param winLength the number of chips in a row needed to win
+     * @return a factory creating a new empty model on every call
+     */
+    public static Supplier<IVierGewinntModel> parseModel(String name, int width, int height, int winLength) {
+        Supplier<IVierGewinntModel> models = switch (name) {
+            case "bitboard" -> () -> new BitboardVierGewinntModel(width, height, winLength);
+            case "array" -> () -> new VierGewinntModel(width, height, winLength);
+            default -> throw new IllegalArgumentException("Unknown model " + name);
+        };
+        // fail now rather than in the first game if the geometry is not supported
+        models.get();
+        return models;
+    }
+
+    /**
+     * Plays the given number of games and waits until all of them are finished.
+     *
+     * @param games the number of games to play
+     * @return the outcome and statistics of the games
+     */
+    public SimulationResult run(int games) {
+        ThreadLocal<IVierGewinntAI> players1 = ThreadLocal.withInitial(player1);
+        ThreadLocal<IVierGewinntAI> players2 = ThreadLocal.withInitial(player2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "self-play");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<PlayedGame>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                int game = i;
+                futures.add(pool.submit(() -> play(game, players1.get(), players2.get())));
+            }
+            List<PlayedGame> records = new ArrayList<>(games);
+            for (Future<PlayedGame> future : futures) {
+                records.add(future.get());
+            }
+            return summarize(records, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while playing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one game from the empty board to its end.
+     *
+     * @param game    the number of the game, from which the random opening moves are derived
+     * @param player1 the first player
+     * @param player2 the second player
+     * @return the outcome and the time the players took per move
+     * @throws InvalidMoveException if a player chose an invalid column
+     * @throws NoMoreMovesException if a player was asked for a move on a full board
+     * @throws IOException if the game could not be archived
+     */
+    private PlayedGame play(int game, IVierGewinntAI player1, IVierGewinntAI player2)
+            throws InvalidMoveException, NoMoreMovesException, IOException {
+        long startMillis = System.currentTimeMillis();
+        IVierGewinntModel model = models.get();
+        int slots = model.getWidth() * model.getHeight();
+        long[] latencies1 = new long[(slots + 1) / 2];
+        long[] latencies2 = new long[slots / 2];
+        int moves1 = 0;
+        int moves2 = 0;
+        SplittableRandom random = new SplittableRandom(seed + game * 0x9E3779B97F4A7C15L);
+        while (model.gameWon().isEmpty() && !model.isGameOver()) {
+            if (model.getMoveCount() < openingPlies) {
+                model.play(randomColumn(model, random));
+            } else if (model.isPlayerTurn()) {
+                long moveStart = System.nanoTime();
+                int col = player1.findBestMove(model);
+                latencies1[moves1++] = System.nanoTime() - moveStart;
+                model.play(col);
+            } else {
+                long moveStart = System.nanoTime();
+                int col = player2.findBestMove(model);
+                latencies2[moves2++] = System.nanoTime() - moveStart;
+                model.play(col);
+            }
+        }
+        int winner = model.gameWon().isEmpty() ? 0 : model.getOpposingPlayer();
+        if (recorder != null) {
+            recorder.write(GameRecord.of(model, name1, name2, startMillis,
+                    sum(latencies1, moves1) / 1000, sum(latencies2, moves2) / 1000));
+        }
+        return new PlayedGame(winner, model.getMoveCount(), Arrays.copyOf(latencies1, moves1), Arrays.copyOf(latencies2, moves2));
+    }
+
+    /**
+     * Adds up the first values of an array.
+     *
+     * @param values the values
+     * @param count  the number of values to add up
+     * @return the sum
+     */
+    private static long sum(long[] values, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Chooses a random valid column for the opening moves.
+     *
+     * @param model  the model holding the current position, which is not over yet
+     * @param random the random number generator of the game
+     * @return the chosen column
+     */
+    private static int randomColumn(IVierGewinntModel model, SplittableRandom random) {
+        int col;
+        do {
+            col = random.nextInt(model.getWidth());
+        } while (!model.isValidMove(col));
+        return col;
+    }
+
+    /**
+     * Adds up the records of all games.
+     *
+     * @param records the records of the games
+     * @param nanos   the wall clock time of all games
+     * @return the outcome and statistics of the games
+     */
+    private static SimulationResult summarize(List<PlayedGame> records, long nanos) {
+        int[] results = new int[3];
+        long moves = 0;
+        int count1 = 0;
+        int count2 = 0;
+        for (PlayedGame record : records) {
+            results[record.winner()]++;
+            moves += record.moves();
+            count1 += record.latencies1().length;
+            count2 += record.latencies2().length;
+        }
+        long[] latencies1 = new long[count1];
+        long[] latencies2 = new long[count2];
+        count1 = 0;
+        count2 = 0;
+        for (PlayedGame record : records) {
+            System.arraycopy(record.latencies1(), 0, latencies1, count1, record.latencies1().length);
+            count1 += record.latencies1().length;
+            System.arraycopy(record.latencies2(), 0, latencies2, count2, record.latencies2().length);
+            count2 += record.latencies2().length;
+        }
+        Arrays.sort(latencies1);
+        Arrays.sort(latencies2);
+        return new SimulationResult(records.size(), moves, results[1], results[2], results[0], nanos,
+                latencies1, latencies2);
+    }
+
+    /**
+     * The outcome of one game.
+     *
+     * @param winner     the winning player, or 0 for a draw
+     * @param moves      the number of moves played
+     * @param latencies1 the time the first player took for each of its moves
+     * @param latencies2 the time the second player took for each of its moves
+     */
+    private record PlayedGame(int winner, int moves, long[] latencies1, long[] latencies2) {
+    }
+}
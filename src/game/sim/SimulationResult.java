@@ -0,0 +1,57 @@
+package game.sim;
+
+/**
+ * The outcome and statistics of a batch of games played by {@link SelfPlay}.
+ *
+ * @param games       the number of games played
+ * @param moves       the number of moves played in all games, including random opening moves
+ * @param player1Wins the number of games won by the first player
+ * @param player2Wins the number of games won by the second player
+ * @param draws       the number of drawn games
+ * @param nanos       the wall clock time of the whole batch
+ * @param latencies1  the time the first player took for each of its moves in nanoseconds, sorted
+ * @param latencies2  the time the second player took for each of its moves in nanoseconds, sorted
+ */
+public record SimulationResult(int games, long moves, int player1Wins, int player2Wins, int draws, long nanos,
+                               long[] latencies1, long[] latencies2) {
+
+    public double gamesPerSecond() {
+        return games * 1e9 / Math.max(1, nanos);
+    }
+
+    public double movesPerSecond() {
+        return moves * 1e9 / Math.max(1, nanos);
+    }
+
+    /**
+     * Returns a percentile of the time a player took per move.
+     *
+     * @param player     the player, 1 or 2
+     * @param percentile the percentile, between 0 and 100
+     * @return the time in nanoseconds that this share of the player's moves did not exceed, or 0 if
+     * the player made no moves
+     */
+    public long latency(int player, double percentile) {
+        long[] latencies = player == 1 ? latencies1 : latencies2;
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+        return latencies[Math.max(0, Math.min(latencies.length, rank) - 1)];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d games, %d moves in %d ms: %.1f games/s, %.0f moves/s%n",
+                games, moves, nanos / 1_000_000, gamesPerSecond(), movesPerSecond()));
+        report.append(String.format("player 1 won %.1f%%, player 2 won %.1f%%, draws %.1f%%%n",
+                100.0 * player1Wins / games, 100.0 * player2Wins / games, 100.0 * draws / games));
+        for (int player = 1; player <= 2; player++) {
+            report.append(String.format("player %d latency per move: p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us%n",
+                    player, latency(player, 50) / 1e3, latency(player, 90) / 1e3,
+                    latency(player, 99) / 1e3, latency(player, 100) / 1e3));
+        }
+        return report.toString();
+    }
+}
@@ -1,20 +1,34 @@
 package game.view;
+import game.log.GameEvent;
 import game.model.Move;
+import game.model.Position;
 
 import java.util.List;
 
 /**
  * Interface representing the view of a "Vier Gewinnt" (Connect Four) game.
  * Implementations of this interface are responsible for displaying the game to the user.
+ * <p>
+ * The controller tells the view what to show with {@link #publish(RenderState)}, from any thread.
+ * The drawing methods are called by the view itself, on its rendering thread, when it draws the
+ * state published last.
  */
 public interface IVierGewinntView {
 
+    /**
+     * Hands a new state to be shown to the view. Only the latest state is drawn, so states
+     * published faster than the view draws them are skipped.
+     *
+     * @param state The state to show.
+     */
+    void publish(RenderState state);
+
     /**
      * Draws the game tiles on the screen based on the provided game board.
      *
-     * @param board A 2D array representing the game board.
+     * @param board A snapshot of the game board.
      */
-    void drawTiles(int[][] board);
+    void drawTiles(Position board);
 
     /**
      * Displays help or instructions to the user.
@@ -27,11 +41,11 @@ public interface IVierGewinntView {
     void displayStart();
 
     /**
-     * Logs an event or message for the user.
+     * Shows the latest events of the game in the log panel.
      *
-     * @param event The event or message to be logged.
+     * @param events The events, oldest first.
      */
-    void log(String event);
+    void log(List<GameEvent> events);
 
     /**
      * Displays the winning moves on the game board.
@@ -43,18 +57,17 @@ public interface IVierGewinntView {
     /**
      * Draws game pieces on the screen based on the provided game board.
      *
-     * @param board A 2D array representing the game board.
+     * @param board A snapshot of the game board.
      */
-    void drawPieces(int[][] board);
+    void drawPieces(Position board);
 
     /**
      * Displays the game board along with game-related information.
      *
-     * @param board        A 2D array representing the game board.
-     * @param isPlayerTurn `true` if it's the player's turn, `false` otherwise.
-     * @param position     The current position in the game.
+     * @param board    A snapshot of the game board, which also tells whose turn it is.
+     * @param position The column of the chip to be played.
      */
-    void displayBoard(int[][] board, boolean isPlayerTurn, int position);
+    void displayBoard(Position board, int position);
 
     /**
      * Draws a game piece at a specific position on the game board.
@@ -0,0 +1,117 @@
+package game.view;
+
+import game.log.GameEvent;
+import game.model.Move;
+import game.model.Position;
+
+import java.util.List;
+
+/**
+ * Everything the view shows at one moment. The controller hands a new state to the view with
+ * {@link IVierGewinntView#publish(RenderState)} whenever something changes, and the view draws the
+ * latest one in its own frame loop. A state never changes once published, so it can be built on
+ * any thread and drawn on another.
+ *
+ * @param screen       The screen to show.
+ * @param board        A snapshot of the game board, or null if no game was started yet.
+ * @param selector     The column of the chip to be played.
+ * @param lastMove     The move that led to the board, dropped into it by the view, or null if
+ *                     the board did not change by a move.
+ * @param winningMoves The chips marked on the board as the winning line, empty if there are none.
+ * @param winner       The result shown over the board: 1 or 2 for the winner, 0 for a draw, -1 for none.
+ * @param log          The latest events, shown in the log panel, oldest first; empty for none.
+ */
+public record RenderState(Screen screen, Position board, int selector, Move lastMove, List<Move> winningMoves,
+                          int winner, List<GameEvent> log) {
+
+    /**
+     * The number of the latest events shown in the log panel.
+     */
+    public static final int LOG_LINES = 3;
+
+    /**
+     * The screens of the game.
+     */
+    public enum Screen {
+        /**
+         * the start screen, to choose how to play
+         */
+        START,
+        /**
+         * the help screen
+         */
+        HELP,
+        /**
+         * the board of the game
+         */
+        BOARD
+    }
+
+    /**
+     * The state at the start of the program.
+     */
+    public static final RenderState START = new RenderState(Screen.START, null, 0, null, List.of(), -1, List.of());
+
+    /**
+     * Creates a state.
+     */
+    public RenderState {
+        winningMoves = List.copyOf(winningMoves);
+        log = List.copyOf(log);
+    }
+
+    /**
+     * Returns this state with another screen shown. Start and help cover the whole window, so
+     * the log panel is cleared with them.
+     *
+     * @param screen The screen to show.
+     * @return The new state.
+     */
+    public RenderState withScreen(Screen screen) {
+        List<GameEvent> shownLog = screen == Screen.BOARD ? log : List.of();
+        return new RenderState(screen, board, selector, null, winningMoves, winner, shownLog);
+    }
+
+    /**
+     * Returns this state showing a board without winning moves or result.
+     *
+     * @param board    A snapshot of the game board.
+     * @param selector The column of the chip to be played.
+     * @param lastMove The move that led to the board, or null.
+     * @return The new state.
+     */
+    public RenderState withBoard(Position board, int selector, Move lastMove) {
+        return new RenderState(Screen.BOARD, board, selector, lastMove, List.of(), -1, log);
+    }
+
+    /**
+     * Returns this state with the winning moves marked on the board.
+     *
+     * @param winningMoves The winning line, empty for none.
+     * @return The new state.
+     */
+    public RenderState withWinningMoves(List<Move> winningMoves) {
+        return new RenderState(screen, board, selector, lastMove, winningMoves, winner, log);
+    }
+
+    /**
+     * Returns this state with the result of the game shown over the board.
+     *
+     * @param winner       1 or 2 for the winner, 0 for a draw.
+     * @param winningMoves The winning line, empty for a draw.
+     * @return The new state.
+     */
+    public RenderState withResult(int winner, List<Move> winningMoves) {
+        return new RenderState(screen, board, selector, lastMove, winningMoves, winner, log);
+    }
+
+    /**
+     * Returns this state with other events in the log panel.
+     *
+     * @param log The latest events, oldest first.
+     * @return The new state.
+     */
+    public RenderState withLog(List<GameEvent> log) {
+        return new RenderState(screen, board, selector, lastMove, winningMoves, winner, log);
+    }
+}
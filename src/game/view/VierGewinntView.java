@@ -1,22 +1,98 @@
 package game.view;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import game.controller.IVierGewinntController;
 import game.controller.VierGewinntController ;
+import game.log.GameEvent;
 import game.model.Move;
+import game.model.Position;
 import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
 
 /**
  * Class implementing the view for a "Vier Gewinnt" (Connect Four) game using the Processing library.
  * This class is responsible for displaying the game to the user.
+ * <p>
+ * The parts of the screen that never change are drawn only once: the empty grid into an offscreen
+ * image, and the start and help screens into images of their own. While the board stays on the
+ * screen, {@link #displayBoard(Position, int)} only redraws the cells that differ from the position
+ * shown last and the header with the selector chip, so a key press costs the same on any board.
+ * <p>
+ * Nothing is drawn while handling a key or a move of the AI. The controller publishes a
+ * {@link RenderState} instead, and {@link #draw()} draws the state published last, at most
+ * {@value #FRAMES_PER_SECOND} times a second and only if it changed. The published state and the
+ * state on the screen form a double buffer: publishing never waits for drawing, and drawing
+ * always sees a complete state. A chip just played drops into its slot over a few frames.
  */
 public class VierGewinntView extends PApplet implements IVierGewinntView {
+    /**
+     * The size of a cell of the board in pixels.
+     */
+    private static final int CELL = 100;
+
+    /**
+     * The number of frames drawn per second.
+     */
+    static final int FRAMES_PER_SECOND = 60;
+
+    /**
+     * The time a chip takes to drop from the header into its slot, in milliseconds.
+     */
+    static final int DROP_MILLIS = 180;
+
     /**
      * The game controller associated with this view.
      */
     IVierGewinntController controller;
 
+    /**
+     * The header and the empty cells of the board, drawn once per board size.
+     */
+    private PGraphics grid;
+
+    /**
+     * The start screen, drawn when it is first shown.
+     */
+    private PImage startScreen;
+
+    /**
+     * The help screen, drawn when it is first shown.
+     */
+    private PImage helpScreen;
+
+    /**
+     * The position on the screen, or null if something else was drawn over the board since.
+     */
+    private Position shown;
+
+    /**
+     * The number of rows of the board shown last.
+     */
+    private int rows = 6;
+
+    /**
+     * The state published last, to be drawn with the next frame.
+     */
+    private volatile RenderState published = RenderState.START;
+
+    /**
+     * The state drawn last, or null before the first frame. Only used by the rendering thread.
+     */
+    private RenderState front;
+
+    /**
+     * The state whose last move is dropping into the board, or null. Only used by the rendering thread.
+     */
+    private RenderState dropping;
+
+    /**
+     * The {@code millis()} at which the dropping chip left the header.
+     */
+    private int dropStart;
+
     /**
      * Main method to launch the game view using Processing.
      *
@@ -40,6 +116,7 @@ public class VierGewinntView extends PApplet implements IVierGewinntView {
     @Override
     public void setup() {
         background(0);
+        frameRate(FRAMES_PER_SECOND);
         this.controller = new VierGewinntController(this);
         controller.startScreen();
     }
@@ -47,21 +124,40 @@ public class VierGewinntView extends PApplet implements IVierGewinntView {
     /**
      * Draws the game tiles on the screen based on the provided game board.
      *
-     * @param board A 2D array representing the game board.
+     * @param board A snapshot of the game board.
      */
     @Override
-    public void drawTiles(int[][] board) {
-        fill(100, 100, 100);
-        for (int j = 0; j < board[0].length; j++) {
-            rect(0, 0, 700, 100);
-        }
-        fill(255);
-        for (int i = 1; i < board[0].length; i++) {
-            for (int j = 0; j < 7; j++) {
-                rect((float) j * 100, (float) i * 100, 100, 100);
+    public void drawTiles(Position board) {
+        if (grid == null || grid.width != board.getWidth() * CELL || grid.height != (board.getHeight() + 1) * CELL) {
+            grid = createGraphics(board.getWidth() * CELL, (board.getHeight() + 1) * CELL);
+            grid.beginDraw();
+            grid.fill(100, 100, 100);
+            grid.rect(0, 0, grid.width, CELL);
+            grid.fill(255);
+            for (int i = 1; i <= board.getHeight(); i++) {
+                for (int j = 0; j < board.getWidth(); j++) {
+                    grid.rect((float) j * CELL, (float) i * CELL, CELL, CELL);
+                }
             }
+            grid.endDraw();
         }
+        image(grid, 0, 0);
+        rows = board.getHeight();
+        shown = null;
+    }
 
+    /**
+     * Draws a screen into an image of the size of the window.
+     *
+     * @param painter draws the screen onto the image
+     * @return the image
+     */
+    private PImage render(Consumer<PGraphics> painter) {
+        PGraphics screen = createGraphics(width, height);
+        screen.beginDraw();
+        painter.accept(screen);
+        screen.endDraw();
+        return screen;
     }
 
     /**
@@ -69,14 +165,27 @@ public class VierGewinntView extends PApplet implements IVierGewinntView {
      */
     @Override
     public void displayHelp() {
-        fill(100, 100, 100);
-        rect(0, 0, 700, 800);
-        fill(200, 200, 0);
-        textSize(50);
-        text("Welcome to connect four", 10, 50);
-        fill(200);
-        textSize(30);
-        text("""
+        if (helpScreen == null) {
+            helpScreen = render(this::paintHelp);
+        }
+        image(helpScreen, 0, 0);
+        shown = null;
+    }
+
+    /**
+     * Draws the help screen.
+     *
+     * @param screen the image to draw on
+     */
+    private void paintHelp(PGraphics screen) {
+        screen.fill(100, 100, 100);
+        screen.rect(0, 0, 700, 800);
+        screen.fill(200, 200, 0);
+        screen.textSize(50);
+        screen.text("Welcome to connect four", 10, 50);
+        screen.fill(200);
+        screen.textSize(30);
+        screen.text("""
                 The four arrow keys are used to play this game.
                 To move a chip, press the left and right arrow keys
                 To play a chip, press the down arrow key
@@ -96,16 +205,29 @@ public class VierGewinntView extends PApplet implements IVierGewinntView {
      */
     @Override
     public void displayStart() {
-        fill(100, 100, 100);
-        rect(0, 0, 700, 800);
-        fill(200, 200, 0);
-        textSize(50);
+        if (startScreen == null) {
+            startScreen = render(this::paintStart);
+        }
+        image(startScreen, 0, 0);
+        shown = null;
+    }
 
-        text("Welcome to connect four", 10, 50);
-        fill(200);
+    /**
+     * Draws the start screen.
+     *
+     * @param screen the image to draw on
+     */
+    private void paintStart(PGraphics screen) {
+        screen.fill(100, 100, 100);
+        screen.rect(0, 0, 700, 800);
+        screen.fill(200, 200, 0);
+        screen.textSize(50);
 
-        textSize(30);
-        text("""
+        screen.text("Welcome to connect four", 10, 50);
+        screen.fill(200);
+
+        screen.textSize(30);
+        screen.text("""
                 Press
                  1.    To Play with a friend
                  OR
@@ -115,18 +237,20 @@ public class VierGewinntView extends PApplet implements IVierGewinntView {
     }
 
     /**
-     * Logs an event or message for the user.
+     * Shows the latest events of the game in the log panel, one line each.
      *
-     * @param event The event or message to be logged.
+     * @param events The events, oldest first.
      */
     @Override
-    public void log(String event) {
+    public void log(List<GameEvent> events) {
         fill(255, 0, 0);
         rect(0, 700, 700, 100);
         fill(70, 70, 70);
         textSize(20);
-        text(String.format("Logger info%n%s:", event), 10, 720);
-        System.out.println(event);
+        text("Logger info", 10, 720);
+        for (int i = 0; i < events.size(); i++) {
+            text(events.get(i).message(), 10, 744 + i * 24);
+        }
     }
 
     /**
@@ -138,43 +262,103 @@ public class VierGewinntView extends PApplet implements IVierGewinntView {
     public void displayWinningMoves(List<Move> moves) {
         fill(0, 0, 0); // winning moves color
         for (Move move : moves) {
-            ellipse((move.column() * 100) + 50, ((6 - move.row()) * 100) + 50, 20, 20);
+            ellipse((move.column() * CELL) + 50, ((rows - move.row()) * CELL) + 50, 20, 20);
         }
+        shown = null;
     }
 
     /**
      * Draws game pieces on the screen based on the provided game board.
      *
-     * @param board A 2D array representing the game board.
+     * @param board A snapshot of the game board.
      */
     @Override
-    public void drawPieces(int[][] board) {
-        for (int i = 5, w = 1; i >= 0; i--, w++) {
-            for (int j = 0; j < 7; j++) {
-                if (board[i][j] == 1) {
-                    fill(255, 0, 0);
-                    ellipse((j * 100) + 50, (w * 100) + 50, 60, 60);
-                }
-                if (board[i][j] == 2) {
-                    fill(255, 255, 0);
-                    ellipse((j * 100) + 50, (w * 100) + 50, 60, 60);
+    public void drawPieces(Position board) {
+        for (int i = board.getHeight() - 1; i >= 0; i--) {
+            for (int j = 0; j < board.getWidth(); j++) {
+                drawPiece(board, i, j);
+            }
+        }
+    }
+
+    /**
+     * Draws the piece in a cell, if there is one.
+     *
+     * @param board A snapshot of the game board.
+     * @param row   The row of the cell, 0 at the bottom.
+     * @param col   The column of the cell.
+     */
+    private void drawPiece(Position board, int row, int col) {
+        int player = board.get(row, col);
+        if (player == 0) {
+            return;
+        }
+        if (player == 1) {
+            fill(255, 0, 0);
+        } else {
+            fill(255, 255, 0);
+        }
+        ellipse((col * CELL) + 50, ((board.getHeight() - row) * CELL) + 50, 60, 60);
+    }
+
+    /**
+     * Redraws the cells whose piece differs between two snapshots of a board of the same size.
+     * One move or undo changes a single cell.
+     *
+     * @param before The snapshot on the screen.
+     * @param after  The snapshot to be shown.
+     */
+    private void drawChangedCells(Position before, Position after) {
+        int height = after.getHeight();
+        if (after.getWidth() * (height + 1) <= Long.SIZE) {
+            long changed = (before.getMask(1) ^ after.getMask(1)) | (before.getMask(2) ^ after.getMask(2));
+            for (; changed != 0; changed &= changed - 1) {
+                int index = Long.numberOfTrailingZeros(changed);
+                drawCell(after, index % (height + 1), index / (height + 1));
+            }
+            return;
+        }
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < after.getWidth(); j++) {
+                if (before.get(i, j) != after.get(i, j)) {
+                    drawCell(after, i, j);
                 }
             }
         }
     }
 
     /**
-     * Displays the game board along with game-related information.
+     * Draws a cell of the board with its piece, if there is one.
      *
-     * @param board        A 2D array representing the game board.
-     * @param isPlayerTurn `true` if it's the player's turn, `false` otherwise.
-     * @param position     The current position in the game.
+     * @param board A snapshot of the game board.
+     * @param row   The row of the cell, 0 at the bottom.
+     * @param col   The column of the cell.
+     */
+    private void drawCell(Position board, int row, int col) {
+        fill(255);
+        rect((float) col * CELL, (float) (board.getHeight() - row) * CELL, CELL, CELL);
+        drawPiece(board, row, col);
+    }
+
+    /**
+     * Displays the game board along with game-related information. If the board is still on the
+     * screen, only the cells changed since and the header are redrawn.
+     *
+     * @param board    A snapshot of the game board, which also tells whose turn it is.
+     * @param position The column of the chip to be played.
      */
     @Override
-    public void displayBoard(int[][] board, boolean isPlayerTurn, int position) {
-        this.drawTiles(board);
-        this.drawPieces(board);
-        this.drawPiecePosition(position, isPlayerTurn);
+    public void displayBoard(Position board, int position) {
+        if (shown == null || shown.getWidth() != board.getWidth() || shown.getHeight() != board.getHeight()) {
+            this.drawTiles(board);
+            this.drawPieces(board);
+        } else {
+            this.drawChangedCells(shown, board);
+            fill(100, 100, 100);
+            rect(0, 0, (float) board.getWidth() * CELL, CELL);
+        }
+        shown = board;
+        this.drawPiecePosition(position, board.isPlayerTurn());
     }
 
     /**
@@ -194,11 +378,143 @@ public class VierGewinntView extends PApplet implements IVierGewinntView {
     }
 
     /**
-     * Overrides the `draw` method to register pressed keys and refresh the screen when needed.
+     * Hands a new state to the view. May be called from any thread; the state is drawn with the next frame.
+     *
+     * @param state The state to show.
+     */
+    @Override
+    public void publish(RenderState state) {
+        published = state;
+    }
+
+    /**
+     * Draws the state published last if it is not on the screen yet, and moves the dropping chip.
      */
     @Override
     public void draw() {
-        // needed to register pressed keys and refresh screen when needed
+        RenderState next = published;
+        if (dropping != null) {
+            // the drop goes on while only the selector or the log changed
+            boolean sameBoard = next.screen() == RenderState.Screen.BOARD && next.board().equals(dropping.board());
+            if (sameBoard && millis() - dropStart < DROP_MILLIS) {
+                drawDrop(next);
+                return;
+            }
+            endDrop();
+            if (sameBoard) {
+                // the chip arrived in its slot
+                render(next);
+                front = next;
+                return;
+            }
+        }
+        if (next == front) {
+            return;
+        }
+        if (startsDrop(next)) {
+            dropping = next;
+            dropStart = millis();
+            drawDrop(next);
+            return;
+        }
+        render(next);
+        front = next;
+    }
+
+    /**
+     * Draws a state as a whole.
+     *
+     * @param state The state to show.
+     */
+    private void render(RenderState state) {
+        switch (state.screen()) {
+            case START -> displayStart();
+            case HELP -> displayHelp();
+            case BOARD -> {
+                displayBoard(state.board(), state.selector());
+                if (!state.winningMoves().isEmpty()) {
+                    displayWinningMoves(state.winningMoves());
+                }
+                if (state.winner() != -1) {
+                    displayWinner(state.winner());
+                }
+            }
+        }
+        if (!state.log().isEmpty()) {
+            log(state.log());
+        }
+    }
+
+    /**
+     * Checks if the last move of a state can be shown by dropping the chip into the board on the
+     * screen, which is the case if the move is the only difference between them.
+     *
+     * @param state The state to show.
+     * @return true if the chip of the last move is to be dropped
+     */
+    private boolean startsDrop(RenderState state) {
+        Move move = state.lastMove();
+        if (move == null || shown == null || state.screen() != RenderState.Screen.BOARD) {
+            return false;
+        }
+        Position board = state.board();
+        return board.getWidth() == shown.getWidth() && board.getHeight() == shown.getHeight()
+                && board.getPly() == shown.getPly() + 1
+                && shown.get(move.row(), move.column()) == 0 && board.get(move.row(), move.column()) != 0;
+    }
+
+    /**
+     * Draws a frame of the dropping chip: the column as it is on the screen, the chip above its
+     * slot and the header with the selector of the state.
+     *
+     * @param state The state to show once the chip arrived.
+     */
+    private void drawDrop(RenderState state) {
+        Move move = dropping.lastMove();
+        drawColumn(move.column());
+        float progress = Math.min(1, (millis() - dropStart) / (float) DROP_MILLIS);
+        float target = (shown.getHeight() - move.row()) * CELL;
+        if (dropping.board().get(move.row(), move.column()) == 1) {
+            fill(255, 0, 0);
+        } else {
+            fill(255, 255, 0);
+        }
+        // falls faster and faster, as if dropped
+        ellipse((move.column() * CELL) + 50, progress * progress * target + 50, 60, 60);
+        fill(100, 100, 100);
+        rect(0, 0, (float) shown.getWidth() * CELL, CELL);
+        drawPiecePosition(state.selector(), state.board().isPlayerTurn());
+    }
+
+    /**
+     * Stops the dropping chip, leaving its column as it was before the drop, so that the next
+     * frame draws the chip in its slot with the rest of the state.
+     */
+    private void endDrop() {
+        drawColumn(dropping.lastMove().column());
+        dropping = null;
+    }
+
+    /**
+     * Redraws the cells of a column as they are on the screen.
+     *
+     * @param col The column.
+     */
+    private void drawColumn(int col) {
+        for (int i = 0; i < shown.getHeight(); i++) {
+            drawCell(shown, i, col);
+        }
+    }
+
+    /**
+     * Closes the game controller when the sketch shuts down, so that the last game events are written.
+     */
+    @Override
+    public void dispose() {
+        if (controller != null) {
+            controller.close();
+        }
+        super.dispose();
     }
 
     /**
@@ -220,6 +536,7 @@ public class VierGewinntView extends PApplet implements IVierGewinntView {
      */
     @Override
     public void displayWinner(int winner) {
+        shown = null;
         fill(0, 20, 20);
         rect(100, 300, 500, 200);
         fill(0, 200, 0);
@@ -0,0 +1,65 @@
+package test;
+
+import game.controller.AIExecutor;
+import game.model.Move;
+import game.model.exceptions.NoMoreMovesException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AIExecutorTest {
+
+    @Test
+    public void testAllModes() throws ExecutionException, InterruptedException {
+        for (AIExecutor.Mode mode : AIExecutor.Mode.values()) {
+            try (AIExecutor executor = new AIExecutor(mode, 2, 4)) {
+                CompletableFuture<Move> future = executor.submit(() -> new Move(0, 3));
+                assertEquals(new Move(0, 3), future.get());
+            }
+        }
+    }
+
+    @Test
+    public void testParseMode() {
+        assertEquals(AIExecutor.Mode.VIRTUAL, AIExecutor.Mode.parse("virtual"));
+        assertEquals(AIExecutor.Mode.SINGLE, AIExecutor.Mode.parse("SINGLE"));
+        assertThrows(IllegalArgumentException.class, () -> AIExecutor.Mode.parse("threads"));
+    }
+
+    @Test
+    public void testExceptionCompletesFuture() throws InterruptedException {
+        try (AIExecutor executor = new AIExecutor(AIExecutor.Mode.SINGLE)) {
+            CompletableFuture<Move> future = executor.submit(() -> {
+                throw new NoMoreMovesException();
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause() instanceof NoMoreMovesException);
+        }
+    }
+
+    @Test
+    public void testCapacity() throws ExecutionException, InterruptedException {
+        try (AIExecutor executor = new AIExecutor(AIExecutor.Mode.SINGLE, 1, 2)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Move> first = executor.submit(() -> {
+                release.await(10, TimeUnit.SECONDS);
+                return new Move(0, 0);
+            });
+            CompletableFuture<Move> second = executor.submit(() -> new Move(0, 1));
+            CompletableFuture<Move> third = executor.submit(() -> new Move(0, 2));
+            ExecutionException e = assertThrows(ExecutionException.class, third::get);
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+            release.countDown();
+            assertEquals(new Move(0, 0), first.get());
+            assertEquals(new Move(0, 1), second.get());
+            // the permits are free again
+            assertEquals(new Move(0, 2), executor.submit(() -> new Move(0, 2)).get());
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package test;
+
+import game.model.BitboardVierGewinntModel;
+import game.model.Move;
+import game.model.Moves;
+import game.model.Position;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import game.model.exceptions.NoMoreUndoMovesException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitboardVierGewinntModelTest {
+
+    private BitboardVierGewinntModel model;
+
+    @BeforeEach
+    public void setUp() {
+        model = new BitboardVierGewinntModel();
+    }
+
+    @Test
+    public void testInitialConditions() {
+        int[][] board = model.getBoard();
+        assertEquals(6, board.length);
+        assertEquals(7, board[0].length);
+        assertTrue(model.isPlayerTurn());
+        assertTrue(model.gameWon().isEmpty());
+    }
+
+    @Test
+    public void testPlayFillsColumnFromTheBottom() throws InvalidMoveException {
+        assertEquals(new Move(0, 3), model.play(3));
+        assertEquals(new Move(1, 3), model.play(3));
+        int[][] board = model.getBoard();
+        assertEquals(1, board[0][3]);
+        assertEquals(2, board[1][3]);
+        assertEquals(0, board[2][3]);
+    }
+
+    @Test
+    public void testInvalidMove() {
+        assertThrows(InvalidMoveException.class, () -> model.play(7));
+        assertThrows(InvalidMoveException.class, () -> model.play(-1));
+    }
+
+    @Test
+    public void testFullColumnIsInvalid() throws InvalidMoveException {
+        for (int i = 0; i < model.getHeight(); i++) {
+            model.play(0);
+        }
+        assertThrows(InvalidMoveException.class, () -> model.play(0));
+    }
+
+    @Test
+    public void testUndoMove() throws InvalidMoveException, NoMoreUndoMovesException {
+        model.play(4);
+        model.play(4);
+        assertEquals(new Move(1, 4), model.undo());
+        assertFalse(model.isPlayerTurn());
+        assertEquals(new Move(0, 4), model.undo());
+        assertTrue(model.isPlayerTurn());
+        assertArrayEquals(new int[6][7], model.getBoard());
+    }
+
+    @Test
+    public void testNoMoreUndoMoves() {
+        assertThrows(NoMoreUndoMovesException.class, () -> model.undo());
+    }
+
+    @Test
+    public void testIsGameOver() throws InvalidMoveException {
+        assertFalse(model.isGameOver());
+        for (int col = 0; col < model.getWidth(); col++) {
+            for (int row = 0; row < model.getHeight(); row++) {
+                model.play(col);
+            }
+        }
+        assertTrue(model.isGameOver());
+        assertThrows(NoMoreMovesException.class, () -> model.playRandom());
+    }
+
+    @Test
+    public void testGameWonHorizontal() throws InvalidMoveException {
+        for (int i = 0; i < 4; i++) {
+            model.play(i);
+            model.play(i);
+        }
+        assertEquals(4, model.gameWon().size());
+    }
+
+    @Test
+    public void testGameWonVertical() throws InvalidMoveException {
+        for (int i = 0; i < 4; i++) {
+            model.play(0);
+            model.play(1);
+        }
+        assertEquals(4, model.gameWon().size());
+    }
+
+    @Test
+    public void testAscendingDiagonalWin() throws InvalidMoveException {
+        int[] columns = {3, 2, 2, 1, 1, 0, 1, 0, 0, 4, 0};
+        for (int col : columns) {
+            model.play(col);
+        }
+        assertEquals(List.of(new Move(3, 0), new Move(2, 1), new Move(1, 2), new Move(0, 3)), model.gameWon());
+    }
+
+    @Test
+    public void testGameWonOnlyReportsPreviousPlayer() throws InvalidMoveException {
+        for (int i = 0; i < 3; i++) {
+            model.play(0);
+            model.play(1);
+        }
+        model.play(0);
+        assertEquals(4, model.gameWon().size());
+        model.play(2);
+        assertTrue(model.gameWon().isEmpty());
+    }
+
+    @Test
+    public void testMatchesVierGewinntModel() throws Exception {
+        Random random = new Random(42);
+        for (int game = 0; game < 200; game++) {
+            VierGewinntModel reference = new VierGewinntModel();
+            model = new BitboardVierGewinntModel();
+            while (!model.isGameOver() && model.gameWon().isEmpty()) {
+                int col = random.nextInt(model.getWidth());
+                if (reference.getBoard()[model.getHeight() - 1][col] != 0) {
+                    assertThrows(InvalidMoveException.class, () -> model.play(col));
+                    continue;
+                }
+                assertEquals(reference.play(col), model.play(col));
+                assertArrayEquals(reference.getBoard(), model.getBoard());
+                assertEquals(reference.isPlayerTurn(), model.isPlayerTurn());
+                assertEquals(reference.getHash(), model.getHash());
+                assertEquals(reference.getMoveCount(), model.getMoveCount());
+                assertEquals(reference.isGameOver(), model.isGameOver());
+                assertEquals(new HashSet<>(reference.gameWon()), new HashSet<>(model.gameWon()));
+            }
+            while (true) {
+                try {
+                    assertEquals(reference.undo(), model.undo());
+                } catch (NoMoreUndoMovesException e) {
+                    assertThrows(NoMoreUndoMovesException.class, () -> model.undo());
+                    break;
+                }
+                assertArrayEquals(reference.getBoard(), model.getBoard());
+            }
+        }
+    }
+
+    @Test
+    public void testHashOfTranspositionsIsEqual() throws InvalidMoveException, NoMoreUndoMovesException {
+        long empty = model.getHash();
+        model.play(2);
+        model.play(3);
+        model.play(4);
+        long hash = model.getHash();
+        assertNotEquals(empty, hash);
+
+        BitboardVierGewinntModel other = new BitboardVierGewinntModel();
+        other.play(4);
+        other.play(3);
+        other.play(2);
+        assertEquals(hash, other.getHash());
+
+        VierGewinntModel reference = new VierGewinntModel();
+        reference.play(2);
+        reference.play(3);
+        reference.play(4);
+        assertEquals(hash, reference.getHash());
+
+        model.undo();
+        model.undo();
+        model.undo();
+        assertEquals(empty, model.getHash());
+    }
+
+    @Test
+    public void testHashDependsOnPlayer() throws InvalidMoveException {
+        BitboardVierGewinntModel other = new BitboardVierGewinntModel();
+        model.play(0);
+        model.play(1);
+        other.play(1);
+        other.play(0);
+        assertNotEquals(model.getHash(), other.getHash());
+    }
+
+    @Test
+    public void testForkIsIndependent() throws InvalidMoveException, NoMoreUndoMovesException {
+        model.play(3);
+        model.play(4);
+        BitboardVierGewinntModel copy = model.fork();
+        assertEquals(model.getHash(), copy.getHash());
+        assertArrayEquals(model.getBoard(), copy.getBoard());
+
+        copy.play(3);
+        assertNotEquals(model.getHash(), copy.getHash());
+        assertEquals(0, model.getBoard()[1][3]);
+        assertEquals(new Move(1, 3), copy.undo());
+        assertEquals(new Move(0, 4), copy.undo());
+        assertEquals(new Move(0, 4), model.undo());
+    }
+
+    @Test
+    public void testPublishedPosition() throws InvalidMoveException, NoMoreUndoMovesException {
+        Position empty = model.getPosition();
+        assertEquals(0, empty.getPly());
+        assertTrue(empty.isPlayerTurn());
+        model.play(3);
+        model.play(3);
+        // moves are only visible once published
+        assertSame(empty, model.getPosition());
+        Position position = model.publish();
+        assertSame(position, model.getPosition());
+        assertEquals(2, position.getPly());
+        assertTrue(position.isPlayerTurn());
+        assertEquals(model.getHash(), position.getHash());
+        assertEquals(1, position.get(0, 3));
+        assertEquals(2, position.get(1, 3));
+        assertEquals(0, position.get(2, 3));
+        assertEquals(1L << 21, position.getMask(1));
+        assertArrayEquals(model.getBoard(), position.toBoard());
+        model.undo();
+        assertEquals(2, position.get(1, 3));
+        assertSame(position, model.fork().getPosition());
+        model.undo();
+        assertEquals(empty, model.publish());
+    }
+
+    @Test
+    public void testConnectFiveOnLargerBoard() throws InvalidMoveException {
+        model = new BitboardVierGewinntModel(8, 7, 5);
+        assertEquals(8, model.getWidth());
+        assertEquals(7, model.getHeight());
+        assertEquals(5, model.getWinLength());
+        for (int i = 0; i < 4; i++) {
+            model.play(i);
+            model.play(i);
+        }
+        assertTrue(model.gameWon().isEmpty());
+        model.play(4);
+        assertEquals(5, model.gameWon().size());
+    }
+
+    @Test
+    public void testBoardTooLargeForBitboard() {
+        assertThrows(IllegalArgumentException.class, () -> new BitboardVierGewinntModel(9, 8, 5));
+        assertThrows(IllegalArgumentException.class, () -> new BitboardVierGewinntModel(0, 6, 4));
+        assertThrows(IllegalArgumentException.class, () -> new BitboardVierGewinntModel(7, 6, 0));
+    }
+
+    @Test
+    public void testMatchesVierGewinntModelOnOtherGeometries() throws InvalidMoveException {
+        int[][] geometries = {{8, 7, 5}, {5, 4, 3}, {4, 12, 4}, {16, 3, 6}};
+        Random random = new Random(11);
+        for (int[] geometry : geometries) {
+            for (int game = 0; game < 100; game++) {
+                VierGewinntModel reference = new VierGewinntModel(geometry[0], geometry[1], geometry[2]);
+                model = new BitboardVierGewinntModel(geometry[0], geometry[1], geometry[2]);
+                while (!model.isGameOver() && model.gameWon().isEmpty()) {
+                    int col = random.nextInt(model.getWidth());
+                    if (!reference.isValidMove(col)) {
+                        assertFalse(model.isValidMove(col));
+                        continue;
+                    }
+                    assertEquals(reference.play(col), model.play(col));
+                    assertArrayEquals(reference.getBoard(), model.getBoard());
+                    assertEquals(reference.getHash(), model.getHash());
+                    assertEquals(reference.publish(), model.publish());
+                    assertArrayEquals(reference.getBoard(), model.getPosition().toBoard());
+                    assertEquals(new HashSet<>(reference.gameWon()), new HashSet<>(model.gameWon()));
+                    assertEquals(new HashSet<>(reference.gameWonFullScan()), new HashSet<>(model.gameWon()));
+                }
+                assertEquals(reference.isGameOver(), model.isGameOver());
+            }
+        }
+    }
+
+    @Test
+    public void testPackedMovesMatchVierGewinntModel() {
+        int[][] geometries = {{7, 6, 4}, {5, 4, 3}, {16, 3, 6}};
+        Random random = new Random(21);
+        for (int[] geometry : geometries) {
+            for (int game = 0; game < 100; game++) {
+                VierGewinntModel reference = new VierGewinntModel(geometry[0], geometry[1], geometry[2]);
+                model = new BitboardVierGewinntModel(geometry[0], geometry[1], geometry[2]);
+                int move = 0;
+                while (!Moves.isWin(move) && !Moves.isFull(move)) {
+                    assertEquals(reference.getLegalMoves(), model.getLegalMoves());
+                    int col = random.nextInt(model.getWidth() + 1) - 1;
+                    move = reference.tryPlay(col);
+                    assertEquals(move, model.tryPlay(col), Moves.toString(move));
+                    assertEquals(!reference.gameWon().isEmpty(), Moves.isWin(move));
+                    assertEquals(reference.getHash(), model.getHash());
+                }
+                while (model.getMoveCount() > 0) {
+                    assertEquals(reference.undoUnchecked(), model.undoUnchecked());
+                    assertEquals(reference.getHash(), model.getHash());
+                }
+                assertEquals(0, model.getHash());
+                assertEquals((1 << geometry[0]) - 1, model.getLegalMoves());
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package test;
+
+import game.ai.NegamaxAI;
+import game.ai.TranspositionTable;
+import game.ai.eval.CellTableEvaluator;
+import game.ai.eval.Evaluators;
+import game.ai.eval.IEvaluator;
+import game.ai.eval.OpenThreeEvaluator;
+import game.ai.eval.ThreatParityEvaluator;
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import game.model.exceptions.NoMoreUndoMovesException;
+import game.sim.EvaluatorHarness;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluatorTest {
+
+    /**
+     * Counts the free slots that complete a line for a player, slot by slot.
+     */
+    private static int countThreats(IVierGewinntModel model, int player) {
+        int[][] board = model.getBoard();
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        int threats = 0;
+        for (int row = 0; row < model.getHeight(); row++) {
+            for (int col = 0; col < model.getWidth(); col++) {
+                if (board[row][col] != 0) {
+                    continue;
+                }
+                for (int[] direction : directions) {
+                    int length = 1 + countChips(board, player, row, col, direction[0], direction[1])
+                            + countChips(board, player, row, col, -direction[0], -direction[1]);
+                    if (length >= model.getWinLength()) {
+                        threats++;
+                        break;
+                    }
+                }
+            }
+        }
+        return threats;
+    }
+
+    private static int countChips(int[][] board, int player, int row, int col, int dRow, int dCol) {
+        int count = 0;
+        for (int r = row + dRow, c = col + dCol; r >= 0 && r < board.length && c >= 0 && c < board[0].length
+                && board[r][c] == player; r += dRow, c += dCol) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Plays random moves until shortly before the game ends, stopping before a winning move.
+     */
+    private static IVierGewinntModel randomPosition(IVierGewinntModel model, SplittableRandom random)
+            throws InvalidMoveException, NoMoreUndoMovesException {
+        int plies = random.nextInt(model.getWidth() * model.getHeight() - 2);
+        while (model.getMoveCount() < plies) {
+            int col = random.nextInt(model.getWidth());
+            if (model.isValidMove(col)) {
+                model.play(col);
+                if (!model.gameWon().isEmpty()) {
+                    model.undo();
+                    break;
+                }
+            }
+        }
+        return model;
+    }
+
+    private static void assertThreatsCounted(int width, int height, int winLength) throws Exception {
+        SplittableRandom random = new SplittableRandom(width * 100 + height);
+        IEvaluator evaluator = new OpenThreeEvaluator();
+        for (int i = 0; i < 500; i++) {
+            IVierGewinntModel model = randomPosition(new BitboardVierGewinntModel(width, height, winLength), random);
+            int toMove = model.isPlayerTurn() ? 1 : 2;
+            int expected = 32 * (countThreats(model, toMove) - countThreats(model, 3 - toMove));
+            assertEquals(expected, evaluator.evaluate(model), model.publish().toString());
+        }
+    }
+
+    @Test
+    public void testThreatsOfFourInARow() throws Exception {
+        assertThreatsCounted(7, 6, 4);
+    }
+
+    @Test
+    public void testThreatsOfOtherLengths() throws Exception {
+        assertThreatsCounted(6, 5, 3);
+        assertThreatsCounted(8, 6, 5);
+    }
+
+    @Test
+    public void testEmptyBoardIsEven() {
+        for (String name : Evaluators.NAMES) {
+            assertEquals(0, Evaluators.parse(name).evaluate(new BitboardVierGewinntModel()), name);
+        }
+    }
+
+    @Test
+    public void testCenterIsWorthMost() throws InvalidMoveException {
+        IEvaluator evaluator = new CellTableEvaluator();
+        IVierGewinntModel center = new BitboardVierGewinntModel();
+        center.play(3);
+        IVierGewinntModel corner = new BitboardVierGewinntModel();
+        corner.play(0);
+        // the second player is to move and behind
+        assertEquals(-7, evaluator.evaluate(center));
+        assertEquals(-3, evaluator.evaluate(corner));
+    }
+
+    @Test
+    public void testSameScoreOnEveryModel() throws Exception {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 200; i++) {
+            IVierGewinntModel bitboard = randomPosition(new BitboardVierGewinntModel(), random);
+            IVierGewinntModel array = new VierGewinntModel();
+            for (int col : bitboard.getMoves()) {
+                array.play(col);
+            }
+            for (String name : Evaluators.NAMES) {
+                IEvaluator evaluator = Evaluators.parse(name);
+                assertEquals(evaluator.evaluate(bitboard), evaluator.evaluate(array), name);
+            }
+        }
+    }
+
+    @Test
+    public void testThreatParity() throws InvalidMoveException {
+        IEvaluator parity = new ThreatParityEvaluator();
+        IEvaluator cells = new CellTableEvaluator();
+
+        // the first player threatens the bottom row, an odd one, and is to move
+        IVierGewinntModel odd = new BitboardVierGewinntModel();
+        for (int col : new int[]{0, 6, 1, 6, 2, 5}) {
+            odd.play(col);
+        }
+        assertEquals(64, parity.evaluate(odd) - cells.evaluate(odd));
+
+        // the first player threatens the second row, above a threat of the second player in the first row
+        IVierGewinntModel even = new BitboardVierGewinntModel();
+        for (int col : new int[]{6, 0, 0, 1, 1, 2, 2}) {
+            even.play(col);
+        }
+        assertEquals(0, parity.evaluate(even) - cells.evaluate(even));
+    }
+
+    @Test
+    public void testLargeBoardIsNotEvaluated() throws InvalidMoveException {
+        IVierGewinntModel model = new VierGewinntModel(9, 9, 4);
+        model.play(4);
+        assertEquals(0, new ThreatParityEvaluator().evaluate(model));
+        assertThrows(IllegalStateException.class, () -> model.getMask(1));
+    }
+
+    @Test
+    public void testSearchWithEvaluator() throws InvalidMoveException, NoMoreMovesException {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        for (int i = 0; i < 3; i++) {
+            model.play(0);
+            model.play(6);
+        }
+        for (String name : Evaluators.NAMES) {
+            NegamaxAI ai = new NegamaxAI(6, new TranspositionTable(1 << 12), Evaluators.parse(name));
+            assertEquals(0, ai.findBestMove(model), name);
+        }
+    }
+
+    @Test
+    public void testHarness() {
+        List<IVierGewinntModel> positions = EvaluatorHarness.randomPositions(100, 1);
+        assertEquals(100, positions.size());
+        for (IVierGewinntModel position : positions) {
+            assertTrue(position.gameWon().isEmpty());
+            assertFalse(position.isGameOver());
+        }
+        assertTrue(EvaluatorHarness.evaluationsPerSecond(new CellTableEvaluator(), positions, 10) > 0);
+    }
+}
@@ -0,0 +1,131 @@
+package test;
+
+import game.log.EventLog;
+import game.log.GameEvent;
+import game.log.LogWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+
+    /**
+     * Collects the events and the number of dropped events read from a log.
+     */
+    private static final class Collector implements EventLog.Reader {
+        final List<GameEvent> events = new ArrayList<>();
+        long dropped;
+
+        @Override
+        public void event(GameEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void dropped(long count) {
+            dropped += count;
+        }
+    }
+
+    @Test
+    public void testTailKeepsTheLatestEvents() {
+        EventLog log = new EventLog(4);
+        assertTrue(log.tail(3).isEmpty());
+        for (int i = 0; i < 10; i++) {
+            log.log(GameEvent.Type.MOVE, "move " + i);
+        }
+        assertEquals(10, log.size());
+        List<GameEvent> tail = log.tail(3);
+        assertEquals(List.of("move 7", "move 8", "move 9"), tail.stream().map(GameEvent::message).toList());
+        assertEquals(9, tail.get(2).sequence());
+        // no more than the capacity is kept
+        assertEquals(4, log.tail(100).size());
+    }
+
+    @Test
+    public void testMessagesAreSingleLines() {
+        EventLog log = new EventLog();
+        GameEvent event = log.log(GameEvent.Type.AI, "AI searched\nfor long\n");
+        assertEquals("AI searched for long", event.message());
+        assertTrue(event.format().endsWith(" AI AI searched for long"), event.format());
+    }
+
+    @Test
+    public void testReaderIsToldAboutDroppedEvents() {
+        EventLog log = new EventLog(8);
+        for (int i = 0; i < 20; i++) {
+            log.log(GameEvent.Type.INFO, "event " + i);
+        }
+        Collector collector = new Collector();
+        assertEquals(20, log.read(0, collector));
+        assertEquals(12, collector.dropped);
+        assertEquals(8, collector.events.size());
+        assertEquals(12, collector.events.get(0).sequence());
+
+        log.log(GameEvent.Type.INFO, "event 20");
+        collector.events.clear();
+        assertEquals(21, log.read(20, collector));
+        assertEquals("event 20", collector.events.get(0).message());
+    }
+
+    @Test
+    public void testConcurrentLogging() throws InterruptedException {
+        EventLog log = new EventLog(1 << 16);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    log.log(GameEvent.Type.MOVE, id + ":" + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Collector collector = new Collector();
+        assertEquals(40_000, log.read(0, collector));
+        assertEquals(0, collector.dropped);
+        assertEquals(40_000, collector.events.size());
+        int[] next = new int[threads.length];
+        for (int i = 0; i < collector.events.size(); i++) {
+            GameEvent event = collector.events.get(i);
+            assertEquals(i, event.sequence());
+            // the events of every thread are in the order they were logged
+            String[] parts = event.message().split(":");
+            assertEquals(next[Integer.parseInt(parts[0])]++, Integer.parseInt(parts[1]));
+        }
+    }
+
+    @Test
+    public void testWriterWritesBatches() {
+        EventLog log = new EventLog(16);
+        log.log(GameEvent.Type.INFO, "before the writer");
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        try (LogWriter writer = new LogWriter(log, first, second)) {
+            log.log(GameEvent.Type.MOVE, "Player RED played [0, 3]");
+            log.log(GameEvent.Type.RESULT, "Player 1 won");
+            writer.flush();
+            String[] lines = first.toString().split(System.lineSeparator());
+            assertEquals(2, lines.length);
+            assertTrue(lines[0].endsWith(" MOVE Player RED played [0, 3]"), lines[0]);
+            assertTrue(lines[1].endsWith(" RESULT Player 1 won"), lines[1]);
+            log.log(GameEvent.Type.INFO, "after the flush");
+        }
+        assertEquals(first.toString(), second.toString());
+        assertFalse(first.toString().contains("before the writer"));
+        assertTrue(first.toString().endsWith(" INFO after the flush" + System.lineSeparator()));
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new EventLog(0));
+        assertThrows(IllegalArgumentException.class, () -> new EventLog(1000));
+    }
+}
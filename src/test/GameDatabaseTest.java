@@ -0,0 +1,141 @@
+package test;
+
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import game.record.GameDatabase;
+import game.record.GameRecord;
+import game.record.GameRecordWriter;
+import game.record.PositionStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameDatabaseTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("games", ".vggr");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static GameRecord playRandom(IVierGewinntModel model) throws InvalidMoveException, NoMoreMovesException {
+        while (!model.isGameOver() && model.gameWon().isEmpty()) {
+            model.playRandom();
+        }
+        return GameRecord.of(model, "random", "random", 0, 0, 0);
+    }
+
+    @Test
+    public void testFindAndStats() throws Exception {
+        List<GameRecord> games = new ArrayList<>();
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            for (int i = 0; i < 300; i++) {
+                GameRecord game = playRandom(new BitboardVierGewinntModel());
+                games.add(game);
+                writer.write(game);
+            }
+        }
+        try (GameDatabase database = GameDatabase.open(file)) {
+            assertEquals(300, database.size());
+
+            PositionStats all = database.stats(new BitboardVierGewinntModel());
+            assertEquals(300, all.games());
+            assertEquals(games.stream().filter(game -> game.winner() == 1).count(), all.player1Wins());
+            assertEquals(games.stream().filter(game -> game.winner() == 0).count(), all.draws());
+
+            IVierGewinntModel model = new VierGewinntModel();
+            model.play(3);
+            model.play(2);
+            long expected = games.stream()
+                    .filter(game -> game.moves().length >= 2 && game.moves()[0] == 3 && game.moves()[1] == 2)
+                    .count();
+            int[] found = database.find(model);
+            assertEquals(expected, found.length);
+            for (int offset : found) {
+                GameRecord game = database.get(offset);
+                assertEquals(3, game.moves()[0]);
+                assertEquals(2, game.moves()[1]);
+                assertEquals(model.publish(), database.replay(offset, 2).getPosition());
+            }
+        }
+    }
+
+    @Test
+    public void testTranspositions() throws Exception {
+        try (GameDatabase database = GameDatabase.open(file)) {
+            database.add(new GameRecord(7, 6, 4, "a", "b", 0, 0, 0, 0, new byte[]{0, 1, 2, 3}));
+            database.add(new GameRecord(7, 6, 4, "a", "b", 0, 0, 0, 0, new byte[]{2, 3, 0, 1}));
+            database.add(new GameRecord(7, 6, 4, "a", "b", 0, 0, 0, 0, new byte[]{2, 1, 0, 3}));
+            // the same chips on a different board
+            database.add(new GameRecord(8, 6, 4, "a", "b", 0, 0, 0, 0, new byte[]{0, 1, 2, 3}));
+
+            IVierGewinntModel model = new BitboardVierGewinntModel();
+            for (int move : new int[]{0, 1, 2, 3}) {
+                model.play(move);
+            }
+            assertEquals(3, database.find(model).length);
+            model.undo();
+            model.undo();
+            // only the first game starts with 0, 1 on the 7x6 board
+            assertEquals(1, database.find(model).length);
+            model.play(3);
+            assertEquals(0, database.find(model).length);
+        }
+    }
+
+    @Test
+    public void testIncrementalAppend() throws Exception {
+        try (GameDatabase database = GameDatabase.open(file)) {
+            assertEquals(0, database.size());
+            try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+                writer.write(playRandom(new BitboardVierGewinntModel()));
+                writer.flush();
+                assertEquals(1, database.refresh());
+                writer.write(playRandom(new BitboardVierGewinntModel()));
+                writer.write(playRandom(new BitboardVierGewinntModel()));
+            }
+            assertEquals(2, database.refresh());
+            assertEquals(0, database.refresh());
+            assertEquals(3, database.size());
+            assertEquals(3, database.stats(new BitboardVierGewinntModel()).games());
+        }
+        try (GameDatabase database = GameDatabase.open(file)) {
+            assertEquals(3, database.size());
+        }
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        IVierGewinntModel played = new BitboardVierGewinntModel();
+        GameRecord game = playRandom(played);
+        try (GameDatabase database = GameDatabase.open(file)) {
+            database.add(game);
+            int offset = database.find(played)[0];
+            IVierGewinntModel replayed = database.replay(offset);
+            assertArrayEquals(played.getMoves(), replayed.getMoves());
+            assertEquals(played.getHash(), replayed.getHash());
+            assertEquals(played.gameWon().isEmpty(), replayed.gameWon().isEmpty());
+            assertEquals(0, database.replay(offset, 0).getMoveCount());
+            assertThrows(IllegalArgumentException.class, () -> database.replay(offset, game.moves().length + 1));
+            assertThrows(IllegalArgumentException.class, () -> database.get(offset + 1_000));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package test;
+
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.record.GameRecord;
+import game.record.GameRecordReader;
+import game.record.GameRecordWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameRecordTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("games", ".vggr");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static GameRecord record(int seed, int moveCount) {
+        byte[] moves = new byte[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            moves[i] = (byte) ((seed + i * 3) % 7);
+        }
+        return new GameRecord(7, 6, 4, "negamax:" + seed, "mcts:1000", seed % 3,
+                1_700_000_000_000L + seed, seed * 1000L, 1L << 40, moves);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<GameRecord> games = new ArrayList<>();
+        try (GameRecordWriter writer = GameRecordWriter.open(file, 1024)) {
+            for (int i = 0; i < 200; i++) {
+                GameRecord game = record(i, i % 43);
+                games.add(game);
+                writer.write(game);
+            }
+            assertEquals(200, writer.getCount());
+        }
+        GameRecordReader reader = GameRecordReader.open(file);
+        for (GameRecord game : games) {
+            assertTrue(reader.next());
+            assertEquals(game, reader.toRecord());
+            assertEquals(game.moves().length, reader.moveCount());
+        }
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void testRecordOfModel() throws InvalidMoveException, IOException {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        for (int move : new int[]{3, 3, 4, 4, 5, 5, 6}) {
+            model.play(move);
+        }
+        GameRecord game = GameRecord.of(model, "a", "b", 0, 1, 2);
+        assertEquals(1, game.winner());
+        assertArrayEquals(new byte[]{3, 3, 4, 4, 5, 5, 6}, game.moves());
+
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            writer.write(game);
+        }
+        GameRecordReader reader = GameRecordReader.open(file);
+        assertTrue(reader.next());
+        assertEquals(7, reader.moveCount());
+        assertEquals(6, reader.move(6));
+        assertEquals("b", reader.player2());
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.move(7));
+    }
+
+    @Test
+    public void testAppendDropsTornRecord() throws IOException {
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            writer.write(record(1, 42));
+            writer.write(record(2, 17));
+        }
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        GameRecordReader torn = GameRecordReader.open(file);
+        assertTrue(torn.next());
+        assertFalse(torn.next());
+
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            writer.write(record(3, 5));
+        }
+        GameRecordReader reader = GameRecordReader.open(file);
+        assertTrue(reader.next());
+        assertEquals(record(1, 42), reader.toRecord());
+        assertTrue(reader.next());
+        assertEquals(record(3, 5), reader.toRecord());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(record(i, 20 + i));
+            }
+        }
+        GameRecordReader reader = GameRecordReader.open(file);
+        int offset = -1;
+        while (reader.next()) {
+            if (reader.moveCount() == 25) {
+                offset = reader.offset();
+            }
+        }
+        reader.seek(offset);
+        assertTrue(reader.next());
+        assertEquals(record(5, 25), reader.toRecord());
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> GameRecordReader.open(file));
+        assertThrows(IOException.class, () -> GameRecordWriter.open(file));
+        assertThrows(IOException.class, () -> new GameRecordReader(ByteBuffer.allocate(2)));
+    }
+
+    @Test
+    public void testInvalidRecord() {
+        assertThrows(IllegalArgumentException.class, () -> new GameRecord(7, 6, 4, "a", "b", 3, 0, 0, 0, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new GameRecord(7, 6, 4, "a", "b", 0, 0, 0, 0, new byte[]{7}));
+        assertThrows(IllegalArgumentException.class, () -> new GameRecord(17, 6, 4, "a", "b", 0, 0, 0, 0, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new GameRecord(7, 6, 4, "x".repeat(256), "b", 0, 0, 0, 0, new byte[0]));
+    }
+}
@@ -0,0 +1,65 @@
+package test;
+
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.ModelPool;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModelPoolTest {
+
+    @Test
+    public void testReleasedModelIsReused() throws InvalidMoveException {
+        ModelPool pool = new ModelPool();
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        model.play(3);
+        IVierGewinntModel copy = pool.acquire(model);
+        assertNotSame(model, copy);
+        copy.play(3);
+        pool.release(copy);
+        assertEquals(1, pool.available());
+
+        model.play(2);
+        IVierGewinntModel reused = pool.acquire(model);
+        assertSame(copy, reused);
+        assertEquals(0, pool.available());
+        assertArrayEquals(new int[]{3, 2}, reused.getMoves());
+        assertEquals(model.getHash(), reused.getHash());
+        assertArrayEquals(model.getBoard(), reused.getBoard());
+    }
+
+    @Test
+    public void testOtherModelIsNotReused() {
+        ModelPool pool = new ModelPool();
+        pool.release(new BitboardVierGewinntModel(6, 5, 4));
+        IVierGewinntModel model = new VierGewinntModel();
+        IVierGewinntModel copy = pool.acquire(model);
+        assertTrue(copy instanceof VierGewinntModel);
+        assertEquals(0, pool.available());
+    }
+
+    @Test
+    public void testCapacity() {
+        ModelPool pool = new ModelPool(2);
+        for (int i = 0; i < 3; i++) {
+            pool.release(new BitboardVierGewinntModel());
+        }
+        assertEquals(2, pool.available());
+        assertThrows(IllegalArgumentException.class, () -> new ModelPool(-1));
+    }
+
+    @Test
+    public void testFreeListsArePerThread() throws InterruptedException {
+        ModelPool pool = new ModelPool();
+        pool.release(new BitboardVierGewinntModel());
+        int[] available = new int[1];
+        Thread thread = new Thread(() -> available[0] = pool.available());
+        thread.start();
+        thread.join();
+        assertEquals(0, available[0]);
+        assertEquals(1, pool.available());
+    }
+}
@@ -0,0 +1,118 @@
+package test;
+
+import game.ai.MonteCarloAI;
+import game.ai.SearchResult;
+import game.model.BitboardVierGewinntModel;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonteCarloAITest {
+
+    private BitboardVierGewinntModel model;
+
+    @BeforeEach
+    public void setUp() {
+        model = new BitboardVierGewinntModel();
+    }
+
+    @Test
+    public void testPlayoutRestoresModel() throws InvalidMoveException {
+        VierGewinntModel reference = new VierGewinntModel();
+        model.play(3);
+        reference.play(3);
+        long hash = model.getHash();
+        int[][] board = model.getBoard();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 1000; i++) {
+            int winner = model.playout(random);
+            assertTrue(winner >= 0 && winner <= 2);
+            winner = reference.playout(random);
+            assertTrue(winner >= 0 && winner <= 2);
+        }
+        assertEquals(hash, model.getHash());
+        assertEquals(hash, reference.getHash());
+        assertArrayEquals(board, model.getBoard());
+        assertArrayEquals(board, reference.getBoard());
+        assertFalse(model.isPlayerTurn());
+        assertFalse(reference.isPlayerTurn());
+    }
+
+    @Test
+    public void testPlayoutOfWonPosition() throws InvalidMoveException {
+        for (int i = 0; i < 3; i++) {
+            model.play(0);
+            model.play(1);
+        }
+        model.play(0);
+        assertEquals(1, model.playout(new SplittableRandom(1)));
+    }
+
+    @Test
+    public void testPlaysWinningMove() throws InvalidMoveException, NoMoreMovesException {
+        for (int i = 0; i < 3; i++) {
+            model.play(0);
+            model.play(6);
+        }
+        assertEquals(0, new MonteCarloAI(MonteCarloAI.DEFAULT_EXPLORATION, 5000, 1, 42).findBestMove(model));
+    }
+
+    @Test
+    public void testBlocksLosingMove() throws InvalidMoveException, NoMoreMovesException {
+        model.play(0);
+        model.play(6);
+        model.play(1);
+        model.play(6);
+        model.play(2);
+        long hash = model.getHash();
+        try (MonteCarloAI ai = new MonteCarloAI(MonteCarloAI.DEFAULT_EXPLORATION, 5000, 2, 42)) {
+            SearchResult result = ai.search(model, 0);
+            assertEquals(3, result.column());
+            assertEquals(10_000, result.nodes());
+        }
+        assertEquals(hash, model.getHash());
+    }
+
+    @Test
+    public void testTreeIsReused() throws InvalidMoveException, NoMoreMovesException {
+        MonteCarloAI ai = new MonteCarloAI(MonteCarloAI.DEFAULT_EXPLORATION, 2000, 1, 42);
+        int col = ai.findBestMove(model);
+        model.play(col);
+        model.play(col);
+        SearchResult result = ai.search(model, 0);
+        assertTrue(result.depth() > 0);
+        assertTrue(model.isValidMove(result.column()));
+    }
+
+    @Test
+    public void testSearchStopsAtDeadline() throws NoMoreMovesException {
+        try (MonteCarloAI ai = new MonteCarloAI(MonteCarloAI.DEFAULT_EXPLORATION, 1, 2, 42)) {
+            long start = System.nanoTime();
+            SearchResult result = ai.search(model, 50);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(millis < 1000, "search took " + millis + " ms");
+            assertTrue(result.nodes() > 1);
+        }
+    }
+
+    @Test
+    public void testCancelBeforeSearchStarts() throws NoMoreMovesException {
+        try (MonteCarloAI ai = new MonteCarloAI(MonteCarloAI.DEFAULT_EXPLORATION, 100_000_000, 2, 42)) {
+            int cancelCount = ai.getCancelCount();
+            ai.cancel();
+            long start = System.nanoTime();
+            SearchResult result = ai.search(model, 0, cancelCount);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(millis < 1000, "search took " + millis + " ms");
+            assertTrue(model.isValidMove(result.column()));
+            // a cancel before the count was read does not stop the next search
+            assertTrue(ai.search(model, 50).nodes() > 1);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package test;
+
+import game.ai.NegamaxAI;
+import game.ai.ParallelNegamaxAI;
+import game.ai.SearchResult;
+import game.ai.TimeBudget;
+import game.model.BitboardVierGewinntModel;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NegamaxAITest {
+
+    private BitboardVierGewinntModel model;
+
+    @BeforeEach
+    public void setUp() {
+        model = new BitboardVierGewinntModel();
+    }
+
+    @Test
+    public void testInvalidDepth() {
+        assertThrows(IllegalArgumentException.class, () -> new NegamaxAI(0));
+    }
+
+    @Test
+    public void testEmptyBoardPlaysCenter() throws NoMoreMovesException {
+        assertEquals(3, new NegamaxAI(8).findBestMove(model));
+        assertTrue(model.isPlayerTurn());
+        assertArrayEquals(new int[6][7], model.getBoard());
+    }
+
+    @Test
+    public void testPlaysWinningMove() throws InvalidMoveException, NoMoreMovesException {
+        for (int i = 0; i < 3; i++) {
+            model.play(0);
+            model.play(6);
+        }
+        assertEquals(0, new NegamaxAI(4).findBestMove(model));
+    }
+
+    @Test
+    public void testBlocksLosingMove() throws InvalidMoveException, NoMoreMovesException {
+        model.play(0);
+        model.play(6);
+        model.play(1);
+        model.play(6);
+        model.play(2);
+        assertEquals(3, new NegamaxAI(4).findBestMove(model));
+    }
+
+    @Test
+    public void testSameMoveOnEveryModel() throws InvalidMoveException, NoMoreMovesException {
+        VierGewinntModel reference = new VierGewinntModel();
+        int[] columns = {3, 3, 2, 4, 4};
+        for (int col : columns) {
+            model.play(col);
+            reference.play(col);
+        }
+        assertEquals(new NegamaxAI(8).findBestMove(reference), new NegamaxAI(8).findBestMove(model));
+    }
+
+    @Test
+    public void testNoMoreMoves() throws InvalidMoveException {
+        for (int col = 0; col < model.getWidth(); col++) {
+            for (int row = 0; row < model.getHeight(); row++) {
+                model.play(col);
+            }
+        }
+        assertThrows(NoMoreMovesException.class, () -> new NegamaxAI(2).findBestMove(model));
+    }
+
+    @Test
+    public void testSearchReportsStatistics() throws NoMoreMovesException {
+        SearchResult result = new NegamaxAI(8).search(model, 0);
+        assertEquals(3, result.column());
+        assertEquals(8, result.depth());
+        assertTrue(result.nodes() > 0);
+        assertTrue(result.nodesPerSecond() > 0);
+    }
+
+    @Test
+    public void testSearchStopsAtDeadline() throws NoMoreMovesException {
+        long start = System.nanoTime();
+        SearchResult result = new NegamaxAI(42).search(model, 50);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(millis < 1000, "search took " + millis + " ms");
+        assertTrue(result.depth() < 42);
+        assertTrue(model.isValidMove(result.column()));
+        assertArrayEquals(new int[6][7], model.getBoard());
+    }
+
+    @Test
+    public void testCancelFromAnotherThread() throws Exception {
+        NegamaxAI ai = new NegamaxAI(42);
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ai.cancel();
+        });
+        canceller.start();
+        long start = System.nanoTime();
+        SearchResult result = ai.search(model, 0);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        canceller.join();
+        assertTrue(millis < 5000, "search took " + millis + " ms");
+        assertTrue(model.isValidMove(result.column()));
+        assertEquals(0L, model.getHash());
+    }
+
+    @Test
+    public void testCancelBeforeSearchStarts() throws NoMoreMovesException {
+        NegamaxAI ai = new NegamaxAI(42);
+        int cancelCount = ai.getCancelCount();
+        // cancelled after deciding to search but before the search started
+        ai.cancel();
+        long start = System.nanoTime();
+        SearchResult result = ai.search(model, 0, cancelCount);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(millis < 1000, "search took " + millis + " ms");
+        assertTrue(model.isValidMove(result.column()));
+        // a cancel before the count was read does not stop the next search
+        assertTrue(ai.search(model, 50).depth() > 1);
+    }
+
+    @Test
+    public void testTimeBudget() {
+        TimeBudget budget = new TimeBudget(1000, 10_000);
+        assertEquals(1000, budget.nextMoveMillis(5));
+        budget.consume(8000);
+        assertEquals(500, budget.nextMoveMillis(4));
+        budget.consume(5000);
+        assertEquals(1, budget.nextMoveMillis(4));
+        budget.reset();
+        assertEquals(10_000, budget.getRemainingMillis());
+    }
+
+    @Test
+    public void testParallelSearchBlocksLosingMove() throws InvalidMoveException, NoMoreMovesException {
+        model.play(0);
+        model.play(6);
+        model.play(1);
+        model.play(6);
+        model.play(2);
+        long hash = model.getHash();
+        try (ParallelNegamaxAI ai = new ParallelNegamaxAI(10, 3)) {
+            SearchResult result = ai.search(model, 0);
+            assertEquals(3, result.column());
+            assertEquals(10, result.depth());
+        }
+        assertEquals(hash, model.getHash());
+    }
+
+    @Test
+    public void testParallelSearchStopsAtDeadline() throws NoMoreMovesException {
+        try (ParallelNegamaxAI ai = new ParallelNegamaxAI(42, 4)) {
+            long start = System.nanoTime();
+            SearchResult result = ai.search(model, 50);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(millis < 1000, "search took " + millis + " ms");
+            assertTrue(model.isValidMove(result.column()));
+        }
+    }
+
+    @Test
+    public void testParallelCancelBeforeSearchStarts() throws NoMoreMovesException {
+        try (ParallelNegamaxAI ai = new ParallelNegamaxAI(42, 4)) {
+            int cancelCount = ai.getCancelCount();
+            ai.cancel();
+            long start = System.nanoTime();
+            SearchResult result = ai.search(model, 0, cancelCount);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(millis < 1000, "search took " + millis + " ms");
+            assertTrue(model.isValidMove(result.column()));
+            assertEquals(0L, model.getHash());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package test;
+
+import game.ai.NegamaxAI;
+import game.ai.OpeningBook;
+import game.ai.OpeningBookGenerator;
+import game.model.BitboardVierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("openingbook", ".bin");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testBookForBothPlayers() throws IOException, InvalidMoveException {
+        assertEquals(8, new OpeningBookGenerator(2, 6, 0, 2).generate(file));
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(8, book.size());
+        assertEquals(7, book.getWidth());
+        assertEquals(6, book.getHeight());
+        assertEquals(2, book.getPlies());
+        assertEquals(6, book.getDepth());
+        assertEquals(NegamaxAI.ENGINE_VERSION, book.getEngineVersion());
+
+        BitboardVierGewinntModel model = new BitboardVierGewinntModel();
+        assertEquals(3, book.lookup(model.getHash()));
+        for (int col = 0; col < model.getWidth(); col++) {
+            BitboardVierGewinntModel child = model.fork();
+            child.play(col);
+            assertTrue(child.isValidMove(book.lookup(child.getHash())));
+            child.play(col);
+            assertEquals(-1, book.lookup(child.getHash()));
+        }
+    }
+
+    @Test
+    public void testBookFollowsOnlyBookMoves() throws IOException, InvalidMoveException {
+        int size = new OpeningBookGenerator(4, 4, 2, 1).generate(file);
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(size, book.size());
+
+        BitboardVierGewinntModel model = new BitboardVierGewinntModel();
+        assertEquals(-1, book.lookup(model.getHash()));
+        for (int first = 0; first < model.getWidth(); first++) {
+            BitboardVierGewinntModel position = model.fork();
+            position.play(first);
+            int answer = book.lookup(position.getHash());
+            assertTrue(position.isValidMove(answer));
+            position.play(answer);
+            for (int third = 0; third < model.getWidth(); third++) {
+                BitboardVierGewinntModel child = position.fork();
+                child.play(third);
+                assertNotEquals(-1, book.lookup(child.getHash()));
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IOException.class, () -> OpeningBook.open(file));
+
+        new OpeningBookGenerator(1, 1, 1, 1).generate(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+}
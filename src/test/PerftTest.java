@@ -0,0 +1,69 @@
+package test;
+
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.sim.Perft;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    /**
+     * the number of move sequences from the empty board for the depths 0 to 9. at depth 7 the
+     * seven sequences that play one column seven times are invalid, from depth 8 on won games end early.
+     */
+    private static final long[] EMPTY_BOARD = {1, 7, 49, 343, 2401, 16807, 117649, 823536, 5673234, 39394572};
+
+    @Test
+    public void testEmptyBoardVierGewinntModel() {
+        IVierGewinntModel model = new VierGewinntModel();
+        for (int depth = 0; depth <= 8; depth++) {
+            assertEquals(EMPTY_BOARD[depth], Perft.perft(model, depth));
+        }
+        assertArrayEquals(new int[6][7], model.getBoard());
+    }
+
+    @Test
+    public void testEmptyBoardBitboard() {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        for (int depth = 0; depth < EMPTY_BOARD.length; depth++) {
+            assertEquals(EMPTY_BOARD[depth], Perft.perft(model, depth));
+        }
+        assertEquals(0, model.getMoveCount());
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        assertEquals(EMPTY_BOARD[8], Perft.perft(model, 8, 3));
+        assertEquals(EMPTY_BOARD[1], Perft.perft(model, 1, 3));
+    }
+
+    @Test
+    public void testDivide() {
+        long[] nodes = Perft.divide(new BitboardVierGewinntModel(), 8);
+        assertEquals(EMPTY_BOARD[8], Arrays.stream(nodes).sum());
+        // the board is symmetric
+        for (int col = 0; col < 3; col++) {
+            assertEquals(nodes[col], nodes[6 - col]);
+        }
+    }
+
+    @Test
+    public void testFromMoves() throws InvalidMoveException {
+        long[] expected = {1, 7, 49, 343, 2317, 16218, 108118, 749587};
+        IVierGewinntModel bitboard = new BitboardVierGewinntModel();
+        IVierGewinntModel array = new VierGewinntModel();
+        Perft.playMoves(bitboard, "4453");
+        Perft.playMoves(array, "4453");
+        for (int depth = 0; depth < expected.length; depth++) {
+            assertEquals(expected[depth], Perft.perft(bitboard, depth));
+            assertEquals(expected[depth], Perft.perft(array, depth));
+        }
+    }
+}
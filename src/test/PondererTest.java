@@ -0,0 +1,102 @@
+package test;
+
+import game.ai.NegamaxAI;
+import game.ai.SearchResult;
+import game.ai.TranspositionTable;
+import game.controller.AIExecutor;
+import game.controller.Ponderer;
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.Move;
+import game.model.exceptions.InvalidMoveException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PondererTest {
+
+    private AIExecutor executor;
+    private Ponderer ponderer;
+    private IVierGewinntModel model;
+
+    @BeforeEach
+    public void setUp() throws InvalidMoveException {
+        executor = new AIExecutor(AIExecutor.Mode.SINGLE);
+        ponderer = new Ponderer(new NegamaxAI(42, new TranspositionTable(1 << 16)), executor);
+        model = new BitboardVierGewinntModel();
+        for (int col : new int[]{3, 3, 2, 4, 4}) {
+            model.play(col);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ponderer.stop();
+        executor.close();
+    }
+
+    private int awaitGuess() throws InterruptedException {
+        for (int i = 0; i < 200 && ponderer.getGuess() == -1; i++) {
+            Thread.sleep(10);
+        }
+        int guess = ponderer.getGuess();
+        assertNotEquals(-1, guess);
+        return guess;
+    }
+
+    /**
+     * Checks that the single thread of the executor is free again soon.
+     */
+    private void assertExecutorFree() throws Exception {
+        CompletableFuture<Move> next = executor.submit(() -> new Move(0, 0));
+        assertEquals(new Move(0, 0), next.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPonderHit() throws Exception {
+        ponderer.start(model.fork());
+        int guess = awaitGuess();
+        CompletableFuture<SearchResult> pondered = ponderer.reply(guess, 200);
+        assertNotNull(pondered);
+        SearchResult result = pondered.get(2, TimeUnit.SECONDS);
+        assertNotNull(result);
+        model.play(guess);
+        assertTrue(model.isValidMove(result.column()));
+        assertTrue(result.depth() >= 1);
+    }
+
+    @Test
+    public void testHitAfterLongPonderingAnswersAtOnce() throws Exception {
+        ponderer.start(model.fork());
+        int guess = awaitGuess();
+        Thread.sleep(600);
+        long start = System.nanoTime();
+        SearchResult result = ponderer.reply(guess, 100).get(2, TimeUnit.SECONDS);
+        // the move time is used up, so only the slice running at the hit is cut short
+        assertTrue(System.nanoTime() - start < 250_000_000L);
+        assertTrue(result.depth() > 1);
+    }
+
+    @Test
+    public void testPonderMiss() throws Exception {
+        ponderer.start(model.fork());
+        int guess = awaitGuess();
+        int other = (guess + 1) % model.getWidth();
+        assertNull(ponderer.reply(other, 200));
+        assertEquals(-1, ponderer.getGuess());
+        assertExecutorFree();
+    }
+
+    @Test
+    public void testStopBeforeGuess() throws Exception {
+        ponderer.start(model.fork());
+        ponderer.stop();
+        assertNull(ponderer.reply(3, 200));
+        assertExecutorFree();
+    }
+}
@@ -0,0 +1,67 @@
+package test;
+
+import game.ai.RandomAI;
+import game.model.BitboardVierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import game.sim.SelfPlay;
+import game.sim.SimulationResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SelfPlayTest {
+
+    @Test
+    public void testRandomGames() {
+        SelfPlay selfPlay = new SelfPlay(SelfPlay.parsePlayer("random"), SelfPlay.parsePlayer("random"),
+                SelfPlay.parseModel("bitboard"), 2, 0, 42);
+        SimulationResult result = selfPlay.run(200);
+        assertEquals(200, result.games());
+        assertEquals(200, result.player1Wins() + result.player2Wins() + result.draws());
+        assertTrue(result.moves() >= 200 * 7);
+        assertEquals(result.moves(), result.latencies1().length + result.latencies2().length);
+        assertTrue(result.latency(1, 50) <= result.latency(1, 99));
+        assertTrue(result.latency(1, 99) <= result.latency(1, 100));
+    }
+
+    @Test
+    public void testSearchBeatsRandom() {
+        SelfPlay selfPlay = new SelfPlay(SelfPlay.parsePlayer("negamax:4"), SelfPlay.parsePlayer("random"),
+                SelfPlay.parseModel("bitboard"), 1, 2, 42);
+        SimulationResult result = selfPlay.run(20);
+        assertTrue(result.player1Wins() >= 18, "won " + result.player1Wins());
+        assertEquals(result.moves(), result.latencies1().length + result.latencies2().length + 20 * 2);
+    }
+
+    @Test
+    public void testOpeningsAreReproducible() {
+        SelfPlay selfPlay = new SelfPlay(SelfPlay.parsePlayer("negamax:2"), SelfPlay.parsePlayer("negamax:2"),
+                SelfPlay.parseModel("bitboard"), 2, 4, 7);
+        SimulationResult first = selfPlay.run(30);
+        SimulationResult second = selfPlay.run(30);
+        assertEquals(first.moves(), second.moves());
+        assertEquals(first.player1Wins(), second.player1Wins());
+    }
+
+    @Test
+    public void testInvalidPlayer() {
+        assertThrows(IllegalArgumentException.class, () -> SelfPlay.parsePlayer("minimax:3"));
+        assertThrows(IllegalArgumentException.class, () -> SelfPlay.parsePlayer("negamax"));
+        assertThrows(IllegalArgumentException.class, () -> SelfPlay.parseModel("hexagonal"));
+    }
+
+    @Test
+    public void testRandomAIPlaysValidColumns() throws InvalidMoveException, NoMoreMovesException {
+        BitboardVierGewinntModel model = new BitboardVierGewinntModel();
+        for (int i = 0; i < model.getHeight(); i++) {
+            model.play(0);
+            model.play(6);
+        }
+        RandomAI ai = new RandomAI(1);
+        for (int i = 0; i < 100; i++) {
+            int col = ai.findBestMove(model);
+            assertTrue(col >= 1 && col <= 5);
+        }
+    }
+}
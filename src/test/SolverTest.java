@@ -0,0 +1,168 @@
+package test;
+
+import game.ai.NegamaxAI;
+import game.ai.SearchResult;
+import game.ai.Solver;
+import game.ai.SolverCache;
+import game.ai.SolverResult;
+import game.ai.TranspositionTable;
+import game.model.BitboardVierGewinntModel;
+import game.model.IVierGewinntModel;
+import game.model.VierGewinntModel;
+import game.model.exceptions.InvalidMoveException;
+import game.model.exceptions.NoMoreMovesException;
+import game.sim.Perft;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolverTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("solver", ".cache");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWinInOne() throws InvalidMoveException {
+        IVierGewinntModel model = new VierGewinntModel();
+        Perft.playMoves(model, "121212");
+        SolverResult result = new Solver().solve(model);
+        assertEquals(0, result.column());
+        assertEquals(1, result.outcome());
+        assertEquals(1, result.plies());
+        assertEquals(6, model.getMoveCount());
+    }
+
+    @Test
+    public void testLossInTwo() throws InvalidMoveException {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        // player 2 can only block one end of the open three, player 1 wins at the other
+        Perft.playMoves(model, "27374");
+        SolverResult result = new Solver().solve(model);
+        assertEquals(-1, result.outcome());
+        assertEquals(2, result.plies());
+    }
+
+    @Test
+    public void testAnalyze() throws InvalidMoveException {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        Perft.playMoves(model, "1111112");
+        int[] scores = new Solver().analyze(model);
+        assertEquals(Solver.INVALID, scores[0]);
+        for (int col = 1; col < model.getWidth(); col++) {
+            assertNotEquals(Solver.INVALID, scores[col]);
+        }
+    }
+
+    @Test
+    public void testMatchesNegamax() throws InvalidMoveException, NoMoreMovesException {
+        SplittableRandom random = new SplittableRandom(7);
+        Solver solver = new Solver();
+        int checked = 0;
+        while (checked < 10) {
+            IVierGewinntModel model = randomPosition(random, 26);
+            if (model == null) {
+                continue;
+            }
+            SolverResult result = solver.solve(model);
+            SearchResult search = new NegamaxAI(42).search(model, 60_000);
+            int outcome = Integer.signum(search.score() / (NegamaxAI.WIN_SCORE / 2));
+            assertEquals(outcome, result.outcome());
+            int plies = outcome == 0 ? 42 - model.getMoveCount() : NegamaxAI.WIN_SCORE - Math.abs(search.score()) + 1;
+            assertEquals(plies, result.plies());
+            checked++;
+        }
+    }
+
+    @Test
+    public void testCacheSurvivesReopening() throws IOException, InvalidMoveException {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        Perft.playMoves(model, "4444433322");
+        SolverResult first;
+        try (SolverCache cache = SolverCache.open(file, 7, 6)) {
+            first = new Solver(new TranspositionTable(1 << 16), cache).solve(model);
+            assertTrue(cache.size() > 1);
+            assertTrue(cache.contains(Solver.key(model)));
+            assertEquals(first.score(), cache.get(Solver.key(model)));
+        }
+        try (SolverCache cache = SolverCache.open(file, 7, 6)) {
+            SolverResult second = new Solver(new TranspositionTable(1 << 16), cache).solve(model);
+            assertEquals(first.column(), second.column());
+            assertEquals(first.score(), second.score());
+            assertEquals(first.plies(), second.plies());
+            assertEquals(0, second.nodes());
+        }
+    }
+
+    @Test
+    public void testTornRecordIsCutOff() throws IOException {
+        try (SolverCache cache = SolverCache.open(file, 7, 6)) {
+            cache.put(1, 3);
+            cache.put(2, -4);
+            cache.put(1, 3);
+        }
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        }
+        try (SolverCache cache = SolverCache.open(file, 7, 6)) {
+            assertEquals(2, cache.size());
+            assertEquals(3, cache.get(1));
+            assertEquals(-4, cache.get(2));
+        }
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    public void testCacheOfOtherBoard() throws IOException {
+        SolverCache.open(file, 7, 6).close();
+        assertThrows(IOException.class, () -> SolverCache.open(file, 8, 7));
+    }
+
+    @Test
+    public void testUnsupportedBoards() {
+        Solver solver = new Solver();
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(new VierGewinntModel(7, 6, 5)));
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(new VierGewinntModel(10, 10, 4)));
+    }
+
+    /**
+     * Plays random moves until the given number of chips is on the board.
+     *
+     * @param random the random number generator
+     * @param moves  the number of chips
+     * @return the model, or null if the game was won on the way
+     */
+    private static IVierGewinntModel randomPosition(SplittableRandom random, int moves) throws InvalidMoveException {
+        IVierGewinntModel model = new BitboardVierGewinntModel();
+        while (model.getMoveCount() < moves) {
+            int col = random.nextInt(model.getWidth());
+            if (model.isValidMove(col)) {
+                model.play(col);
+                if (!model.gameWon().isEmpty()) {
+                    return null;
+                }
+            }
+        }
+        return model;
+    }
+}
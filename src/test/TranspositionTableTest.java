@@ -0,0 +1,77 @@
+package test;
+
+import game.ai.TranspositionTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    private TranspositionTable table;
+
+    @BeforeEach
+    public void setUp() {
+        table = new TranspositionTable(1000);
+    }
+
+    @Test
+    public void testCapacityIsPowerOfTwo() {
+        assertEquals(1024, table.getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    public void testStoreAndProbe() {
+        table.store(42L, -1234, TranspositionTable.LOWER_BOUND, 17, 6);
+        long entry = table.probe(42L);
+        assertNotEquals(TranspositionTable.NO_ENTRY, entry);
+        assertEquals(-1234, TranspositionTable.score(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        assertEquals(17, TranspositionTable.depth(entry));
+        assertEquals(6, TranspositionTable.bestMove(entry));
+    }
+
+    @Test
+    public void testMissAndCounters() {
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(42L));
+        table.store(42L, 0, TranspositionTable.EXACT, 1, -1);
+        assertEquals(-1, TranspositionTable.bestMove(table.probe(42L)));
+        // same slot, different position
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(42L + 1024));
+        assertEquals(1, table.getHits());
+        assertEquals(2, table.getMisses());
+        assertEquals(1, table.getStores());
+        table.clear();
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(42L));
+        assertEquals(0, table.getHits());
+    }
+
+    @Test
+    public void testDeeperEntryOfCurrentSearchIsKept() {
+        table.store(7L, 1, TranspositionTable.EXACT, 10, 3);
+        table.store(7L + 1024, 2, TranspositionTable.EXACT, 5, 3);
+        assertEquals(1, TranspositionTable.score(table.probe(7L)));
+
+        table.store(7L + 1024, 3, TranspositionTable.EXACT, 10, 3);
+        assertEquals(3, TranspositionTable.score(table.probe(7L + 1024)));
+    }
+
+    @Test
+    public void testOlderSearchIsReplaced() {
+        table.store(7L, 1, TranspositionTable.EXACT, 10, 3);
+        table.newSearch();
+        table.store(7L + 1024, 2, TranspositionTable.EXACT, 1, 3);
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(7L));
+        assertEquals(2, TranspositionTable.score(table.probe(7L + 1024)));
+    }
+
+    @Test
+    public void testSamePositionIsAlwaysReplaced() {
+        table.store(7L, 1, TranspositionTable.EXACT, 10, 3);
+        table.store(7L, 2, TranspositionTable.UPPER_BOUND, 2, 4);
+        long entry = table.probe(7L);
+        assertEquals(2, TranspositionTable.score(entry));
+        assertEquals(4, TranspositionTable.bestMove(entry));
+    }
+}
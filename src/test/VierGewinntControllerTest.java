@@ -0,0 +1,110 @@
+package test;
+
+import game.controller.AIExecutor;
+import game.controller.VierGewinntController;
+import game.log.GameEvent;
+import game.model.Move;
+import game.model.Position;
+import game.view.IVierGewinntView;
+import game.view.RenderState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VierGewinntControllerTest {
+
+    /**
+     * Records the states published by the controller.
+     */
+    private static final class RecordingView implements IVierGewinntView {
+        final List<RenderState> states = new ArrayList<>();
+
+        @Override
+        public synchronized void publish(RenderState state) {
+            states.add(state);
+        }
+
+        synchronized RenderState last() {
+            return states.get(states.size() - 1);
+        }
+
+        @Override
+        public void drawTiles(Position board) {
+        }
+
+        @Override
+        public void displayHelp() {
+        }
+
+        @Override
+        public void displayStart() {
+        }
+
+        @Override
+        public void log(List<GameEvent> events) {
+        }
+
+        @Override
+        public void displayWinningMoves(List<Move> moves) {
+        }
+
+        @Override
+        public void drawPieces(Position board) {
+        }
+
+        @Override
+        public void displayBoard(Position board, int position) {
+        }
+
+        @Override
+        public void drawPiecePosition(int position, boolean isPlayerTurn) {
+        }
+
+        @Override
+        public void displayWinner(int winner) {
+        }
+    }
+
+    private RecordingView view;
+    private AIExecutor executor;
+    private VierGewinntController controller;
+
+    @BeforeEach
+    public void setUp() {
+        view = new RecordingView();
+        executor = new AIExecutor(AIExecutor.Mode.SINGLE);
+        controller = new VierGewinntController(view, executor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        controller.close();
+        executor.close();
+    }
+
+    @Test
+    public void testPlayerMoveIsDropped() {
+        controller.handleKeyPressed('1');
+        controller.handleKeyPressed(PConstants.DOWN);
+        assertEquals(new Move(0, 3), view.last().lastMove());
+        controller.handleKeyPressed(PConstants.RIGHT);
+        controller.handleKeyPressed(PConstants.DOWN);
+        assertEquals(new Move(0, 4), view.last().lastMove());
+        assertEquals(2, view.last().board().getPly());
+    }
+
+    @Test
+    public void testPlayerMoveIsDroppedWhenPlayingWithAI() {
+        // no searches are run, so the AI does not move meanwhile
+        executor.close();
+        controller.handleKeyPressed('2');
+        controller.handleKeyPressed(PConstants.DOWN);
+        assertEquals(new Move(0, 3), view.last().lastMove());
+    }
+}
@@ -1,6 +1,9 @@
 package test;
 
+import game.model.BitboardVierGewinntModel;
 import game.model.Move;
+import game.model.Moves;
+import game.model.Position;
 import game.model.VierGewinntModel;
 import game.model.exceptions.InvalidMoveException;
 import game.model.exceptions.NoMoreMovesException;
@@ -9,7 +12,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -84,6 +89,27 @@ public class VierGewinntModelTest {
         assertTrue(model.isGameOver());
     }
 
+    @Test
+    public void testIsGameOverNeedsFullBoard() throws InvalidMoveException, NoMoreUndoMovesException {
+        for (int row = 0; row < model.getHeight(); row++) {
+            model.play(model.getWidth() - 1);
+        }
+        assertFalse(model.isGameOver());
+        assertFalse(model.isValidMove(model.getWidth() - 1));
+        model.undo();
+        assertTrue(model.isValidMove(model.getWidth() - 1));
+    }
+
+    @Test
+    public void testGetMoveCount() throws InvalidMoveException, NoMoreUndoMovesException {
+        assertEquals(0, model.getMoveCount());
+        model.play(3);
+        model.play(3);
+        assertEquals(2, model.getMoveCount());
+        model.undo();
+        assertEquals(1, model.getMoveCount());
+    }
+
 
     @Test
     public void testGameWonHorizontal() throws InvalidMoveException {
@@ -198,5 +224,177 @@ public class VierGewinntModelTest {
         assertFalse(winningMoves.isEmpty());
     }
 
+    @Test
+    public void testGameWonIsCached() throws InvalidMoveException, NoMoreUndoMovesException {
+        for (int i = 0; i < 3; i++) {
+            model.play(0);
+            model.play(1);
+        }
+        model.play(0);
+        List<Move> winningMoves = model.gameWon();
+        assertSame(winningMoves, model.gameWon());
+        model.undo();
+        assertTrue(model.gameWon().isEmpty());
+    }
+
+    @Test
+    public void testGameWonMatchesFullScan() throws InvalidMoveException, NoMoreUndoMovesException {
+        Random random = new Random(7);
+        for (int game = 0; game < 500; game++) {
+            model = new VierGewinntModel();
+            while (!model.isGameOver() && model.gameWon().isEmpty()) {
+                try {
+                    model.play(random.nextInt(model.getWidth()));
+                } catch (InvalidMoveException e) {
+                    continue;
+                }
+                assertEquals(new HashSet<>(model.gameWonFullScan()), new HashSet<>(model.gameWon()));
+            }
+            model.undo();
+            assertEquals(new HashSet<>(model.gameWonFullScan()), new HashSet<>(model.gameWon()));
+        }
+    }
+
+    @Test
+    public void testGameWonMatchesFullScanOnLargeBoards() throws NoMoreUndoMovesException {
+        Random random = new Random(11);
+        int[][] sizes = {{8, 9, 4}, {7, 10, 4}, {7, 6, 5}, {16, 16, 6}};
+        for (int[] size : sizes) {
+            for (int game = 0; game < 100; game++) {
+                model = new VierGewinntModel(size[0], size[1], size[2]);
+                int move = 0;
+                while (!Moves.isWin(move) && !model.isGameOver()) {
+                    move = model.tryPlay(random.nextInt(model.getWidth()));
+                    if (Moves.isValid(move)) {
+                        assertEquals(Moves.isWin(move), !model.gameWonFullScan().isEmpty());
+                        assertEquals(new HashSet<>(model.gameWonFullScan()), new HashSet<>(model.gameWon()));
+                    }
+                }
+                model.undo();
+                assertTrue(model.gameWon().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testForkIsIndependent() throws InvalidMoveException, NoMoreUndoMovesException {
+        model.play(3);
+        model.play(4);
+        VierGewinntModel copy = model.fork();
+        assertEquals(model.getHash(), copy.getHash());
+        assertArrayEquals(model.getBoard(), copy.getBoard());
+
+        copy.play(3);
+        assertEquals(0, model.getBoard()[1][3]);
+        assertEquals(new Move(1, 3), copy.undo());
+        assertEquals(new Move(0, 4), copy.undo());
+        assertEquals(new Move(0, 4), model.undo());
+    }
 
+    @Test
+    public void testCopyFrom() throws InvalidMoveException, NoMoreUndoMovesException {
+        for (int col : new int[]{3, 4, 3, 4, 3, 4}) {
+            model.play(col);
+        }
+        VierGewinntModel copy = new VierGewinntModel();
+        copy.play(0);
+        int[][] board = copy.getBoard();
+        assertTrue(copy.copyFrom(model));
+        // the board handed out before is brought up to date
+        assertSame(board, copy.getBoard());
+        assertArrayEquals(model.getBoard(), board);
+        assertArrayEquals(model.getMoves(), copy.getMoves());
+        assertEquals(model.getHash(), copy.getHash());
+        assertEquals(model.publish(), copy.publish());
+
+        copy.play(3);
+        assertEquals(1, copy.getBoard()[3][3]);
+        assertFalse(copy.gameWon().isEmpty());
+        assertTrue(model.gameWon().isEmpty());
+        assertEquals(new Move(2, 4), model.undo());
+        assertEquals(new Move(3, 3), copy.undo());
+        assertEquals(new Move(2, 4), copy.undo());
+
+        VierGewinntModel other = new VierGewinntModel(8, 6, 4);
+        assertFalse(other.copyFrom(model));
+        assertFalse(copy.copyFrom(new BitboardVierGewinntModel()));
+        assertEquals(5, copy.getMoveCount());
+    }
+
+    @Test
+    public void testLargeBoard() throws InvalidMoveException {
+        model = new VierGewinntModel(10, 7, 5);
+        assertEquals(7, model.getBoard().length);
+        assertEquals(10, model.getBoard()[0].length);
+        for (int i = 0; i < 4; i++) {
+            model.play(9);
+            model.play(8);
+        }
+        assertTrue(model.gameWon().isEmpty());
+        model.play(9);
+        assertEquals(5, model.gameWon().size());
+        assertEquals(new HashSet<>(model.gameWonFullScan()), new HashSet<>(model.gameWon()));
+    }
+
+    @Test
+    public void testPublishedPositionOfLargeBoard()
+            throws InvalidMoveException, NoMoreMovesException, NoMoreUndoMovesException {
+        model = new VierGewinntModel(16, 16, 4);
+        for (int i = 0; i < 200; i++) {
+            model.playRandom();
+        }
+        Position position = model.publish();
+        assertEquals(200, position.getPly());
+        assertArrayEquals(model.getBoard(), position.toBoard());
+        assertThrows(IllegalStateException.class, () -> position.getMask(1));
+        int[][] board = position.toBoard();
+        for (int i = 0; i < 100; i++) {
+            model.undo();
+            model.playRandom();
+        }
+        // the snapshot does not change with the model
+        assertArrayEquals(board, position.toBoard());
+        assertSame(position, model.getPosition());
+        assertArrayEquals(model.getBoard(), model.publish().toBoard());
+    }
+
+    @Test
+    public void testInvalidGeometry() {
+        assertThrows(IllegalArgumentException.class, () -> new VierGewinntModel(17, 6, 4));
+        assertThrows(IllegalArgumentException.class, () -> new VierGewinntModel(7, 0, 4));
+    }
+
+    @Test
+    public void testTryPlay() throws NoMoreUndoMovesException {
+        assertEquals(Moves.INVALID, model.tryPlay(-1));
+        assertEquals(Moves.INVALID, model.tryPlay(7));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Moves.of(i, 0), model.tryPlay(0));
+            assertEquals(Moves.of(i, 1), model.tryPlay(1));
+        }
+        int move = model.tryPlay(0);
+        assertTrue(Moves.isWin(move));
+        assertFalse(Moves.isFull(move));
+        assertEquals(new Move(3, 0), Moves.toMove(move));
+        assertEquals(new Move(3, 0), model.undo());
+
+        for (int i = 0; i < 3; i++) {
+            model.playUnchecked(0);
+        }
+        assertEquals(0b1111110, model.getLegalMoves());
+        assertEquals(Moves.INVALID, model.tryPlay(0));
+        assertEquals(Moves.of(5, 0), model.undoUnchecked());
+        assertEquals(0b1111111, model.getLegalMoves());
+    }
+
+    @Test
+    public void testTryPlayFillsBoard() {
+        model = new VierGewinntModel(2, 1, 2);
+        assertEquals(Moves.of(0, 0), model.tryPlay(0));
+        int move = model.tryPlay(1);
+        assertTrue(Moves.isFull(move));
+        assertFalse(Moves.isWin(move));
+        assertEquals(0, model.getLegalMoves());
+        assertEquals("[0, 1] full", Moves.toString(move));
+    }
 }